@@ -0,0 +1,77 @@
+package com.vpolosov.trainee.mergexml.benchmarks;
+
+import com.vpolosov.trainee.mergexml.service.TotalDocument;
+import com.vpolosov.trainee.mergexml.utils.DocumentUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Объединение разобранных платёжных документов в общий документ, как в {@code MergeService.aggregateTotal}.
+ *
+ * @author Maksim Litvinenko
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AggregateBenchmark {
+
+    /**
+     * Количество платёжных документов, по одному платежу в файле.
+     */
+    @Param({"10", "100", "1000", "10000"})
+    private int documentCount;
+
+    /**
+     * Вспомогательный класс для работы с XML документами.
+     */
+    private DocumentUtil documentUtil;
+
+    /**
+     * Разобранные платёжные документы.
+     */
+    private List<Document> documents;
+
+    /**
+     * Создаёт и разбирает платёжные документы.
+     */
+    @Setup
+    public void setUp() {
+        documentUtil = BenchmarkData.documentUtil(BenchmarkData.configProperties());
+        var directory = BenchmarkData.paymentsDirectory(documentCount);
+        try {
+            documents = BenchmarkData.xmlFiles(directory).map(file -> documentUtil.parse(file.toFile())).toList();
+        } finally {
+            BenchmarkData.delete(directory);
+        }
+    }
+
+    /**
+     * Объединяет все документы в новый общий документ.
+     *
+     * @return общий документ.
+     */
+    @Benchmark
+    public TotalDocument aggregate() {
+        var totalDocument = new TotalDocument(documentUtil.create());
+        for (var document : documents) {
+            totalDocument.append(document);
+        }
+        return totalDocument;
+    }
+}
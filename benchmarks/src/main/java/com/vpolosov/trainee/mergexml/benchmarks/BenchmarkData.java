@@ -0,0 +1,167 @@
+package com.vpolosov.trainee.mergexml.benchmarks;
+
+import com.vpolosov.trainee.mergexml.config.ConfigProperties;
+import com.vpolosov.trainee.mergexml.config.XmlConfig;
+import com.vpolosov.trainee.mergexml.utils.DocumentBuilderPool;
+import com.vpolosov.trainee.mergexml.utils.DocumentUtil;
+import com.vpolosov.trainee.mergexml.utils.SaxParserPool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Данные для бенчмарков: свойства приложения, вспомогательные классы и каталоги с платёжными документами.
+ * <p>
+ * Платёжные документы создаются по шаблону {@code payment.xml} с уникальным ref и текущей датой,
+ * поэтому проходят все проверки, кроме проверки по истории платежей.
+ *
+ * @author Maksim Litvinenko
+ */
+public final class BenchmarkData {
+
+    /**
+     * Шаблон платёжного документа.
+     */
+    private static final String PAYMENT_TEMPLATE = "payment.xml";
+
+    /**
+     * XSD схема платёжного документа.
+     */
+    public static final String PAYMENT_SCHEMA = "payment.xsd";
+
+    /**
+     * Ref документа в шаблоне.
+     */
+    private static final String TEMPLATE_DOC_REF = "1fd63ceb89e44fe8875e1892a1cec5f2";
+
+    /**
+     * Дата документа в шаблоне.
+     */
+    private static final String TEMPLATE_DOCUMENT_DATE = "<DOCUMENTDATE>22.02.2024</DOCUMENTDATE>";
+
+    /**
+     * Формат даты платёжного документа.
+     */
+    public static final DateTimeFormatter LOCAL_DATE_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Возвращает свойства приложения со значениями из {@code config.txt}, которые нужны валидаторам.
+     *
+     * @return свойства приложения.
+     */
+    public static ConfigProperties configProperties() {
+        var configProperties = new ConfigProperties();
+        configProperties.setCurrencyCode(810);
+        configProperties.setMinPayment(BigDecimal.TEN);
+        configProperties.setMaxPayment(BigDecimal.valueOf(100_000));
+        configProperties.setFileName("Total.xml");
+        return configProperties;
+    }
+
+    /**
+     * Создаёт вспомогательный класс для работы с XML документами.
+     *
+     * @param configProperties свойства приложения.
+     * @return вспомогательный класс для работы с XML документами.
+     */
+    public static DocumentUtil documentUtil(ConfigProperties configProperties) {
+        var xmlConfig = new XmlConfig();
+        return new DocumentUtil(
+            new DocumentBuilderPool(xmlConfig.documentBuilderFactory(), configProperties, new SimpleMeterRegistry()),
+            new SaxParserPool(xmlConfig.saxParserFactory(), configProperties, new SimpleMeterRegistry())
+        );
+    }
+
+    /**
+     * Создаёт временный каталог с платёжными документами и XSD схемой.
+     *
+     * @param count количество платёжных документов.
+     * @return путь до каталога.
+     * @throws UncheckedIOException если не удалось записать файлы.
+     */
+    public static Path paymentsDirectory(int count) {
+        var template = resource(PAYMENT_TEMPLATE).replace(
+            TEMPLATE_DOCUMENT_DATE,
+            "<DOCUMENTDATE>" + LocalDate.now().format(LOCAL_DATE_FORMAT) + "</DOCUMENTDATE>"
+        );
+        try {
+            var directory = Files.createTempDirectory("merge-xml-benchmark");
+            Files.writeString(directory.resolve(PAYMENT_SCHEMA), resource(PAYMENT_SCHEMA));
+            for (int i = 0; i < count; i++) {
+                var docRef = UUID.randomUUID().toString().replace("-", "");
+                Files.writeString(
+                    directory.resolve("DTO" + i + ".xml"), template.replace(TEMPLATE_DOC_REF, docRef)
+                );
+            }
+            return directory;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Возвращает XML файлы платёжных документов каталога в порядке имён.
+     *
+     * @param directory каталог, созданный {@link #paymentsDirectory(int)}.
+     * @return XML файлы.
+     * @throws UncheckedIOException если не удалось прочитать каталог.
+     */
+    public static Stream<Path> xmlFiles(Path directory) {
+        try (var files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(".xml"))
+                .sorted()
+                .toList()
+                .stream();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Удаляет каталог вместе с файлами.
+     *
+     * @param directory каталог.
+     * @throws UncheckedIOException если не удалось удалить файлы.
+     */
+    public static void delete(Path directory) {
+        try (var files = Files.walk(directory)) {
+            for (var file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Читает ресурс модуля.
+     *
+     * @param name имя ресурса.
+     * @return содержимое ресурса.
+     * @throws UncheckedIOException если ресурс не удалось прочитать.
+     */
+    private static String resource(String name) {
+        try (InputStream inputStream = BenchmarkData.class.getClassLoader().getResourceAsStream(name)) {
+            if (inputStream == null) {
+                throw new IOException("Resource not found: " + name);
+            }
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.vpolosov.trainee.mergexml.benchmarks;
+
+import com.vpolosov.trainee.mergexml.utils.DocumentUtil;
+import com.vpolosov.trainee.mergexml.utils.SchemaCache;
+import com.vpolosov.trainee.mergexml.validators.XmlValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.helpers.NOPLogger;
+import org.w3c.dom.Document;
+
+import javax.xml.validation.Schema;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Разбор одного платёжного документа: без проверки и с одновременной проверкой по XSD схеме.
+ *
+ * @author Maksim Litvinenko
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+
+    /**
+     * Каталог с платёжным документом.
+     */
+    private Path directory;
+
+    /**
+     * Платёжный документ.
+     */
+    private File file;
+
+    /**
+     * Скомпилированная XSD схема.
+     */
+    private Schema schema;
+
+    /**
+     * Вспомогательный класс для работы с XML документами.
+     */
+    private DocumentUtil documentUtil;
+
+    /**
+     * Разбор с проверкой по XSD схеме.
+     */
+    private XmlValidator xmlValidator;
+
+    /**
+     * Создаёт платёжный документ и компилирует схему.
+     */
+    @Setup
+    public void setUp() {
+        var configProperties = BenchmarkData.configProperties();
+        directory = BenchmarkData.paymentsDirectory(1);
+        file = BenchmarkData.xmlFiles(directory).findFirst().orElseThrow().toFile();
+        schema = new SchemaCache(configProperties, new SimpleMeterRegistry())
+            .get(directory.resolve(BenchmarkData.PAYMENT_SCHEMA).toFile());
+        documentUtil = BenchmarkData.documentUtil(configProperties);
+        xmlValidator = new XmlValidator(NOPLogger.NOP_LOGGER, documentUtil);
+    }
+
+    /**
+     * Удаляет платёжный документ.
+     */
+    @TearDown
+    public void tearDown() {
+        BenchmarkData.delete(directory);
+    }
+
+    /**
+     * Разбор без проверки, {@code DocumentUtil.parse}.
+     *
+     * @return XML документ.
+     */
+    @Benchmark
+    public Document parse() {
+        return documentUtil.parse(file);
+    }
+
+    /**
+     * Разбор с проверкой по XSD схеме, как в {@code Validators.parse}.
+     *
+     * @return XML документ.
+     */
+    @Benchmark
+    public Document parseWithSchema() {
+        return xmlValidator.parse(file, schema);
+    }
+}
@@ -0,0 +1,111 @@
+package com.vpolosov.trainee.mergexml.benchmarks;
+
+import com.vpolosov.trainee.mergexml.config.XmlConfig;
+import com.vpolosov.trainee.mergexml.service.TotalDocument;
+import com.vpolosov.trainee.mergexml.utils.DocumentWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Запись общего документа: тождественным преобразованием {@link Transformer} для сравнения
+ * и напрямую через {@code DocumentWriter.write}, как при объединении.
+ *
+ * @author Maksim Litvinenko
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializeBenchmark {
+
+    /**
+     * Количество платёжных документов в общем документе.
+     */
+    @Param({"10", "100", "1000", "10000"})
+    private int documentCount;
+
+    /**
+     * Записывать ли документ с отступами.
+     */
+    @Param({"true", "false"})
+    private boolean indentTotal;
+
+    /**
+     * Общий документ.
+     */
+    private Document total;
+
+    /**
+     * Тождественное преобразование.
+     */
+    private Transformer transformer;
+
+    /**
+     * Прямая запись через XMLStreamWriter.
+     */
+    private DocumentWriter documentWriter;
+
+    /**
+     * Создаёт, разбирает и объединяет платёжные документы.
+     *
+     * @throws TransformerException если не удалось создать тождественное преобразование.
+     */
+    @Setup
+    public void setUp() throws TransformerException {
+        var configProperties = BenchmarkData.configProperties();
+        configProperties.setIndentTotal(indentTotal);
+        var documentUtil = BenchmarkData.documentUtil(configProperties);
+        var directory = BenchmarkData.paymentsDirectory(documentCount);
+        var totalDocument = new TotalDocument(documentUtil.create());
+        try {
+            BenchmarkData.xmlFiles(directory).forEach(file -> totalDocument.append(documentUtil.parse(file.toFile())));
+        } finally {
+            BenchmarkData.delete(directory);
+        }
+        total = totalDocument.document();
+        total.normalizeDocument();
+        transformer = TransformerFactory.newDefaultInstance().newTransformer();
+        transformer.setOutputProperty(OutputKeys.INDENT, indentTotal ? "yes" : "no");
+        var xmlConfig = new XmlConfig();
+        documentWriter = new DocumentWriter(xmlConfig.xmlOutputFactory(), configProperties);
+    }
+
+    /**
+     * Запись тождественным преобразованием.
+     *
+     * @throws TransformerException если не удалось записать документ.
+     */
+    @Benchmark
+    public void transform() throws TransformerException {
+        transformer.transform(new DOMSource(total), new StreamResult(OutputStream.nullOutputStream()));
+    }
+
+    /**
+     * Прямая запись через XMLStreamWriter.
+     */
+    @Benchmark
+    public void write() {
+        documentWriter.write(total, OutputStream.nullOutputStream());
+    }
+}
@@ -0,0 +1,157 @@
+package com.vpolosov.trainee.mergexml.benchmarks;
+
+import com.vpolosov.trainee.mergexml.config.GraphConfig;
+import com.vpolosov.trainee.mergexml.utils.MergeMetrics;
+import com.vpolosov.trainee.mergexml.utils.PaymentFields;
+import com.vpolosov.trainee.mergexml.utils.SchemaCache;
+import com.vpolosov.trainee.mergexml.utils.Vertex;
+import com.vpolosov.trainee.mergexml.validators.AmountValidator;
+import com.vpolosov.trainee.mergexml.validators.CheckFileSize;
+import com.vpolosov.trainee.mergexml.validators.CurrentCodeValidator;
+import com.vpolosov.trainee.mergexml.validators.IPv4Validator;
+import com.vpolosov.trainee.mergexml.validators.PayInfoValidator;
+import com.vpolosov.trainee.mergexml.validators.PaymentDateValidator;
+import com.vpolosov.trainee.mergexml.validators.SinglePayerValidator;
+import com.vpolosov.trainee.mergexml.validators.Validators;
+import com.vpolosov.trainee.mergexml.validators.XmlValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jgrapht.Graph;
+import org.jgrapht.graph.DefaultEdge;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.helpers.NOPLogger;
+import org.w3c.dom.Document;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.vpolosov.trainee.mergexml.utils.XmlTags.PAYER;
+
+/**
+ * Проверка разобранного платёжного документа цепочкой валидаторов и поиск по графу зависимостей.
+ *
+ * @author Maksim Litvinenko
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidateBenchmark {
+
+    /**
+     * Каталог с платёжным документом.
+     */
+    private Path directory;
+
+    /**
+     * Разобранный платёжный документ.
+     */
+    private Document document;
+
+    /**
+     * Плательщик документа.
+     */
+    private String payer;
+
+    /**
+     * Поля документа.
+     */
+    private PaymentFields paymentFields;
+
+    /**
+     * Все валидаторы документа.
+     */
+    private Validators validators;
+
+    /**
+     * Проверка кода программы доходов, типа и основания платежа по графу зависимостей.
+     */
+    private PayInfoValidator payInfoValidator;
+
+    /**
+     * Конфигурация графа зависимостей.
+     */
+    private GraphConfig graphConfig;
+
+    /**
+     * Создаёт и разбирает платёжный документ, собирает цепочку валидаторов как в приложении.
+     */
+    @Setup
+    public void setUp() {
+        var configProperties = BenchmarkData.configProperties();
+        var documentUtil = BenchmarkData.documentUtil(configProperties);
+        directory = BenchmarkData.paymentsDirectory(1);
+        document = documentUtil.parse(BenchmarkData.xmlFiles(directory).findFirst().orElseThrow().toFile());
+        payer = documentUtil.getValueByTagName(document, PAYER);
+        paymentFields = documentUtil.paymentFields(document);
+        graphConfig = new GraphConfig();
+        payInfoValidator = new PayInfoValidator(graphConfig.graph());
+        validators = new Validators(
+            new CheckFileSize(configProperties),
+            List.of(
+                new AmountValidator(configProperties),
+                new CurrentCodeValidator(configProperties),
+                new IPv4Validator(),
+                payInfoValidator,
+                new PaymentDateValidator(Clock.systemDefaultZone(), BenchmarkData.LOCAL_DATE_FORMAT)
+            ),
+            new SinglePayerValidator(),
+            fields -> true,
+            new XmlValidator(NOPLogger.NOP_LOGGER, documentUtil),
+            new SchemaCache(configProperties, new SimpleMeterRegistry()),
+            documentUtil,
+            new MergeMetrics(new SimpleMeterRegistry())
+        );
+    }
+
+    /**
+     * Удаляет платёжный документ.
+     */
+    @TearDown
+    public void tearDown() {
+        BenchmarkData.delete(directory);
+    }
+
+    /**
+     * Извлечение полей и проверка всеми валидаторами, {@code Validators.validate}.
+     *
+     * @return поля документа.
+     */
+    @Benchmark
+    public PaymentFields validate() {
+        return validators.validate(document, payer);
+    }
+
+    /**
+     * Поиск вершин и рёбер в графе зависимостей, {@code PayInfoValidator.test}.
+     *
+     * @return результат проверки.
+     */
+    @Benchmark
+    public boolean payInfoLookup() {
+        return payInfoValidator.test(paymentFields);
+    }
+
+    /**
+     * Построение графа зависимостей, {@code GraphConfig.graph}.
+     *
+     * @return граф зависимостей.
+     */
+    @Benchmark
+    public Graph<Vertex, DefaultEdge> buildGraph() {
+        return graphConfig.graph();
+    }
+}
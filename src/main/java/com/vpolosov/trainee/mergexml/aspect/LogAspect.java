@@ -1,73 +1,193 @@
 package com.vpolosov.trainee.mergexml.aspect;
 
-import lombok.extern.slf4j.Slf4j;
-import org.aspectj.lang.JoinPoint;
-import org.aspectj.lang.annotation.AfterReturning;
-import org.aspectj.lang.annotation.AfterThrowing;
+import com.vpolosov.trainee.mergexml.config.ConfigProperties;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
-import org.aspectj.lang.annotation.Before;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+
+import java.io.File;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.time.temporal.Temporal;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.vpolosov.trainee.mergexml.utils.Constant.FIRST_ELEMENT;
 
 /**
  * {@code LogAspect} is aspect responsible for logging the operation of the methods.
+ * <p>
+ * Сообщения пишутся в логгер класса, которому принадлежит метод, поэтому логирование пакета или класса
+ * можно отключить во время работы через {@code /actuator/loggers}. Если уровень INFO выключен, сообщения
+ * не формируются. Вызовы метода логируются выборочно по {@link ConfigProperties#getLogSampleEvery()},
+ * а вместо возвращаемого значения логируется его краткое описание: размер коллекции, корневой элемент
+ * документа или тип объекта.
  *
  * @author Ali Takushinov
+ * @author Maksim Litvinenko
  */
 @Aspect
 @Component
-@Slf4j
 public class LogAspect {
 
     /**
-     * Advice for logging the start of the method marked with the annotation {@code @Loggable"}.
+     * Наибольшая длина строкового значения в логе.
+     */
+    private static final int MAX_VALUE_LENGTH = 200;
+
+    /**
+     * Наименьший шаг выборки, при котором логируется каждый вызов.
+     */
+    private static final long EVERY_CALL = 1L;
+
+    /**
+     * Номер вызова, с которого начинается отсчёт выборки.
+     */
+    private static final long FIRST_CALL = 0L;
+
+    /**
+     * Окончание обрезанного значения.
+     */
+    private static final String TRUNCATED = "...";
+
+    /**
+     * Логируется каждый {@code sampleEvery}-й вызов метода.
+     */
+    private final long sampleEvery;
+
+    /**
+     * Сведения о логировании методов.
+     */
+    private final Map<Method, MethodLog> methods = new ConcurrentHashMap<>();
+
+    /**
+     * Конструктор.
+     *
+     * @param configProperties свойства приложения.
+     */
+    public LogAspect(ConfigProperties configProperties) {
+        this.sampleEvery = Math.max(configProperties.getLogSampleEvery(), EVERY_CALL);
+    }
+
+    /**
+     * Advice for logging the start, the finish and the thrown exception of the method marked with
+     * the annotation {@code @Loggable}.
      *
      * @param joinPoint an object that allows you to access information about the method
+     * @return a return value of the business logic method
+     * @throws Throwable a thrown exception to the business logic method
      */
-    @Before("@annotation(com.vpolosov.trainee.mergexml.aspect.Loggable)")
-    public void logMethodBefore(JoinPoint joinPoint) {
-        String methodName = getMethodName(joinPoint);
-        log.info("Start method {}", methodName);
+    @Around("@annotation(com.vpolosov.trainee.mergexml.aspect.Loggable)")
+    public Object log(ProceedingJoinPoint joinPoint) throws Throwable {
+        var method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        var methodLog = methods.computeIfAbsent(method, MethodLog::new);
+        var logger = methodLog.logger();
+        boolean sampled = logger.isInfoEnabled() && methodLog.sample(sampleEvery);
+        if (sampled) {
+            logger.info("Start method {}", methodLog.name());
+        }
+        Object returnedObject;
+        try {
+            returnedObject = joinPoint.proceed();
+        } catch (Throwable exception) {
+            logger.warn("Incorrect finish method {}. Exception message: {}", methodLog.name(), exception.getMessage());
+            throw exception;
+        }
+        if (sampled) {
+            if (returnedObject == null) {
+                logger.info("Correct finish method {}", methodLog.name());
+            } else {
+                logger.info(
+                    "Correct finish method {}. Returning values: {}", methodLog.name(), summary(returnedObject)
+                );
+            }
+        }
+        return returnedObject;
     }
 
     /**
-     * Возвращает имя метода.
+     * Возвращает краткое описание значения, длина которого не зависит от размера значения.
      *
-     * @param joinPoint рефлексивный объект аспекта.
-     * @return имя метода.
+     * @param value значение.
+     * @return размер для коллекций, словарей и массивов, корневой элемент для XML документа,
+     *         обрезанное строковое представление для простых значений и тип для остальных объектов.
      */
-    private static String getMethodName(JoinPoint joinPoint) {
-        MethodSignature methodSignature = (MethodSignature) joinPoint.getSignature();
-        return methodSignature.getMethod().toString();
+    static String summary(Object value) {
+        var type = value.getClass().getSimpleName();
+        if (value instanceof Collection<?> collection) {
+            return type + "[size=" + collection.size() + "]";
+        }
+        if (value instanceof Map<?, ?> map) {
+            return type + "[size=" + map.size() + "]";
+        }
+        if (value.getClass().isArray()) {
+            return type + "[length=" + Array.getLength(value) + "]";
+        }
+        if (value instanceof Document document) {
+            var root = document.getDocumentElement();
+            return "Document[root=" + (root == null ? null : root.getNodeName()) + "]";
+        }
+        if (value instanceof Node node) {
+            return "Node[name=" + node.getNodeName() + "]";
+        }
+        if (value instanceof CharSequence || value instanceof Number || value instanceof Boolean
+            || value instanceof Enum<?> || value instanceof UUID || value instanceof File || value instanceof Path
+            || value instanceof Temporal) {
+            return truncate(value.toString());
+        }
+        return type;
     }
 
     /**
-     * Advice for logging the finish of the method marked with the annotation {@code @Loggable"}.
+     * Обрезает строку до {@link #MAX_VALUE_LENGTH} символов.
      *
-     * @param joinPoint      an object that allows you to access information about the method
-     * @param returnedObject a return value of the business logic method
+     * @param value строка.
+     * @return строка не длиннее {@link #MAX_VALUE_LENGTH} символов и окончания обрезки.
      */
-    @AfterReturning(
-        pointcut = "@annotation(com.vpolosov.trainee.mergexml.aspect.Loggable)",
-        returning = "returnedObject")
-    public void logMethodAfterReturning(JoinPoint joinPoint, Object returnedObject) {
-        String methodName = getMethodName(joinPoint);
-        if (returnedObject == null) {
-            log.info("Correct finish method" + methodName);
-        } else {
-            log.info("Correct finish method " + methodName + ". Returning values: " + returnedObject);
+    private static String truncate(String value) {
+        if (value.length() <= MAX_VALUE_LENGTH) {
+            return value;
         }
+        return value.substring(FIRST_ELEMENT, MAX_VALUE_LENGTH) + TRUNCATED;
     }
 
     /**
-     * Advice for logging the throw exception to the method marked with the annotation {@code @Loggable"}.
+     * Сведения о логировании метода.
      *
-     * @param joinPoint an object that allows you to access information about the method
-     * @param exception a thrown exception to the business logic method
+     * @author Maksim Litvinenko
+     * @param logger логгер класса метода.
+     * @param name   имя метода.
+     * @param calls  количество вызовов метода.
      */
-    @AfterThrowing(pointcut = "@annotation(com.vpolosov.trainee.mergexml.aspect.Loggable)", throwing = "exception")
-    public void logMethodAfterReturning(JoinPoint joinPoint, Throwable exception) {
-        String methodName = getMethodName(joinPoint);
-        log.warn("Incorrect finish method " + methodName + ". Exception message: " + exception.getMessage());
+    private record MethodLog(Logger logger, String name, AtomicLong calls) {
+
+        /**
+         * Конструктор.
+         *
+         * @param method метод.
+         */
+        MethodLog(Method method) {
+            this(LoggerFactory.getLogger(method.getDeclaringClass()), method.toString(), new AtomicLong());
+        }
+
+        /**
+         * Учитывает вызов метода и определяет, нужно ли его логировать.
+         *
+         * @param sampleEvery логируется каждый {@code sampleEvery}-й вызов.
+         * @return {@code true} если вызов нужно логировать.
+         */
+        boolean sample(long sampleEvery) {
+            return sampleEvery == EVERY_CALL || calls.getAndIncrement() % sampleEvery == FIRST_CALL;
+        }
     }
-}
\ No newline at end of file
+}
@@ -18,6 +18,61 @@ import java.time.Duration;
 @Setter
 public class ConfigProperties {
 
+    /**
+     * Количество потоков проверки XML файлов по умолчанию.
+     */
+    private static final int DEFAULT_VALIDATION_PARALLELISM = 1;
+
+    /**
+     * Количество скомпилированных XSD схем в кэше по умолчанию.
+     */
+    private static final int DEFAULT_SCHEMA_CACHE_SIZE = 16;
+
+    /**
+     * Ожидаемое количество ref документов в фильтре Блума по умолчанию.
+     */
+    private static final long DEFAULT_DOC_REF_FILTER_EXPECTED_INSERTIONS = 1_000_000L;
+
+    /**
+     * Допустимая вероятность ложноположительного ответа фильтра Блума по умолчанию.
+     */
+    private static final double DEFAULT_DOC_REF_FILTER_FALSE_POSITIVE_RATE = 0.01;
+
+    /**
+     * Количество одновременно выполняемых задач объединения по умолчанию.
+     */
+    private static final int DEFAULT_MERGE_JOB_THREADS = 2;
+
+    /**
+     * Количество задач объединения в очереди по умолчанию.
+     */
+    private static final int DEFAULT_MERGE_JOB_QUEUE_CAPACITY = 100;
+
+    /**
+     * Количество одновременно объединяемых каталогов при пакетном объединении по умолчанию.
+     */
+    private static final int DEFAULT_BULK_MERGE_PARALLELISM = 4;
+
+    /**
+     * Время без изменений в каталоге, после которого он считается готовым к объединению, по умолчанию.
+     */
+    private static final long DEFAULT_WATCH_DEBOUNCE_MILLIS = 500L;
+
+    /**
+     * Количество готовых каталогов в очереди на объединение по умолчанию.
+     */
+    private static final int DEFAULT_WATCH_QUEUE_CAPACITY = 100;
+
+    /**
+     * Количество одновременно объединяемых каталогов, найденных при наблюдении, по умолчанию.
+     */
+    private static final int DEFAULT_WATCH_MERGE_PARALLELISM = 1;
+
+    /**
+     * Логировать по умолчанию каждый вызов метода, отмеченного {@code @Loggable}.
+     */
+    private static final int DEFAULT_LOG_SAMPLE_EVERY = 1;
+
     /**
      * Код валюты.
      */
@@ -60,4 +115,108 @@ public class ConfigProperties {
      */
     @JsonDeserialize(using = DataSizeDeserializer.class)
     private DataSize maxResultFileWeight;
+
+    /**
+     * Способ объединения платёжных документов по умолчанию.
+     */
+    private MergeMode mergeMode = MergeMode.DOM;
+
+    /**
+     * Разбивать ли результат, превышающий {@link #maxResultFileWeight}, на части вместо отказа в объединении.
+     */
+    private Boolean splitTotal = false;
+
+    /**
+     * Записывать ли результат объединения с отступами, как при объединении через DOM, так и при потоковом.
+     * Без отступов результат получается меньше и записывается быстрее.
+     */
+    private Boolean indentTotal = true;
+
+    /**
+     * Сбрасывать ли результат объединения на диск после записи, чтобы он сохранился при сбое системы.
+     */
+    private Boolean fsyncTotal = false;
+
+    /**
+     * Количество потоков для параллельного разбора и проверки XML файлов.
+     */
+    private Integer validationParallelism = DEFAULT_VALIDATION_PARALLELISM;
+
+    /**
+     * Максимальное количество одновременно используемых {@link javax.xml.parsers.DocumentBuilder}.
+     */
+    private Integer documentBuilderPoolSize = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Максимальное количество одновременно используемых {@link javax.xml.parsers.SAXParser}.
+     */
+    private Integer saxParserPoolSize = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Максимальное количество различных скомпилированных XSD схем в кэше.
+     */
+    private Integer schemaCacheSize = DEFAULT_SCHEMA_CACHE_SIZE;
+
+    /**
+     * Ожидаемое количество ref документов в истории, под которое рассчитывается фильтр Блума.
+     */
+    private Long docRefFilterExpectedInsertions = DEFAULT_DOC_REF_FILTER_EXPECTED_INSERTIONS;
+
+    /**
+     * Допустимая вероятность ложноположительного ответа фильтра Блума.
+     */
+    private Double docRefFilterFalsePositiveRate = DEFAULT_DOC_REF_FILTER_FALSE_POSITIVE_RATE;
+
+    /**
+     * Файл для сохранения фильтра Блума между запусками, {@code null} если сохранять не нужно.
+     */
+    private String docRefFilterPath;
+
+    /**
+     * Количество одновременно выполняемых задач объединения.
+     */
+    private Integer mergeJobThreads = DEFAULT_MERGE_JOB_THREADS;
+
+    /**
+     * Количество задач объединения, ожидающих выполнения, сверх которого новые задачи отклоняются.
+     */
+    private Integer mergeJobQueueCapacity = DEFAULT_MERGE_JOB_QUEUE_CAPACITY;
+
+    /**
+     * Количество одновременно объединяемых каталогов при пакетном объединении.
+     */
+    private Integer bulkMergeParallelism = DEFAULT_BULK_MERGE_PARALLELISM;
+
+    /**
+     * Корневые каталоги через запятую, подкаталоги которых объединяются сразу после загрузки файлов.
+     * {@code null} если наблюдение не нужно.
+     */
+    private String watchRoots;
+
+    /**
+     * Время без изменений в каталоге в миллисекундах, после которого он считается готовым к объединению.
+     */
+    private Long watchDebounceMillis = DEFAULT_WATCH_DEBOUNCE_MILLIS;
+
+    /**
+     * Количество готовых каталогов в очереди на объединение, при заполнении очереди наблюдение приостанавливается.
+     */
+    private Integer watchQueueCapacity = DEFAULT_WATCH_QUEUE_CAPACITY;
+
+    /**
+     * Количество одновременно объединяемых каталогов, найденных при наблюдении.
+     */
+    private Integer watchMergeParallelism = DEFAULT_WATCH_MERGE_PARALLELISM;
+
+    /**
+     * Логируется каждый {@code logSampleEvery}-й вызов каждого метода, отмеченного {@code @Loggable}.
+     * Ошибки логируются всегда.
+     */
+    private Integer logSampleEvery = DEFAULT_LOG_SAMPLE_EVERY;
+
+    /**
+     * Имя экземпляра приложения, которому принадлежат его задачи объединения. Должно различаться у экземпляров,
+     * работающих с одной базой, и сохраняться при перезапуске. {@code null} если экземпляр называется именем хоста.
+     */
+    private String instanceId;
 }
@@ -0,0 +1,74 @@
+package com.vpolosov.trainee.mergexml.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Конфигурация пулов потоков.
+ *
+ * @author Maksim Litvinenko
+ */
+@Configuration
+public class ExecutorConfig {
+
+    /**
+     * Время жизни простаивающих потоков сверх основного количества: пул задач объединения фиксированного размера.
+     */
+    private static final long MERGE_JOB_KEEP_ALIVE_MILLIS = 0L;
+
+    /**
+     * Создаёт пул потоков для параллельного разбора и проверки XML файлов.
+     *
+     * @param configProperties свойства приложения.
+     * @return пул потоков размером {@link ConfigProperties#getValidationParallelism()}.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService validationExecutor(ConfigProperties configProperties) {
+        return Executors.newFixedThreadPool(
+            configProperties.getValidationParallelism(),
+            new CustomizableThreadFactory("validation-")
+        );
+    }
+
+    /**
+     * Создаёт пул потоков для асинхронных задач объединения.
+     * <p>
+     * Очередь задач ограничена {@link ConfigProperties#getMergeJobQueueCapacity()}: при её заполнении
+     * новые задачи отклоняются с {@link java.util.concurrent.RejectedExecutionException}.
+     *
+     * @param configProperties свойства приложения.
+     * @return пул потоков размером {@link ConfigProperties#getMergeJobThreads()}.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService mergeJobExecutor(ConfigProperties configProperties) {
+        return new ThreadPoolExecutor(
+            configProperties.getMergeJobThreads(),
+            configProperties.getMergeJobThreads(),
+            MERGE_JOB_KEEP_ALIVE_MILLIS,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(configProperties.getMergeJobQueueCapacity()),
+            new CustomizableThreadFactory("merge-job-")
+        );
+    }
+
+    /**
+     * Создаёт пул потоков для пакетного объединения каталогов.
+     *
+     * @param configProperties свойства приложения.
+     * @return пул потоков размером {@link ConfigProperties#getBulkMergeParallelism()}.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService bulkMergeExecutor(ConfigProperties configProperties) {
+        return Executors.newFixedThreadPool(
+            configProperties.getBulkMergeParallelism(),
+            new CustomizableThreadFactory("bulk-merge-")
+        );
+    }
+}
@@ -0,0 +1,19 @@
+package com.vpolosov.trainee.mergexml.config;
+
+/**
+ * Способ объединения платёжных документов.
+ *
+ * @author Maksim Litvinenko
+ */
+public enum MergeMode {
+
+    /**
+     * Объединение в {@link org.w3c.dom.Document}, который целиком хранится в памяти.
+     */
+    DOM,
+
+    /**
+     * Потоковое объединение через StAX, платежи пишутся сразу в результирующий файл.
+     */
+    STREAMING
+}
@@ -7,9 +7,10 @@ import org.springframework.context.annotation.Configuration;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerFactory;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
@@ -42,27 +43,58 @@ public class XmlConfig {
     private static final int LIMIT_FOR_SPLIT = 2;
 
     /**
-     * Создаёт бин для работы с XML файлом.
+     * Фабрика для создания {@link DocumentBuilder}.
+     * <p>
+     * Сам {@link DocumentBuilder} не потокобезопасен, поэтому каждый поток создаёт свой экземпляр из этой фабрики.
      *
-     * @return билдер {@link DocumentBuilder}.
-     * @throws ParserConfigurationException если невозможно создать DocumentBuilder,
-     *                                      удовлетворяющий запрошенной конфигурации.
+     * @return фабрику {@link DocumentBuilderFactory} с поддержкой пространств имён.
      */
     @Bean
-    public DocumentBuilder documentBuilder() throws ParserConfigurationException {
+    public DocumentBuilderFactory documentBuilderFactory() {
         var documentBuilderFactory = DocumentBuilderFactory.newDefaultInstance();
         documentBuilderFactory.setNamespaceAware(true);
-        return documentBuilderFactory.newDocumentBuilder();
+        return documentBuilderFactory;
     }
 
     /**
-     * Фабрика для создания объектов типа {@link Transformer}.
+     * Фабрика для создания {@link SAXParser}.
+     * <p>
+     * Используется для разбора XML файлов с одновременной проверкой по XSD схеме.
      *
-     * @return новую фабрику с параметрами по умолчанию.
+     * @return фабрику {@link SAXParserFactory} с поддержкой пространств имён.
      */
     @Bean
-    public TransformerFactory transformerFactory() {
-        return TransformerFactory.newDefaultInstance();
+    public SAXParserFactory saxParserFactory() {
+        var saxParserFactory = SAXParserFactory.newDefaultInstance();
+        saxParserFactory.setNamespaceAware(true);
+        return saxParserFactory;
+    }
+
+    /**
+     * Фабрика для потокового чтения XML файлов.
+     * <p>
+     * Текст элементов объединяется в одно событие, DTD и внешние сущности не поддерживаются.
+     *
+     * @return фабрику {@link XMLInputFactory}.
+     */
+    @Bean
+    public XMLInputFactory xmlInputFactory() {
+        var xmlInputFactory = XMLInputFactory.newDefaultFactory();
+        xmlInputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return xmlInputFactory;
+    }
+
+    /**
+     * Фабрика для потоковой записи XML файлов.
+     *
+     * @return фабрику {@link XMLOutputFactory}.
+     */
+    @Bean
+    public XMLOutputFactory xmlOutputFactory() {
+        return XMLOutputFactory.newDefaultFactory();
     }
 
     /**
@@ -1,21 +1,31 @@
 package com.vpolosov.trainee.mergexml.controller;
 
 import com.vpolosov.trainee.mergexml.aspect.Loggable;
-import com.vpolosov.trainee.mergexml.service.HistoryService;
-import com.vpolosov.trainee.mergexml.service.MergeService;
+import com.vpolosov.trainee.mergexml.config.ConfigProperties;
+import com.vpolosov.trainee.mergexml.config.MergeMode;
+import com.vpolosov.trainee.mergexml.dtos.BulkMergeRequestDto;
+import com.vpolosov.trainee.mergexml.dtos.BulkMergeResultDto;
+import com.vpolosov.trainee.mergexml.dtos.ValidationProcessDto;
+import com.vpolosov.trainee.mergexml.service.BulkMergeService;
+import com.vpolosov.trainee.mergexml.service.MergeJobService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.UUID;
 
 /**
  * REST API для сбора и объединения файлов рублевых платежей в один документ.
@@ -31,19 +41,25 @@ import java.nio.file.Path;
 public class MergeController {
 
     /**
-     * Сервис объединения платёжных документов.
+     * Сервис задач объединения платёжных документов.
      */
-    private final MergeService mergeService;
+    private final MergeJobService mergeJobService;
 
     /**
-     * Сервис хранения истории операций.
+     * Сервис пакетного объединения каталогов.
      */
-    private final HistoryService historyService;
+    private final BulkMergeService bulkMergeService;
+
+    /**
+     * Свойства приложения.
+     */
+    private final ConfigProperties configProperties;
 
     /**
      * POST : объединение платёжных документов.
      *
      * @param path путь до каталога с платёжными документами.
+     * @param mode способ объединения, если не указан, то берётся из свойств приложения.
      * @return статус OK и сообщение об успешном выполнении операции.
      */
     @PostMapping
@@ -54,12 +70,71 @@ public class MergeController {
     )
     public String patchXml(@Parameter(description = "Путь к директории с документами для объединения.",
             required = true)
-                           @RequestBody String path) {
-        var total = mergeService.merge(path);
-        historyService.addHistoryFromTotal(total);
+                           @RequestBody String path,
+                           @Parameter(description = "Способ объединения: DOM или STREAMING.")
+                           @RequestParam(required = false) MergeMode mode) {
+        mergeJobService.merge(path, mode == null ? configProperties.getMergeMode() : mode);
         return "Total.xml was created!";
     }
 
+    /**
+     * POST : пакетное объединение платёжных документов нескольких каталогов.
+     *
+     * @param request каталоги для объединения: список путей и/или родительский каталог.
+     * @param mode    способ объединения, если не указан, то берётся из свойств приложения.
+     * @return статус OK, результаты по каталогам и пропускная способность.
+     */
+    @PostMapping("/bulk")
+    @Loggable
+    @Operation(
+            summary = "Пакетное объединение документов.",
+            description = "Объединяет платежные документы нескольких каталогов одновременно."
+    )
+    public BulkMergeResultDto bulkMerge(@RequestBody BulkMergeRequestDto request,
+                                        @Parameter(description = "Способ объединения: DOM или STREAMING.")
+                                        @RequestParam(required = false) MergeMode mode) {
+        return bulkMergeService.mergeAll(request, mode == null ? configProperties.getMergeMode() : mode);
+    }
+
+    /**
+     * POST : асинхронное объединение платёжных документов.
+     *
+     * @param path путь до каталога с платёжными документами.
+     * @param mode способ объединения, если не указан, то берётся из свойств приложения.
+     * @return статус ACCEPTED и созданная задача объединения.
+     */
+    @PostMapping("/jobs")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @Loggable
+    @Operation(
+            summary = "Асинхронное объединение документов.",
+            description = "Ставит объединение платежных документов в очередь и сразу возвращает id задачи."
+    )
+    public ValidationProcessDto submitJob(@Parameter(description = "Путь к директории с документами для объединения.",
+            required = true)
+                                          @RequestBody String path,
+                                          @Parameter(description = "Способ объединения: DOM или STREAMING.")
+                                          @RequestParam(required = false) MergeMode mode) {
+        return mergeJobService.submit(path, mode == null ? configProperties.getMergeMode() : mode);
+    }
+
+    /**
+     * GET : возвращает состояние задачи объединения.
+     *
+     * @param id id задачи объединения.
+     * @return состояние задачи, длительность этапов, количество файлов и пути к итоговому документу или его частям.
+     */
+    @GetMapping("/jobs/{id}")
+    @Loggable
+    @Operation(
+            summary = "Состояние задачи объединения.",
+            description = "Позволяет узнать состояние асинхронного объединения документов."
+    )
+    public ValidationProcessDto getJob(@Parameter(description = "Id задачи объединения.", required = true)
+                                       @PathVariable UUID id) {
+        return mergeJobService.getJob(id);
+    }
+
     /**
      * GET : возвращает список логов пользователя.
      *
@@ -2,15 +2,23 @@ package com.vpolosov.trainee.mergexml.controller;
 
 import com.fasterxml.jackson.annotation.JsonView;
 import com.vpolosov.trainee.mergexml.dtos.ValidationFileHistoryDto;
+import com.vpolosov.trainee.mergexml.dtos.ValidationFileHistoryFilter;
+import com.vpolosov.trainee.mergexml.dtos.ValidationFileHistoryPageDto;
 import com.vpolosov.trainee.mergexml.dtos.views.ValidationFileHistoryDtoViews;
 import com.vpolosov.trainee.mergexml.service.ValidationFileHistoryService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
 
 /**
  * REST API контроллер для получения информации по истории валидации файлов.
@@ -39,4 +47,41 @@ public class ValidationFileHistoryController {
     public ResponseEntity<List<ValidationFileHistoryDto>> getAll() {
         return ResponseEntity.ok(service.getAllValidatedFiles());
     }
+
+    /**
+     * GET: получение страницы провалидированных файлов по фильтру.
+     * <p>
+     * Для следующей страницы передаются {@code nextValidationDate} и {@code nextValidationId}
+     * из ответа как {@code afterValidationDate} и {@code afterValidationId}.
+     *
+     * @param filter              фильтр по имени файла, ref документа, результату и периоду валидации.
+     * @param afterValidationDate дата валидации последней записи предыдущей страницы.
+     * @param afterValidationId   id валидации последней записи предыдущей страницы.
+     * @param limit               размер страницы.
+     * @return Статус ОК и страница провалидированных файлов.
+     */
+    @JsonView(ValidationFileHistoryDtoViews.Output.class)
+    @GetMapping
+    public ResponseEntity<ValidationFileHistoryPageDto> getPage(
+            ValidationFileHistoryFilter filter,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            LocalDateTime afterValidationDate,
+            @RequestParam(required = false) UUID afterValidationId,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(service.getPage(filter, afterValidationDate, afterValidationId, limit));
+    }
+
+    /**
+     * GET: выгрузка всех провалидированных файлов в формате NDJSON.
+     * <p>
+     * Записи пишутся в ответ по мере чтения из базы, полный список в памяти не собирается.
+     *
+     * @return Статус ОК и провалидированные файлы, по одной записи JSON на строку.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(service::exportAllValidatedFiles);
+    }
 }
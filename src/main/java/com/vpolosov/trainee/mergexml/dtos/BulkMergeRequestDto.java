@@ -0,0 +1,27 @@
+package com.vpolosov.trainee.mergexml.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * ДТО запроса пакетного объединения каталогов.
+ * Каталоги задаются списком путей, родительским каталогом или и тем и другим.
+ *
+ * @author Maksim Litvinenko
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkMergeRequestDto {
+    /**
+     * Пути к каталогам с платёжными документами.
+     */
+    private List<String> paths;
+    /**
+     * Родительский каталог, все подкаталоги которого объединяются.
+     */
+    private String parentPath;
+}
@@ -0,0 +1,50 @@
+package com.vpolosov.trainee.mergexml.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * ДТО результата пакетного объединения каталогов.
+ *
+ * @author Maksim Litvinenko
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkMergeResultDto {
+    /**
+     * Результаты по каталогам в порядке запроса.
+     */
+    private List<DirectoryMergeResultDto> directories;
+    /**
+     * Количество успешно объединённых каталогов.
+     */
+    private Integer succeeded;
+    /**
+     * Количество каталогов, объединение которых завершилось ошибкой.
+     */
+    private Integer failed;
+    /**
+     * Количество объединённых файлов.
+     */
+    private Integer fileCount;
+    /**
+     * Количество объединённых платежей.
+     */
+    private Integer documentCount;
+    /**
+     * Общая длительность пакетного объединения в миллисекундах.
+     */
+    private Long millis;
+    /**
+     * Количество обработанных каталогов в секунду.
+     */
+    private Double directoriesPerSecond;
+    /**
+     * Количество объединённых платежей в секунду.
+     */
+    private Double documentsPerSecond;
+}
@@ -0,0 +1,50 @@
+package com.vpolosov.trainee.mergexml.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * ДТО результата объединения одного каталога при пакетном объединении.
+ *
+ * @author Maksim Litvinenko
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DirectoryMergeResultDto {
+    /**
+     * Путь к каталогу с платёжными документами.
+     */
+    private String path;
+    /**
+     * Успех/провал объединения.
+     */
+    private Boolean isSuccess;
+    /**
+     * Путь к итоговому документу или к его первой части.
+     */
+    private String totalDocRef;
+    /**
+     * Пути к итоговому документу или ко всем его частям в порядке записи.
+     */
+    private List<String> totalDocRefs;
+    /**
+     * Количество объединяемых файлов.
+     */
+    private Integer fileCount;
+    /**
+     * Количество объединённых платежей.
+     */
+    private Integer documentCount;
+    /**
+     * Длительность объединения каталога в миллисекундах.
+     */
+    private Long millis;
+    /**
+     * Сообщение об ошибке, если объединение завершилось ошибкой.
+     */
+    private String errorMessage;
+}
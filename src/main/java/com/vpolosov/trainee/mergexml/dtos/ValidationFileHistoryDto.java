@@ -57,11 +57,11 @@ public class ValidationFileHistoryDto {
      * Метод для получения Id процесса валидации.
      * Также работает через View Jackson что бы в JSON поле доступно при сериализации.
      *
-     * @return Id Валидации
+     * @return Id Валидации, {@code null} если файл проверялся вне процесса валидации.
      */
     @JsonView(ValidationFileHistoryDtoViews.Output.class)
     @JsonProperty("validationProcessId")
     public UUID getValidationProcessId() {
-        return validationProcess.getId();
+        return validationProcess == null ? null : validationProcess.getId();
     }
 }
\ No newline at end of file
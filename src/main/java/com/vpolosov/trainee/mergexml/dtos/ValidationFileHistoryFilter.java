@@ -0,0 +1,42 @@
+package com.vpolosov.trainee.mergexml.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Фильтр истории валидации файлов.
+ * Незаполненные поля не ограничивают выборку.
+ *
+ * @author Maksim Litvinenko
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ValidationFileHistoryFilter {
+    /**
+     * Имя файла.
+     */
+    private String fileName;
+    /**
+     * Путь к документу.
+     */
+    private String docRef;
+    /**
+     * Успех/провал валидации.
+     */
+    private Boolean isSuccess;
+    /**
+     * Начало периода валидации включительно.
+     */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+    /**
+     * Конец периода валидации не включительно.
+     */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+}
@@ -0,0 +1,36 @@
+package com.vpolosov.trainee.mergexml.dtos;
+
+import com.fasterxml.jackson.annotation.JsonView;
+import com.vpolosov.trainee.mergexml.dtos.views.ValidationFileHistoryDtoViews;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * ДТО страницы истории валидации файлов.
+ * Курсор следующей страницы состоит из даты и id валидации последней записи страницы.
+ *
+ * @author Maksim Litvinenko
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonView(ValidationFileHistoryDtoViews.Internal.class)
+public class ValidationFileHistoryPageDto {
+    /**
+     * Провалидированные файлы страницы.
+     */
+    private List<ValidationFileHistoryDto> items;
+    /**
+     * Дата валидации для запроса следующей страницы, {@code null} если страница последняя.
+     */
+    private LocalDateTime nextValidationDate;
+    /**
+     * Id валидации для запроса следующей страницы, {@code null} если страница последняя.
+     */
+    private UUID nextValidationId;
+}
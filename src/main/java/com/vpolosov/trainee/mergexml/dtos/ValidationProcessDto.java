@@ -1,10 +1,12 @@
 package com.vpolosov.trainee.mergexml.dtos;
 
+import com.vpolosov.trainee.mergexml.model.MergeJobStatus;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -33,8 +35,44 @@ public class ValidationProcessDto {
      * Путь к итоговому документу.
      */
     private String totalDocRef;
+    /**
+     * Пути к итоговому документу или ко всем его частям в порядке записи.
+     */
+    private List<String> totalDocRefs;
     /**
      * Дата валидации.
      */
     private LocalDateTime validationProcessDate;
-}
\ No newline at end of file
+    /**
+     * Состояние задачи объединения.
+     */
+    private MergeJobStatus status;
+    /**
+     * Дата завершения задачи объединения.
+     */
+    private LocalDateTime finishedDate;
+    /**
+     * Количество объединяемых файлов.
+     */
+    private Integer fileCount;
+    /**
+     * Количество объединённых платежей.
+     */
+    private Integer documentCount;
+    /**
+     * Длительность разбора и проверки файлов в миллисекундах.
+     */
+    private Long validationMillis;
+    /**
+     * Длительность записи итогового документа в миллисекундах.
+     */
+    private Long writeMillis;
+    /**
+     * Длительность сохранения истории платежей в миллисекундах.
+     */
+    private Long historyMillis;
+    /**
+     * Сообщение об ошибке, если задача завершилась ошибкой.
+     */
+    private String errorMessage;
+}
@@ -3,11 +3,14 @@ package com.vpolosov.trainee.mergexml.handler;
 import com.vpolosov.trainee.mergexml.handler.dto.ErrorResponseDTO;
 import com.vpolosov.trainee.mergexml.handler.exception.DifferentPayerException;
 import com.vpolosov.trainee.mergexml.handler.exception.DuplicationProcessingException;
+import com.vpolosov.trainee.mergexml.handler.exception.EmptyBulkMergeRequestException;
 import com.vpolosov.trainee.mergexml.handler.exception.IncorrectDateException;
 import com.vpolosov.trainee.mergexml.handler.exception.IncorrectMinAmountException;
 import com.vpolosov.trainee.mergexml.handler.exception.IncorrectValueException;
 import com.vpolosov.trainee.mergexml.handler.exception.IncorrectXmlFileException;
 import com.vpolosov.trainee.mergexml.handler.exception.InvalidCurrencyCodeValueException;
+import com.vpolosov.trainee.mergexml.handler.exception.MergeJobNotFoundException;
+import com.vpolosov.trainee.mergexml.handler.exception.MergeJobRejectedException;
 import com.vpolosov.trainee.mergexml.handler.exception.MoreFiveHundredKbException;
 import com.vpolosov.trainee.mergexml.handler.exception.NotExactlyOneXsdFileException;
 import com.vpolosov.trainee.mergexml.handler.exception.NotExactlyTenFilesException;
@@ -46,7 +49,8 @@ public class GlobalExceptionHandler {
         IncorrectValueException.class,
         IncorrectDateException.class,
         DifferentPayerException.class,
-        InvalidCurrencyCodeValueException.class
+        InvalidCurrencyCodeValueException.class,
+        EmptyBulkMergeRequestException.class
     })
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     @ApiResponse(responseCode = "400", description = "Ошибки валидации документов.",
@@ -56,6 +60,36 @@ public class GlobalExceptionHandler {
         return new ErrorResponseDTO("Bad Request", e.getMessage());
     }
 
+    /**
+     * Перехватчик исключений для преобразования в статус код 404.
+     *
+     * @param e исключение об отсутствии задачи объединения.
+     * @return сообщение об ошибке с типом {@code Not Found}.
+     */
+    @ExceptionHandler(MergeJobNotFoundException.class)
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    @ApiResponse(responseCode = "404", description = "Задача объединения не найдена.",
+            content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class)))
+    public ErrorResponseDTO handleNotFound(MergeJobNotFoundException e) {
+        log.error(e.getMessage());
+        return new ErrorResponseDTO("Not Found", e.getMessage());
+    }
+
+    /**
+     * Перехватчик исключений для преобразования в статус код 503.
+     *
+     * @param e исключение о заполненной очереди задач объединения.
+     * @return сообщение об ошибке с типом {@code Service Unavailable}.
+     */
+    @ExceptionHandler(MergeJobRejectedException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    @ApiResponse(responseCode = "503", description = "Очередь задач объединения заполнена.",
+            content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class)))
+    public ErrorResponseDTO handleServiceUnavailable(MergeJobRejectedException e) {
+        log.error(e.getMessage());
+        return new ErrorResponseDTO("Service Unavailable", e.getMessage());
+    }
+
     /**
      * Перехватчик исключений для преобразования в статус код 500.
      *
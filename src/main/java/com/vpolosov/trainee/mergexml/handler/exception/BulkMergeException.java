@@ -0,0 +1,19 @@
+package com.vpolosov.trainee.mergexml.handler.exception;
+
+/**
+ * Исключение выбрасываемое, когда ожидание пакетного объединения каталогов было прервано
+ * или объединение завершилось неожиданной ошибкой.
+ *
+ * @author Maksim Litvinenko
+ */
+public class BulkMergeException extends RuntimeException {
+
+    /**
+     * Конструктор с одним параметром.
+     *
+     * @param cause причина ошибки.
+     */
+    public BulkMergeException(Throwable cause) {
+        super(cause);
+    }
+}
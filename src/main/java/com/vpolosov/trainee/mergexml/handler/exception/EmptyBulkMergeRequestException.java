@@ -0,0 +1,18 @@
+package com.vpolosov.trainee.mergexml.handler.exception;
+
+/**
+ * Исключение выбрасываемое, если в запросе пакетного объединения нет ни одного каталога.
+ *
+ * @author Maksim Litvinenko
+ */
+public class EmptyBulkMergeRequestException extends RuntimeException {
+
+    /**
+     * Конструктор с одним параметром.
+     *
+     * @param message текст ошибки.
+     */
+    public EmptyBulkMergeRequestException(String message) {
+        super(message);
+    }
+}
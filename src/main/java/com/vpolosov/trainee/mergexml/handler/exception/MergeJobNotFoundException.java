@@ -0,0 +1,18 @@
+package com.vpolosov.trainee.mergexml.handler.exception;
+
+/**
+ * Исключение выбрасываемое, если задача объединения не найдена.
+ *
+ * @author Maksim Litvinenko
+ */
+public class MergeJobNotFoundException extends RuntimeException {
+
+    /**
+     * Конструктор с одним параметром.
+     *
+     * @param message текст ошибки.
+     */
+    public MergeJobNotFoundException(String message) {
+        super(message);
+    }
+}
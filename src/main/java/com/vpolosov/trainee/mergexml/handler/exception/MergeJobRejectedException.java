@@ -0,0 +1,18 @@
+package com.vpolosov.trainee.mergexml.handler.exception;
+
+/**
+ * Исключение выбрасываемое, если очередь задач объединения заполнена.
+ *
+ * @author Maksim Litvinenko
+ */
+public class MergeJobRejectedException extends RuntimeException {
+
+    /**
+     * Конструктор с одним параметром.
+     *
+     * @param message текст ошибки.
+     */
+    public MergeJobRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package com.vpolosov.trainee.mergexml.handler.exception;
+
+/**
+ * Исключение выбрасываемое, когда параллельная проверка файла завершилась неожиданной ошибкой
+ * или ожидание её результата было прервано.
+ *
+ * @author Maksim Litvinenko
+ */
+public class ParallelValidationException extends RuntimeException {
+
+    /**
+     * Конструктор с одним параметром.
+     *
+     * @param cause причина ошибки.
+     */
+    public ParallelValidationException(Throwable cause) {
+        super(cause);
+    }
+}
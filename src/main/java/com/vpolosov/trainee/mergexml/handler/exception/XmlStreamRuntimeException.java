@@ -0,0 +1,21 @@
+package com.vpolosov.trainee.mergexml.handler.exception;
+
+import javax.xml.stream.XMLStreamException;
+
+/**
+ * Исключение выбрасываемое при потоковом чтении или записи XML.
+ *
+ * @author Maksim Litvinenko
+ * @see XMLStreamException
+ */
+public class XmlStreamRuntimeException extends RuntimeException {
+
+    /**
+     * Конструктор с одним параметром.
+     *
+     * @param cause причина ошибки.
+     */
+    public XmlStreamRuntimeException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -0,0 +1,29 @@
+package com.vpolosov.trainee.mergexml.model;
+
+/**
+ * Состояние задачи объединения платёжных документов.
+ *
+ * @author Maksim Litvinenko
+ */
+public enum MergeJobStatus {
+
+    /**
+     * Задача ожидает свободного потока.
+     */
+    QUEUED,
+
+    /**
+     * Задача выполняется.
+     */
+    RUNNING,
+
+    /**
+     * Документы объединены, история сохранена.
+     */
+    SUCCEEDED,
+
+    /**
+     * Задача завершилась ошибкой.
+     */
+    FAILED
+}
@@ -1,16 +1,25 @@
 package com.vpolosov.trainee.mergexml.model;
 
+import jakarta.persistence.CollectionTable;
 import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.OrderColumn;
 import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.Setter;
 import org.hibernate.proxy.HibernateProxy;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -45,17 +54,90 @@ public class ValidationProcess {
     private Boolean isSuccess;
 
     /**
-     * Путь к итоговому документу.
+     * Путь к итоговому документу, {@code null} пока итоговый документ не создан.
      */
-    @Column(name="total_doc_ref", nullable = false)
+    @Column(name="total_doc_ref")
     private String totalDocRef;
 
+    /**
+     * Пути к итоговому документу или ко всем его частям в порядке записи.
+     */
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(
+            name = "validation_process_total_doc_ref",
+            joinColumns = @JoinColumn(name = "validation_process_id")
+    )
+    @OrderColumn(name = "part_index")
+    @Column(name = "total_doc_ref", nullable = false)
+    private List<String> totalDocRefs = new ArrayList<>();
+
     /**
      * Дата валидации.
      */
     @Column(name = "validation_process_date", nullable = false)
     private LocalDateTime validationProcessDate;
 
+    /**
+     * Состояние задачи объединения.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status")
+    private MergeJobStatus status;
+
+    /**
+     * Дата завершения задачи объединения.
+     */
+    @Column(name = "finished_date")
+    private LocalDateTime finishedDate;
+
+    /**
+     * Количество объединяемых файлов.
+     */
+    @Column(name = "file_count")
+    private Integer fileCount;
+
+    /**
+     * Количество объединённых платежей.
+     */
+    @Column(name = "document_count")
+    private Integer documentCount;
+
+    /**
+     * Длительность разбора и проверки файлов в миллисекундах.
+     */
+    @Column(name = "validation_millis")
+    private Long validationMillis;
+
+    /**
+     * Длительность записи итогового документа в миллисекундах.
+     */
+    @Column(name = "write_millis")
+    private Long writeMillis;
+
+    /**
+     * Длительность сохранения истории платежей в миллисекундах.
+     */
+    @Column(name = "history_millis")
+    private Long historyMillis;
+
+    /**
+     * Сообщение об ошибке, если задача завершилась ошибкой.
+     */
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;
+
+    /**
+     * Имя экземпляра приложения, выполняющего задачу объединения.
+     */
+    @Column(name = "owner_instance")
+    private String ownerInstance;
+
+    /**
+     * Время запуска экземпляра приложения, выполняющего задачу объединения.
+     */
+    @Column(name = "owner_started_date")
+    private LocalDateTime ownerStartedDate;
+
     /**
      * Переопределение метода equals для сравнения сущностей.
      *
@@ -118,6 +200,9 @@ public class ValidationProcess {
                 + ", "
                 + "validationProcessDate = "
                 + validationProcessDate
+                + ", "
+                + "status = "
+                + status
                 + ")";
     }
 }
\ No newline at end of file
@@ -0,0 +1,131 @@
+package com.vpolosov.trainee.mergexml.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.proxy.HibernateProxy;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Сущность для результата успешной валидации файла, по которому файл в том же состоянии повторно не проверяется.
+ *
+ * @author Maksim Litvinenko
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "validation_result_cache")
+public class ValidationResultCacheEntry {
+    /**
+     * Id записи.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "id", nullable = false)
+    private UUID id;
+
+    /**
+     * Абсолютный путь к файлу.
+     */
+    @Column(name = "file_path", nullable = false, unique = true)
+    private String filePath;
+
+    /**
+     * Имя файла.
+     */
+    @Column(name = "file_name", nullable = false)
+    private String fileName;
+
+    /**
+     * Размер файла в байтах на момент валидации.
+     */
+    @Column(name = "file_size", nullable = false)
+    private Long fileSize;
+
+    /**
+     * Время изменения файла в миллисекундах на момент валидации.
+     */
+    @Column(name = "file_modified_millis", nullable = false)
+    private Long fileModifiedMillis;
+
+    /**
+     * SHA-256 хэш содержимого файла.
+     */
+    @Column(name = "content_hash", nullable = false)
+    private String contentHash;
+
+    /**
+     * SHA-256 хэш XSD схемы, по которой проверялся файл.
+     */
+    @Column(name = "schema_hash", nullable = false)
+    private String schemaHash;
+
+    /**
+     * Версия правил проверки, с которыми проверялся файл.
+     */
+    @Column(name = "config_version", nullable = false)
+    private String configVersion;
+
+    /**
+     * Ref платёжного документа из файла.
+     */
+    @Column(name = "payment_doc_ref")
+    private String paymentDocRef;
+
+    /**
+     * Плательщик из файла.
+     */
+    @Column(name = "payer")
+    private String payer;
+
+    /**
+     * Дата валидации.
+     */
+    @Column(name = "validation_date", nullable = false)
+    private LocalDateTime validationDate;
+
+    /**
+     * Переопределение метода equals для сравнения сущностей.
+     *
+     * @param o Объект, с которым ведется сравнение.
+     * @return boolean равны объекты или не равны.
+     */
+    @Override
+    public final boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null) {
+            return false;
+        }
+        Class<?> oEffectiveClass = o instanceof HibernateProxy h
+            ? h.getHibernateLazyInitializer().getPersistentClass() : o.getClass();
+        Class<?> thisEffectiveClass = this instanceof HibernateProxy h
+            ? h.getHibernateLazyInitializer().getPersistentClass() : this.getClass();
+        if (thisEffectiveClass != oEffectiveClass) {
+            return false;
+        }
+        ValidationResultCacheEntry that = (ValidationResultCacheEntry) o;
+        return getId() != null && Objects.equals(getId(), that.getId());
+    }
+
+    /**
+     * Переопределение метода hashCode для сущности.
+     *
+     * @return int Хэш-код.
+     */
+    @Override
+    public final int hashCode() {
+        return this instanceof HibernateProxy h
+            ? h.getHibernateLazyInitializer().getPersistentClass().hashCode()
+            : getClass().hashCode();
+    }
+}
@@ -0,0 +1,109 @@
+package com.vpolosov.trainee.mergexml.repository;
+
+import com.vpolosov.trainee.mergexml.model.History;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.vpolosov.trainee.mergexml.utils.Constant.FIRST_ELEMENT;
+
+/**
+ * Репозиторий для пакетной записи {@link History} через JDBC.
+ * <p>
+ * В отличие от {@link HistoryRepository#save(Object)} не выполняет {@code select} перед каждой вставкой:
+ * строки отправляются пачками по {@value #BATCH_SIZE} одним запросом на пачку. Существующая запись с тем же
+ * ref документа не перезаписывается: проверка и вставка выполняются базой атомарно, поэтому из двух
+ * одновременных объединений с одним ref документа запись вставит только одно.
+ *
+ * @author Maksim Litvinenko
+ */
+@Repository
+@RequiredArgsConstructor
+public class HistoryBatchRepository {
+
+    /**
+     * Количество строк в одной пачке.
+     */
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * Номер параметра ref документов.
+     */
+    private static final int DOC_REF_PARAMETER = 1;
+
+    /**
+     * Номер параметра дат совершения платежей.
+     */
+    private static final int DOCUMENT_DATE_PARAMETER = 2;
+
+    /**
+     * Номер параметра даты и времени загрузки.
+     */
+    private static final int DATE_TIME_UPLOAD_PARAMETER = 3;
+
+    /**
+     * Столбец ref документа в результате вставки.
+     */
+    private static final String DOC_REF_COLUMN = "doc_ref";
+
+    /**
+     * Тип элементов массивов параметров.
+     */
+    private static final String ARRAY_TYPE = "varchar";
+
+    /**
+     * Вставка историй платежей без перезаписи существующих записей, возвращающая ref вставленных записей.
+     */
+    private static final String INSERT_SQL = """
+        insert into history (doc_ref, document_date, date_time_upload)
+        select * from unnest(?::varchar[], ?::date[], ?::timestamp[])
+        on conflict (doc_ref) do nothing
+        returning doc_ref
+        """;
+
+    /**
+     * Выполнение JDBC запросов.
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Сохраняет истории платежей пачками, пропуская ref документов, которые уже есть в истории.
+     *
+     * @param histories истории платежей с различными ref документов.
+     * @return ref документов, которые уже были в истории и не были сохранены.
+     */
+    public Set<String> saveAll(Collection<History> histories) {
+        List<History> rows = List.copyOf(histories);
+        Set<String> skipped = new LinkedHashSet<>();
+        for (int from = FIRST_ELEMENT; from < rows.size(); from += BATCH_SIZE) {
+            var chunk = rows.subList(from, Math.min(from + BATCH_SIZE, rows.size()));
+            var inserted = new HashSet<>(jdbcTemplate.query(
+                connection -> {
+                    var statement = connection.prepareStatement(INSERT_SQL);
+                    statement.setArray(DOC_REF_PARAMETER, connection.createArrayOf(
+                        ARRAY_TYPE, chunk.stream().map(History::getDocRef).toArray()
+                    ));
+                    statement.setArray(DOCUMENT_DATE_PARAMETER, connection.createArrayOf(
+                        ARRAY_TYPE, chunk.stream().map(history -> history.getDocumentDate().toString()).toArray()
+                    ));
+                    statement.setArray(DATE_TIME_UPLOAD_PARAMETER, connection.createArrayOf(
+                        ARRAY_TYPE, chunk.stream().map(history -> history.getDateTimeUpload().toString()).toArray()
+                    ));
+                    return statement;
+                },
+                (resultSet, rowNum) -> resultSet.getString(DOC_REF_COLUMN)
+            ));
+            chunk.stream()
+                .map(History::getDocRef)
+                .filter(docRef -> !inserted.contains(docRef))
+                .forEach(skipped::add);
+        }
+        return skipped;
+    }
+}
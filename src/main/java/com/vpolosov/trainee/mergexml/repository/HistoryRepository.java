@@ -3,8 +3,13 @@ package com.vpolosov.trainee.mergexml.repository;
 import com.vpolosov.trainee.mergexml.model.History;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
 /**
  * Репозиторий для взаимодействия с {@link History}.
  * <p>
@@ -14,4 +19,33 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface HistoryRepository extends JpaRepository<History, String>, JpaSpecificationExecutor<History> {
+
+    /**
+     * Возвращает ref всех документов истории.
+     * <p>
+     * Поток нужно читать внутри транзакции и закрыть после использования.
+     *
+     * @return поток ref документов.
+     */
+    @Query("select h.docRef from History h")
+    Stream<String> streamAllDocRefs();
+
+    /**
+     * Возвращает ref документов, загруженных начиная с указанного времени.
+     * <p>
+     * Поток нужно читать внутри транзакции и закрыть после использования.
+     *
+     * @param since время загрузки, начиная с которого нужны ref документов.
+     * @return поток ref документов.
+     */
+    @Query("select h.docRef from History h where h.dateTimeUpload >= :since")
+    Stream<String> streamDocRefsUploadedSince(@Param("since") LocalDateTime since);
+
+    /**
+     * Возвращает время последней загрузки в истории.
+     *
+     * @return время последней загрузки или {@code null}, если история пуста.
+     */
+    @Query("select max(h.dateTimeUpload) from History h")
+    LocalDateTime findLastDateTimeUpload();
 }
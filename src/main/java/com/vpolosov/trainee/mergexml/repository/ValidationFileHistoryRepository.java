@@ -1,19 +1,26 @@
 package com.vpolosov.trainee.mergexml.repository;
 
 import com.vpolosov.trainee.mergexml.model.ValidationFileHistory;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Репозиторий для сущности {@link ValidationFileHistory}.
- * Наследуется от {@link JpaRepository}.
+ * Наследуется от {@link JpaRepository} и {@link JpaSpecificationExecutor}.
  *
  * @author Samat Hamzin
  */
-public interface ValidationFileHistoryRepository extends JpaRepository<ValidationFileHistory, UUID> {
+public interface ValidationFileHistoryRepository extends JpaRepository<ValidationFileHistory, UUID>,
+    JpaSpecificationExecutor<ValidationFileHistory> {
     /**
      * Метод для поиска всех провалидируемых файлов, отсортированных по дате валидации по убыванию.
      * Использован EntityGraph для решения проблемы N+1.
@@ -22,4 +29,19 @@ public interface ValidationFileHistoryRepository extends JpaRepository<Validatio
      */
     @EntityGraph(value = "ValidationFileHistory.nodes", type = EntityGraph.EntityGraphType.LOAD)
     List<ValidationFileHistory> findAllByOrderByValidationDateDesc();
-}
\ No newline at end of file
+
+    /**
+     * Метод для чтения всех провалидированных файлов курсором, отсортированных по дате валидации по убыванию.
+     * Строки читаются из базы порциями по 500 записей, а не загружаются целиком.
+     * Поток нужно читать внутри транзакции и закрыть после использования.
+     *
+     * @return Поток провалидированных файлов, отсортированных в порядке убывания по дате валидации.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select v from ValidationFileHistory v left join fetch v.validationProcess "
+        + "order by v.validationDate desc, v.validationId desc")
+    Stream<ValidationFileHistory> streamAllByOrderByValidationDateDesc();
+}
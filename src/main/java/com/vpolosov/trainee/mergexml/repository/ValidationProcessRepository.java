@@ -1,8 +1,14 @@
 package com.vpolosov.trainee.mergexml.repository;
 
 import com.vpolosov.trainee.mergexml.model.ValidationProcess;
+import com.vpolosov.trainee.mergexml.model.MergeJobStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.UUID;
 
 /**
@@ -12,4 +18,28 @@ import java.util.UUID;
  * @author Samat Hamzin
  */
 public interface ValidationProcessRepository extends JpaRepository<ValidationProcess, UUID> {
+
+    /**
+     * Завершает ошибкой задачи в указанных статусах, принадлежащие прошлым запускам экземпляра приложения.
+     * <p>
+     * Задачи других экземпляров и текущего запуска не меняются.
+     *
+     * @param statuses         статусы задач, которые нужно завершить.
+     * @param ownerInstance    имя экземпляра приложения.
+     * @param ownerStartedDate время текущего запуска экземпляра.
+     * @param errorMessage     сообщение об ошибке.
+     * @param finishedDate     время завершения задач.
+     * @return количество завершённых задач.
+     */
+    @Modifying
+    @Query("update ValidationProcess p set p.status = com.vpolosov.trainee.mergexml.model.MergeJobStatus.FAILED, "
+        + "p.errorMessage = :errorMessage, p.finishedDate = :finishedDate where p.status in :statuses "
+        + "and p.ownerInstance = :ownerInstance and p.ownerStartedDate <> :ownerStartedDate")
+    int failInterrupted(
+        @Param("statuses") Collection<MergeJobStatus> statuses,
+        @Param("ownerInstance") String ownerInstance,
+        @Param("ownerStartedDate") LocalDateTime ownerStartedDate,
+        @Param("errorMessage") String errorMessage,
+        @Param("finishedDate") LocalDateTime finishedDate
+    );
 }
\ No newline at end of file
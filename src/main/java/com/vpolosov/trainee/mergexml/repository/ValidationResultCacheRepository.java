@@ -0,0 +1,24 @@
+package com.vpolosov.trainee.mergexml.repository;
+
+import com.vpolosov.trainee.mergexml.model.ValidationResultCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Репозиторий для сущности {@link ValidationResultCacheEntry}.
+ *
+ * @author Maksim Litvinenko
+ */
+public interface ValidationResultCacheRepository extends JpaRepository<ValidationResultCacheEntry, UUID> {
+
+    /**
+     * Метод для поиска результатов валидации файлов по путям к файлам.
+     *
+     * @param filePaths абсолютные пути к файлам.
+     * @return Список результатов валидации указанных файлов, не больше одного на файл.
+     */
+    List<ValidationResultCacheEntry> findAllByFilePathIn(Collection<String> filePaths);
+}
@@ -0,0 +1,184 @@
+package com.vpolosov.trainee.mergexml.service;
+
+import com.vpolosov.trainee.mergexml.aspect.Loggable;
+import com.vpolosov.trainee.mergexml.config.MergeMode;
+import com.vpolosov.trainee.mergexml.dtos.BulkMergeRequestDto;
+import com.vpolosov.trainee.mergexml.dtos.BulkMergeResultDto;
+import com.vpolosov.trainee.mergexml.dtos.DirectoryMergeResultDto;
+import com.vpolosov.trainee.mergexml.handler.exception.BulkMergeException;
+import com.vpolosov.trainee.mergexml.handler.exception.EmptyBulkMergeRequestException;
+import com.vpolosov.trainee.mergexml.utils.FileUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static com.vpolosov.trainee.mergexml.utils.Constant.FIRST_ELEMENT;
+
+/**
+ * Сервис пакетного объединения платёжных документов нескольких каталогов.
+ * <p>
+ * Каталоги объединяются одновременно в пуле {@link #bulkMergeExecutor}, размер которого ограничивает
+ * количество одновременно объединяемых каталогов. Ошибка объединения одного каталога не влияет на остальные
+ * и попадает в его результат.
+ *
+ * @author Maksim Litvinenko
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BulkMergeService {
+
+    /**
+     * Количество миллисекунд в секунде.
+     */
+    private static final double MILLIS_PER_SECOND = 1000.0;
+
+    /**
+     * Наименьшая длительность для расчёта пропускной способности, чтобы не делить на ноль.
+     */
+    private static final long MIN_MILLIS = 1L;
+
+    /**
+     * Сервис задач объединения платёжных документов.
+     */
+    private final MergeJobService mergeJobService;
+
+    /**
+     * Вспомогательный класс для работы с файлами.
+     */
+    private final FileUtil fileUtil;
+
+    /**
+     * Пул потоков для пакетного объединения каталогов.
+     */
+    private final ExecutorService bulkMergeExecutor;
+
+    /**
+     * Объединяет платёжные документы каждого каталога из запроса.
+     *
+     * @param request каталоги для объединения.
+     * @param mode    способ объединения.
+     * @return результаты по каталогам и общая пропускная способность.
+     * @throws EmptyBulkMergeRequestException если в запросе нет ни одного каталога.
+     * @throws BulkMergeException             если ожидание объединения было прервано
+     *                                        или объединение завершилось неожиданной ошибкой.
+     */
+    @Loggable
+    public BulkMergeResultDto mergeAll(BulkMergeRequestDto request, MergeMode mode) {
+        var paths = paths(request);
+        if (paths.isEmpty()) {
+            throw new EmptyBulkMergeRequestException("There are no directories to merge");
+        }
+        long start = System.nanoTime();
+        List<Future<DirectoryMergeResultDto>> futures = new ArrayList<>(paths.size());
+        paths.forEach(path -> futures.add(bulkMergeExecutor.submit(() -> mergeDirectory(path, mode))));
+        List<DirectoryMergeResultDto> results = new ArrayList<>(paths.size());
+        try {
+            for (var future : futures) {
+                results.add(await(future));
+            }
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+        long millis = Math.max(Duration.ofNanos(System.nanoTime() - start).toMillis(), MIN_MILLIS);
+        return result(results, millis);
+    }
+
+    /**
+     * Объединяет платёжные документы одного каталога.
+     *
+     * @param path путь до каталога с платёжными документами.
+     * @param mode способ объединения.
+     * @return результат объединения каталога, в том числе при ошибке.
+     */
+    private DirectoryMergeResultDto mergeDirectory(String path, MergeMode mode) {
+        long start = System.nanoTime();
+        var result = new DirectoryMergeResultDto();
+        result.setPath(path);
+        try {
+            var progress = mergeJobService.merge(path, mode);
+            result.setIsSuccess(true);
+            result.setTotalDocRefs(progress.getTotalPaths());
+            result.setTotalDocRef(progress.getTotalPaths().get(FIRST_ELEMENT));
+            result.setFileCount(progress.getFileCount());
+            result.setDocumentCount(progress.getDocumentCount());
+        } catch (RuntimeException e) {
+            log.error("Merge of directory {} failed: {}", path, e.getMessage(), e);
+            result.setIsSuccess(false);
+            result.setErrorMessage(e.getMessage());
+        }
+        result.setMillis(Duration.ofNanos(System.nanoTime() - start).toMillis());
+        return result;
+    }
+
+    /**
+     * Возвращает каталоги из запроса без повторов в порядке запроса.
+     *
+     * @param request каталоги для объединения.
+     * @return пути каталогов: сначала перечисленные явно, затем подкаталоги родительского каталога.
+     */
+    private List<String> paths(BulkMergeRequestDto request) {
+        Set<String> paths = new LinkedHashSet<>();
+        if (request.getPaths() != null) {
+            paths.addAll(request.getPaths());
+        }
+        if (request.getParentPath() != null) {
+            paths.addAll(fileUtil.listDirectories(request.getParentPath()));
+        }
+        return List.copyOf(paths);
+    }
+
+    /**
+     * Собирает общий результат пакетного объединения.
+     *
+     * @param results результаты по каталогам.
+     * @param millis  общая длительность в миллисекундах.
+     * @return общий результат.
+     */
+    private static BulkMergeResultDto result(List<DirectoryMergeResultDto> results, long millis) {
+        var succeeded = results.stream().filter(DirectoryMergeResultDto::getIsSuccess).toList();
+        int fileCount = succeeded.stream().mapToInt(DirectoryMergeResultDto::getFileCount).sum();
+        int documentCount = succeeded.stream().mapToInt(DirectoryMergeResultDto::getDocumentCount).sum();
+        double seconds = millis / MILLIS_PER_SECOND;
+        return new BulkMergeResultDto(
+            results,
+            succeeded.size(),
+            results.size() - succeeded.size(),
+            fileCount,
+            documentCount,
+            millis,
+            results.size() / seconds,
+            documentCount / seconds
+        );
+    }
+
+    /**
+     * Ожидает результат объединения каталога.
+     *
+     * @param future результат объединения каталога.
+     * @return результат объединения каталога.
+     * @throws BulkMergeException если ожидание было прервано или объединение завершилось неожиданной ошибкой.
+     */
+    private static DirectoryMergeResultDto await(Future<DirectoryMergeResultDto> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new BulkMergeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BulkMergeException(e);
+        }
+    }
+}
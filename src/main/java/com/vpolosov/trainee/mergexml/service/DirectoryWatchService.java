@@ -0,0 +1,387 @@
+package com.vpolosov.trainee.mergexml.service;
+
+import com.vpolosov.trainee.mergexml.config.ConfigProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.vpolosov.trainee.mergexml.utils.Constant.FIRST_ELEMENT;
+
+/**
+ * Объединение каталогов сразу после загрузки в них файлов.
+ * <p>
+ * Следит через {@link WatchService} за подкаталогами корневых каталогов из
+ * {@link ConfigProperties#getWatchRoots()}. Каталог считается готовым, когда в нём есть XML файлы и один XSD файл,
+ * а изменений не было {@link ConfigProperties#getWatchDebounceMillis()} миллисекунд. Готовые каталоги
+ * передаются на объединение через ограниченную очередь: если она заполнена, наблюдение ждёт, пока
+ * освободится место, а события файловой системы накапливаются до этого момента.
+ * <p>
+ * Изменения итогового файла, созданного объединением, не считаются изменением каталога.
+ *
+ * @author Maksim Litvinenko
+ */
+@Slf4j
+@Component
+public class DirectoryWatchService {
+
+    /**
+     * Разделитель корневых каталогов в свойствах приложения.
+     */
+    private static final String ROOTS_SEPARATOR = ",";
+
+    /**
+     * XML расширение.
+     */
+    private static final String XML_EXTENSION = ".xml";
+
+    /**
+     * XSD расширение.
+     */
+    private static final String XSD_EXTENSION = ".xsd";
+
+    /**
+     * Количество XSD файлов в готовом каталоге.
+     */
+    private static final long XSD_FILES_COUNT = 1L;
+
+    /**
+     * Нулевое время ожидания событий.
+     */
+    private static final long NO_WAIT = 0L;
+
+    /**
+     * Сервис задач объединения платёжных документов.
+     */
+    private final MergeJobService mergeJobService;
+
+    /**
+     * Свойства приложения.
+     */
+    private final ConfigProperties configProperties;
+
+    /**
+     * Корневые каталоги, подкаталоги которых объединяются.
+     */
+    private final List<Path> roots;
+
+    /**
+     * Время без изменений, после которого каталог считается готовым.
+     */
+    private final Duration debounce;
+
+    /**
+     * Начало имени итогового файла.
+     */
+    private final String totalFilePrefix;
+
+    /**
+     * Готовые к объединению каталоги.
+     */
+    private final BlockingQueue<Path> readyDirectories;
+
+    /**
+     * Каталоги в очереди или в процессе объединения.
+     */
+    private final Set<Path> queuedDirectories = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Наблюдаемые каталоги по ключам регистрации. Используется только потоком наблюдения.
+     */
+    private final Map<WatchKey, Path> watchedDirectories = new HashMap<>();
+
+    /**
+     * Время последнего изменения изменившихся каталогов по {@link System#nanoTime()}.
+     * Используется только потоком наблюдения.
+     */
+    private final Map<Path, Long> lastChanges = new HashMap<>();
+
+    /**
+     * Служба наблюдения за файловой системой.
+     */
+    private WatchService watchService;
+
+    /**
+     * Поток наблюдения.
+     */
+    private Thread watcher;
+
+    /**
+     * Потоки объединения готовых каталогов.
+     */
+    private ExecutorService mergeWorkers;
+
+    /**
+     * Конструктор.
+     *
+     * @param mergeJobService  сервис задач объединения платёжных документов.
+     * @param configProperties свойства приложения.
+     */
+    public DirectoryWatchService(MergeJobService mergeJobService, ConfigProperties configProperties) {
+        this.mergeJobService = mergeJobService;
+        this.configProperties = configProperties;
+        this.roots = configProperties.getWatchRoots() == null
+            ? List.of()
+            : Arrays.stream(configProperties.getWatchRoots().split(ROOTS_SEPARATOR))
+                .map(String::strip)
+                .filter(root -> !root.isEmpty())
+                .map(root -> Path.of(root).toAbsolutePath())
+                .toList();
+        this.debounce = Duration.ofMillis(configProperties.getWatchDebounceMillis());
+        var fileName = configProperties.getFileName();
+        var pointIndex = fileName.indexOf('.');
+        this.totalFilePrefix = pointIndex < FIRST_ELEMENT ? fileName : fileName.substring(FIRST_ELEMENT, pointIndex);
+        this.readyDirectories = new ArrayBlockingQueue<>(configProperties.getWatchQueueCapacity());
+    }
+
+    /**
+     * Запускает наблюдение, если заданы корневые каталоги.
+     * <p>
+     * Уже существующие подкаталоги, в которых ещё нет итогового файла, объединяются так же, как только что
+     * загруженные, если в них есть все нужные файлы.
+     *
+     * @throws UncheckedIOException если не удалось начать наблюдение за каталогом.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (roots.isEmpty()) {
+            return;
+        }
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            long now = System.nanoTime();
+            for (var root : roots) {
+                watchedDirectories.put(root.register(watchService, StandardWatchEventKinds.ENTRY_CREATE), root);
+                try (var children = Files.list(root)) {
+                    for (var child : children.filter(Files::isDirectory).toList()) {
+                        registerDirectory(child);
+                        if (!hasTotal(child)) {
+                            lastChanges.put(child, now);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        int parallelism = configProperties.getWatchMergeParallelism();
+        mergeWorkers = Executors.newFixedThreadPool(parallelism, new CustomizableThreadFactory("watch-merge-"));
+        for (int i = FIRST_ELEMENT; i < parallelism; i++) {
+            mergeWorkers.execute(this::mergeReadyDirectories);
+        }
+        watcher = new Thread(this::watch, "directory-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        log.info("Watching directories {}", roots);
+    }
+
+    /**
+     * Останавливает наблюдение и объединение готовых каталогов.
+     *
+     * @throws UncheckedIOException если не удалось закрыть службу наблюдения.
+     */
+    @PreDestroy
+    public void stop() {
+        if (watchService == null) {
+            return;
+        }
+        watcher.interrupt();
+        mergeWorkers.shutdownNow();
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Обрабатывает события файловой системы и ставит в очередь готовые каталоги, пока поток не прерван.
+     */
+    private void watch() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                var key = lastChanges.isEmpty()
+                    ? watchService.take()
+                    : watchService.poll(untilNextStable(), TimeUnit.NANOSECONDS);
+                if (key != null) {
+                    handleEvents(key);
+                }
+                enqueueStableDirectories();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            log.debug("Watch service closed");
+        }
+    }
+
+    /**
+     * Запоминает изменения каталогов по событиям ключа и начинает наблюдать за новыми подкаталогами.
+     *
+     * @param key ключ с событиями.
+     */
+    private void handleEvents(WatchKey key) {
+        var directory = watchedDirectories.get(key);
+        long now = System.nanoTime();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                watchedDirectories.values().stream()
+                    .filter(watched -> !roots.contains(watched))
+                    .forEach(watched -> lastChanges.put(watched, now));
+                continue;
+            }
+            var child = directory.resolve((Path) event.context());
+            if (roots.contains(directory)) {
+                if (Files.isDirectory(child)) {
+                    try {
+                        registerDirectory(child);
+                        lastChanges.put(child, now);
+                    } catch (UncheckedIOException e) {
+                        log.warn("Unable to watch directory {}: {}", child, e.getMessage());
+                    }
+                }
+            } else if (!child.getFileName().toString().startsWith(totalFilePrefix)) {
+                lastChanges.put(directory, now);
+            }
+        }
+        if (!key.reset()) {
+            watchedDirectories.remove(key);
+            lastChanges.remove(directory);
+        }
+    }
+
+    /**
+     * Ставит в очередь каталоги, в которых давно не было изменений и есть все нужные файлы.
+     * <p>
+     * Если очередь заполнена, ждёт освобождения места.
+     *
+     * @throws InterruptedException если ожидание было прервано.
+     */
+    private void enqueueStableDirectories() throws InterruptedException {
+        long now = System.nanoTime();
+        var iterator = lastChanges.entrySet().iterator();
+        while (iterator.hasNext()) {
+            var lastChange = iterator.next();
+            if (now - lastChange.getValue() < debounce.toNanos()) {
+                continue;
+            }
+            var directory = lastChange.getKey();
+            if (!isComplete(directory)) {
+                iterator.remove();
+            } else if (queuedDirectories.add(directory)) {
+                iterator.remove();
+                readyDirectories.put(directory);
+            } else {
+                lastChange.setValue(now);
+            }
+        }
+    }
+
+    /**
+     * Возвращает время до момента, когда самый давно изменённый каталог будет считаться готовым.
+     *
+     * @return время ожидания в наносекундах.
+     */
+    private long untilNextStable() {
+        long oldestChange = lastChanges.values().stream().mapToLong(Long::longValue).min().orElseThrow();
+        return Math.max(oldestChange + debounce.toNanos() - System.nanoTime(), NO_WAIT);
+    }
+
+    /**
+     * Проверяет, что в каталоге есть XML файлы платёжных документов и один XSD файл.
+     *
+     * @param directory каталог.
+     * @return {@code true} если каталог можно объединять.
+     */
+    private boolean isComplete(Path directory) {
+        try (var files = Files.list(directory)) {
+            var names = files.map(file -> file.getFileName().toString())
+                .filter(name -> !name.startsWith(totalFilePrefix))
+                .toList();
+            long xmlCount = names.stream().filter(name -> name.endsWith(XML_EXTENSION)).count();
+            long xsdCount = names.stream().filter(name -> name.endsWith(XSD_EXTENSION)).count();
+            return xmlCount >= configProperties.getMinCountFiles() && xsdCount == XSD_FILES_COUNT;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Проверяет, что каталог уже объединялся.
+     *
+     * @param directory каталог.
+     * @return {@code true} если в каталоге есть итоговый файл.
+     * @throws IOException если не удалось прочитать каталог.
+     */
+    private boolean hasTotal(Path directory) throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.anyMatch(file -> file.getFileName().toString().startsWith(totalFilePrefix));
+        }
+    }
+
+    /**
+     * Начинает наблюдать за изменениями файлов подкаталога.
+     *
+     * @param directory подкаталог корневого каталога.
+     * @throws UncheckedIOException если не удалось начать наблюдение.
+     */
+    private void registerDirectory(Path directory) {
+        try {
+            var key = directory.register(
+                watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE
+            );
+            watchedDirectories.put(key, directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Объединяет готовые каталоги из очереди, пока поток не прерван.
+     */
+    private void mergeReadyDirectories() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                var directory = readyDirectories.take();
+                try {
+                    mergeJobService.merge(directory.toString(), configProperties.getMergeMode());
+                    log.info("Directory {} merged", directory);
+                } catch (RuntimeException e) {
+                    log.error("Merge of directory {} failed: {}", directory, e.getMessage(), e);
+                } finally {
+                    queuedDirectories.remove(directory);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.vpolosov.trainee.mergexml.service;
+
+import com.vpolosov.trainee.mergexml.config.ConfigProperties;
+import com.vpolosov.trainee.mergexml.repository.HistoryRepository;
+import com.vpolosov.trainee.mergexml.utils.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+/**
+ * Фильтр Блума по ref документов из истории объединённых платежей.
+ * <p>
+ * Позволяет не обращаться к базе для ref, которых точно нет в истории. При запуске приложения фильтр
+ * заполняется из {@link HistoryRepository}, новые записи добавляются через {@link #put(String)}.
+ * До окончания заполнения фильтр отвечает «возможно есть» на любой ref, поэтому проверка идёт в базу.
+ * <p>
+ * Если задан {@link ConfigProperties#getDocRefFilterPath()}, фильтр сохраняется в файл при остановке
+ * и читается из него при следующем запуске вместо чтения всей истории. Вместе с фильтром сохраняется время
+ * последней загрузки в истории на момент последней сверки с базой: при запуске в фильтр добавляются ref,
+ * загруженные с этого времени, в том числе другими экземплярами приложения. После чтения файл удаляется,
+ * чтобы после аварийной остановки фильтр снова построился по базе. Повреждённый или нечитаемый файл
+ * также удаляется, а фильтр строится по базе.
+ *
+ * @author Maksim Litvinenko
+ */
+@Slf4j
+@Component
+public class HistoryDocRefFilter {
+
+    /**
+     * Имя метрики проверок ref по фильтру.
+     */
+    private static final String LOOKUPS_METRIC = "mergexml.history.docref.filter.lookups";
+
+    /**
+     * Имя метрики ложноположительных ответов фильтра.
+     */
+    private static final String FALSE_POSITIVES_METRIC = "mergexml.history.docref.filter.false.positives";
+
+    /**
+     * Имя метрики размера фильтра в битах.
+     */
+    private static final String SIZE_METRIC = "mergexml.history.docref.filter.size";
+
+    /**
+     * Имя метрики ожидаемой вероятности ложноположительного ответа.
+     */
+    private static final String FALSE_POSITIVE_RATE_METRIC = "mergexml.history.docref.filter.false.positive.rate";
+
+    /**
+     * Значение времени сверки в файле, если история на момент сверки была пуста.
+     */
+    private static final String NOT_SYNCED = "";
+
+    /**
+     * Репозиторий для взаимодействия с историей платежей.
+     */
+    private final HistoryRepository historyRepository;
+
+    /**
+     * Файл для сохранения фильтра, {@code null} если сохранять не нужно.
+     */
+    private final Path filterPath;
+
+    /**
+     * Количество ref, которых точно нет в истории.
+     */
+    private final Counter absent;
+
+    /**
+     * Количество ref, которые возможно есть в истории.
+     */
+    private final Counter present;
+
+    /**
+     * Количество ref, которые фильтр посчитал возможно существующими, но в базе их не оказалось.
+     */
+    private final Counter falsePositives;
+
+    /**
+     * Фильтр Блума.
+     */
+    private final BloomFilter bloomFilter;
+
+    /**
+     * Время последней загрузки в истории на момент последней сверки фильтра с базой,
+     * {@code null} если фильтр не сверялся или история была пуста.
+     */
+    private volatile LocalDateTime syncedUpTo;
+
+    /**
+     * Признак того, что фильтр заполнен и его отрицательным ответам можно доверять.
+     */
+    private volatile boolean ready;
+
+    /**
+     * Конструктор.
+     *
+     * @param historyRepository репозиторий для взаимодействия с историей платежей.
+     * @param configProperties  свойства приложения.
+     * @param meterRegistry     реестр метрик.
+     */
+    public HistoryDocRefFilter(HistoryRepository historyRepository,
+                               ConfigProperties configProperties,
+                               MeterRegistry meterRegistry) {
+        this.historyRepository = historyRepository;
+        this.filterPath = configProperties.getDocRefFilterPath() == null
+            ? null
+            : Path.of(configProperties.getDocRefFilterPath());
+        var emptyFilter = new BloomFilter(
+            configProperties.getDocRefFilterExpectedInsertions(),
+            configProperties.getDocRefFilterFalsePositiveRate()
+        );
+        var savedFilter = readSaved(emptyFilter.bitSize());
+        this.bloomFilter = savedFilter == null ? emptyFilter : savedFilter.bloomFilter();
+        this.syncedUpTo = savedFilter == null ? null : savedFilter.syncedUpTo();
+        this.absent = Counter.builder(LOOKUPS_METRIC)
+            .description("Проверки ref документов по фильтру Блума")
+            .tag("result", "absent")
+            .register(meterRegistry);
+        this.present = Counter.builder(LOOKUPS_METRIC)
+            .description("Проверки ref документов по фильтру Блума")
+            .tag("result", "present")
+            .register(meterRegistry);
+        this.falsePositives = Counter.builder(FALSE_POSITIVES_METRIC)
+            .description("Ref документов, ошибочно отмеченные фильтром Блума как загруженные")
+            .register(meterRegistry);
+        Gauge.builder(SIZE_METRIC, bloomFilter, BloomFilter::bitSize)
+            .description("Размер фильтра Блума в битах")
+            .baseUnit("bits")
+            .register(meterRegistry);
+        Gauge.builder(FALSE_POSITIVE_RATE_METRIC, bloomFilter, BloomFilter::expectedFalsePositiveRate)
+            .description("Ожидаемая вероятность ложноположительного ответа фильтра Блума")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Заполняет фильтр ref документов из истории.
+     * <p>
+     * Если фильтр прочитан из файла, в него добавляются только ref, загруженные начиная со времени
+     * последней сверки. Время последней загрузки запоминается до чтения ref, поэтому записи,
+     * добавленные во время чтения, будут учтены при следующей сверке.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        if (ready) {
+            return;
+        }
+        var lastUpload = historyRepository.findLastDateTimeUpload();
+        try (var docRefs = syncedUpTo == null
+            ? historyRepository.streamAllDocRefs()
+            : historyRepository.streamDocRefsUploadedSince(syncedUpTo)) {
+            docRefs.forEach(bloomFilter::put);
+        }
+        syncedUpTo = lastUpload;
+        ready = true;
+    }
+
+    /**
+     * Проверяет, может ли ref документа быть в истории.
+     *
+     * @param docRef ref документа.
+     * @return {@code false} если ref точно нет в истории, {@code true} если нужно проверить по базе.
+     */
+    public boolean mightContain(String docRef) {
+        if (!ready) {
+            return true;
+        }
+        var result = bloomFilter.mightContain(docRef);
+        (result ? present : absent).increment();
+        return result;
+    }
+
+    /**
+     * Добавляет ref документа в фильтр.
+     *
+     * @param docRef ref документа.
+     */
+    public void put(String docRef) {
+        bloomFilter.put(docRef);
+    }
+
+    /**
+     * Учитывает ref, которые фильтр отметил как возможно существующие, но в базе их не оказалось.
+     *
+     * @param count количество ложноположительных ответов.
+     */
+    public void recordFalsePositives(long count) {
+        falsePositives.increment(count);
+    }
+
+    /**
+     * Сохраняет заполненный фильтр в файл.
+     *
+     * @throws UncheckedIOException если не удалось записать файл.
+     */
+    @PreDestroy
+    public void save() {
+        if (filterPath == null || !ready) {
+            return;
+        }
+        try (var outputStream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(filterPath)))) {
+            outputStream.writeUTF(syncedUpTo == null ? NOT_SYNCED : syncedUpTo.toString());
+            bloomFilter.writeTo(outputStream);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Читает сохранённый фильтр и удаляет файл.
+     * <p>
+     * Ошибка чтения не мешает запуску: файл удаляется, а фильтр строится по базе.
+     *
+     * @param bitSize ожидаемый размер фильтра в битах.
+     * @return сохранённый фильтр или {@code null}, если файла нет, он повреждён или фильтр другого размера.
+     */
+    private SavedFilter readSaved(long bitSize) {
+        if (filterPath == null || !Files.exists(filterPath)) {
+            return null;
+        }
+        SavedFilter savedFilter = null;
+        try (var inputStream = new DataInputStream(new BufferedInputStream(Files.newInputStream(filterPath)))) {
+            var savedSyncedUpTo = inputStream.readUTF();
+            savedFilter = new SavedFilter(
+                BloomFilter.readFrom(inputStream, bitSize),
+                savedSyncedUpTo.equals(NOT_SYNCED) ? null : LocalDateTime.parse(savedSyncedUpTo)
+            );
+        } catch (IOException | RuntimeException e) {
+            log.warn("Unable to read saved doc ref filter {}, rebuilding it from history: {}",
+                filterPath, e.getMessage());
+        }
+        try {
+            Files.deleteIfExists(filterPath);
+        } catch (IOException e) {
+            log.warn("Unable to delete saved doc ref filter {}: {}", filterPath, e.getMessage());
+        }
+        return savedFilter;
+    }
+
+    /**
+     * Фильтр, прочитанный из файла.
+     *
+     * @author Maksim Litvinenko
+     * @param bloomFilter фильтр Блума.
+     * @param syncedUpTo  время последней загрузки в истории на момент последней сверки фильтра с базой.
+     */
+    private record SavedFilter(BloomFilter bloomFilter, LocalDateTime syncedUpTo) {
+    }
+}
@@ -1,25 +1,28 @@
 package com.vpolosov.trainee.mergexml.service;
 
 import com.vpolosov.trainee.mergexml.aspect.Loggable;
+import com.vpolosov.trainee.mergexml.handler.exception.DuplicationProcessingException;
 import com.vpolosov.trainee.mergexml.model.History;
+import com.vpolosov.trainee.mergexml.repository.HistoryBatchRepository;
 import com.vpolosov.trainee.mergexml.repository.HistoryRepository;
+import com.vpolosov.trainee.mergexml.service.specification.HistorySpecifications;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.w3c.dom.Document;
-import org.w3c.dom.NodeList;
 
 import java.time.Clock;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import static com.vpolosov.trainee.mergexml.utils.Constant.FIRST_ELEMENT;
-import static com.vpolosov.trainee.mergexml.utils.XmlTags.DOCREF;
-import static com.vpolosov.trainee.mergexml.utils.XmlTags.DOCUMENT;
-import static com.vpolosov.trainee.mergexml.utils.XmlTags.DOCUMENTDATE;
 
 /**
  * Сервис хранения истории объединённых платежей.
@@ -31,6 +34,11 @@ import static com.vpolosov.trainee.mergexml.utils.XmlTags.DOCUMENTDATE;
 @RequiredArgsConstructor
 public class HistoryService {
 
+    /**
+     * Максимальное количество ref документов в одном запросе поиска по истории.
+     */
+    private static final int DOC_REF_CHUNK_SIZE = 1000;
+
     /**
      * Репозиторий для взаимодействия с {@link History}.
      */
@@ -46,6 +54,16 @@ public class HistoryService {
      */
     private final Clock clock;
 
+    /**
+     * Фильтр Блума по ref документов из истории.
+     */
+    private final HistoryDocRefFilter historyDocRefFilter;
+
+    /**
+     * Репозиторий для пакетной записи {@link History}.
+     */
+    private final HistoryBatchRepository historyBatchRepository;
+
     /**
      * Вернуть историю объединённых платежей.
      *
@@ -58,8 +76,36 @@ public class HistoryService {
         return historyRepository.findAll(spec);
     }
 
+    /**
+     * Вернуть историю объединённых платежей по ref документов.
+     * <p>
+     * Ref, которых по {@link HistoryDocRefFilter} точно нет в истории, в базе не ищутся. Остальные ищутся
+     * пачками по {@value #DOC_REF_CHUNK_SIZE} одним запросом {@code IN} на пачку,
+     * поэтому количество обращений к базе не зависит от количества документов в пачке.
+     *
+     * @param docRefs ref документов.
+     * @return истории объединённых платежей с указанными ref документов.
+     */
+    @Loggable
+    @Transactional(readOnly = true)
+    public List<History> findByDocRefs(Collection<String> docRefs) {
+        List<String> distinctDocRefs = new LinkedHashSet<>(docRefs).stream()
+            .filter(historyDocRefFilter::mightContain)
+            .toList();
+        List<History> histories = new ArrayList<>();
+        for (int from = FIRST_ELEMENT; from < distinctDocRefs.size(); from += DOC_REF_CHUNK_SIZE) {
+            var chunk = distinctDocRefs.subList(from, Math.min(from + DOC_REF_CHUNK_SIZE, distinctDocRefs.size()));
+            histories.addAll(historyRepository.findAll(HistorySpecifications.docRefIn(chunk)));
+        }
+        historyDocRefFilter.recordFalsePositives(distinctDocRefs.size() - histories.size());
+        return histories;
+    }
+
     /**
      * Сохраняет историю платежа.
+     * <p>
+     * Ref документа сразу добавляется в {@link HistoryDocRefFilter}. Если транзакция будет откачена,
+     * фильтр даст по этому ref лишь ложноположительный ответ, который перепроверяется по базе.
      *
      * @param history история платежа.
      */
@@ -67,30 +113,37 @@ public class HistoryService {
     @Transactional
     public void addHistory(History history) {
         historyRepository.save(history);
+        historyDocRefFilter.put(history.getDocRef());
     }
 
     /**
-     * Добавляет историю платежа по XML документу.
+     * Добавляет историю платежей по ref документов.
+     * <p>
+     * Записи сохраняются пачками через {@link HistoryBatchRepository}, а не по одной. Проверка по истории
+     * при валидации выполняется до записи результата, поэтому каталог с тем же ref документа, объединяемый
+     * одновременно, мог её пройти. Такие ref уже есть в истории к моменту вставки: они не перезаписываются,
+     * а транзакция откатывается с ошибкой дублирования.
      *
-     * @param document xml документ.
+     * @param docRefs ref документов и даты их создания.
+     * @throws DuplicationProcessingException если платёж с одним из ref документов уже был загружен.
      */
     @Loggable
     @Transactional
-    public void addHistoryFromTotal(Document document) {
-        NodeList elementsByTagName = document.getElementsByTagName(DOCUMENT);
-        for (int i = FIRST_ELEMENT; i < elementsByTagName.getLength(); i++) {
-            String docRef = document.getElementsByTagName(DOCREF)
-                .item(i)
-                .getTextContent();
-            String documentDate = document.getElementsByTagName(DOCUMENTDATE)
-                .item(i)
-                .getTextContent();
-            var history = new History(
-                docRef,
-                LocalDate.parse(documentDate, localDateFormat),
-                LocalDateTime.now(clock)
-            );
-            addHistory(history);
+    public void addHistoryFromDocRefs(Map<String, String> docRefs) {
+        var dateTimeUpload = LocalDateTime.now(clock);
+        List<History> histories = docRefs.entrySet().stream()
+            .map(entry -> new History(
+                entry.getKey(),
+                LocalDate.parse(entry.getValue(), localDateFormat),
+                dateTimeUpload
+            ))
+            .toList();
+        var duplicates = historyBatchRepository.saveAll(histories);
+        if (!duplicates.isEmpty()) {
+            throw new DuplicationProcessingException(duplicates.stream()
+                .map("Платеж %s уже был загружен ранее;"::formatted)
+                .collect(Collectors.joining()));
         }
+        docRefs.keySet().forEach(historyDocRefFilter::put);
     }
 }
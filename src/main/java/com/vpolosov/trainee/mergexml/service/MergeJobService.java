@@ -0,0 +1,300 @@
+package com.vpolosov.trainee.mergexml.service;
+
+import com.vpolosov.trainee.mergexml.aspect.Loggable;
+import com.vpolosov.trainee.mergexml.config.MergeMode;
+import com.vpolosov.trainee.mergexml.dtos.ValidationProcessDto;
+import com.vpolosov.trainee.mergexml.handler.exception.MergeJobNotFoundException;
+import com.vpolosov.trainee.mergexml.handler.exception.MergeJobRejectedException;
+import com.vpolosov.trainee.mergexml.mappers.ValidationProcessMapper;
+import com.vpolosov.trainee.mergexml.model.MergeJobStatus;
+import com.vpolosov.trainee.mergexml.model.ValidationProcess;
+import com.vpolosov.trainee.mergexml.repository.ValidationProcessRepository;
+import com.vpolosov.trainee.mergexml.utils.FileUtil;
+import com.vpolosov.trainee.mergexml.utils.InstanceId;
+import com.vpolosov.trainee.mergexml.utils.MergeMetrics;
+import com.vpolosov.trainee.mergexml.utils.PipelineStage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.File;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import static com.vpolosov.trainee.mergexml.utils.Constant.EMPTY_SIZE;
+import static com.vpolosov.trainee.mergexml.utils.Constant.FIRST_ELEMENT;
+
+/**
+ * Сервис задач объединения платёжных документов.
+ * <p>
+ * Объединение вместе с сохранением истории может выполняться в вызывающем потоке или асинхронно
+ * в пуле {@link #mergeJobExecutor}. Состояние асинхронной задачи хранится в {@link ValidationProcess}
+ * и сохраняется после каждого этапа объединения.
+ *
+ * @author Maksim Litvinenko
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MergeJobService {
+
+    /**
+     * Сервис объединения платёжных документов.
+     */
+    private final MergeService mergeService;
+
+    /**
+     * Сервис хранения истории операций.
+     */
+    private final HistoryService historyService;
+
+    /**
+     * Репозиторий для хранения задач объединения.
+     */
+    private final ValidationProcessRepository validationProcessRepository;
+
+    /**
+     * Маппер задачи объединения в ДТО.
+     */
+    private final ValidationProcessMapper validationProcessMapper;
+
+    /**
+     * Часы для корректировки времени.
+     */
+    private final Clock clock;
+
+    /**
+     * Пул потоков для асинхронных задач объединения.
+     */
+    private final ExecutorService mergeJobExecutor;
+
+    /**
+     * Метрики длительности этапов объединения.
+     */
+    private final MergeMetrics mergeMetrics;
+
+    /**
+     * Вспомогательный класс для работы с файлами.
+     */
+    private final FileUtil fileUtil;
+
+    /**
+     * Экземпляр приложения, которому принадлежат создаваемые задачи.
+     */
+    private final InstanceId instanceId;
+
+    /**
+     * Объединяет платёжные документы каталога и сохраняет историю платежей в вызывающем потоке.
+     *
+     * @param path путь до каталога с платёжными документами.
+     * @param mode способ объединения.
+     * @return ход объединения.
+     */
+    @Loggable
+    public MergeProgress merge(String path, MergeMode mode) {
+        var progress = new MergeProgress();
+        mergeAndSaveHistory(path, mode, progress);
+        return progress;
+    }
+
+    /**
+     * Создаёт задачу объединения и ставит её в очередь.
+     *
+     * @param path путь до каталога с платёжными документами.
+     * @param mode способ объединения.
+     * @return созданная задача.
+     * @throws MergeJobRejectedException если очередь задач заполнена.
+     */
+    @Loggable
+    public ValidationProcessDto submit(String path, MergeMode mode) {
+        var job = new ValidationProcess();
+        job.setDirRef(path);
+        job.setIsSuccess(false);
+        job.setStatus(MergeJobStatus.QUEUED);
+        job.setValidationProcessDate(LocalDateTime.now(clock));
+        job.setOwnerInstance(instanceId.getName());
+        job.setOwnerStartedDate(instanceId.getStartedDate());
+        var savedJob = validationProcessRepository.save(job);
+        var jobId = savedJob.getId();
+        try {
+            mergeJobExecutor.execute(() -> run(jobId, path, mode));
+        } catch (RejectedExecutionException e) {
+            savedJob.setStatus(MergeJobStatus.FAILED);
+            savedJob.setErrorMessage("Merge job queue is full");
+            savedJob.setFinishedDate(LocalDateTime.now(clock));
+            validationProcessRepository.save(savedJob);
+            throw new MergeJobRejectedException("Merge job queue is full, try again later");
+        }
+        return validationProcessMapper.toDto(savedJob);
+    }
+
+    /**
+     * Завершает ошибкой задачи, которые остались в очереди или выполнялись при прошлой остановке этого экземпляра.
+     * <p>
+     * Пул задач не переживает перезапуск, поэтому такие задачи уже никогда не завершатся. Задачи других
+     * экземпляров, работающих с той же базой, и задачи, принятые этим запуском до готовности приложения,
+     * не меняются.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void failInterruptedJobs() {
+        int count = validationProcessRepository.failInterrupted(
+            EnumSet.of(MergeJobStatus.QUEUED, MergeJobStatus.RUNNING),
+            instanceId.getName(),
+            instanceId.getStartedDate(),
+            "Merge job was interrupted by application restart",
+            LocalDateTime.now(clock)
+        );
+        if (count > EMPTY_SIZE) {
+            log.warn("Marked {} interrupted merge jobs as failed", count);
+        }
+    }
+
+    /**
+     * Возвращает задачу объединения.
+     *
+     * @param id id задачи.
+     * @return задача объединения.
+     * @throws MergeJobNotFoundException если задачи с таким id нет.
+     */
+    @Loggable
+    public ValidationProcessDto getJob(UUID id) {
+        return validationProcessRepository.findById(id)
+            .map(validationProcessMapper::toDto)
+            .orElseThrow(() -> new MergeJobNotFoundException("Merge job not found: " + id));
+    }
+
+    /**
+     * Выполняет задачу объединения и сохраняет её состояние, длительность этапов и результат.
+     * <p>
+     * Ход задачи сохраняется после каждого этапа. Перехватывается любая ошибка, в том числе {@link Error},
+     * чтобы задача не осталась в статусе {@link MergeJobStatus#RUNNING}.
+     *
+     * @param jobId id задачи.
+     * @param path  путь до каталога с платёжными документами.
+     * @param mode  способ объединения.
+     * @throws MergeJobNotFoundException если задача была удалена до начала выполнения.
+     */
+    private void run(UUID jobId, String path, MergeMode mode) {
+        var job = validationProcessRepository.findById(jobId)
+            .orElseThrow(() -> new MergeJobNotFoundException("Merge job not found: " + jobId));
+        job.setStatus(MergeJobStatus.RUNNING);
+        var runningJob = validationProcessRepository.save(job);
+        var progress = new MergeProgress();
+        progress.setStageListener(stageProgress -> saveProgress(runningJob, stageProgress));
+        try {
+            mergeAndSaveHistory(path, mode, progress);
+            runningJob.setStatus(MergeJobStatus.SUCCEEDED);
+            runningJob.setIsSuccess(true);
+        } catch (Throwable e) {
+            log.error("Merge job {} failed: {}", jobId, e.getMessage(), e);
+            runningJob.setStatus(MergeJobStatus.FAILED);
+            runningJob.setErrorMessage(e.getMessage() == null ? e.getClass().getName() : e.getMessage());
+            if (e instanceof Error error) {
+                saveResult(runningJob, progress);
+                throw error;
+            }
+        }
+        saveResult(runningJob, progress);
+    }
+
+    /**
+     * Сохраняет промежуточный ход выполняющейся задачи.
+     * <p>
+     * Ошибка сохранения только логируется, чтобы не прервать объединение.
+     *
+     * @param job      выполняющаяся задача.
+     * @param progress ход объединения.
+     */
+    private void saveProgress(ValidationProcess job, MergeProgress progress) {
+        try {
+            fillProgress(job, progress);
+            validationProcessRepository.save(job);
+        } catch (RuntimeException e) {
+            log.warn("Unable to save progress of merge job {}: {}", job.getId(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Сохраняет итоговое состояние задачи вместе с ходом объединения и временем завершения.
+     *
+     * @param job      задача.
+     * @param progress ход объединения.
+     */
+    private void saveResult(ValidationProcess job, MergeProgress progress) {
+        fillProgress(job, progress);
+        job.setFinishedDate(LocalDateTime.now(clock));
+        validationProcessRepository.save(job);
+    }
+
+    /**
+     * Переносит ход объединения в задачу: итоговые файлы, количество файлов и платежей, длительность этапов.
+     *
+     * @param job      задача.
+     * @param progress ход объединения.
+     */
+    private void fillProgress(ValidationProcess job, MergeProgress progress) {
+        var totalPaths = progress.getTotalPaths();
+        job.setTotalDocRefs(new ArrayList<>(totalPaths));
+        job.setTotalDocRef(totalPaths.isEmpty() ? null : totalPaths.get(FIRST_ELEMENT));
+        job.setFileCount(progress.getFileCount());
+        job.setDocumentCount(progress.getDocumentCount());
+        job.setValidationMillis(progress.millis(MergeStage.VALIDATION));
+        job.setWriteMillis(progress.millis(MergeStage.WRITE));
+        job.setHistoryMillis(progress.millis(MergeStage.HISTORY));
+    }
+
+    /**
+     * Объединяет платёжные документы каталога выбранным способом и сохраняет историю платежей.
+     * <p>
+     * Если историю сохранить не удалось, например платёж одновременно загрузили из другого каталога,
+     * записанный результат удаляется.
+     *
+     * @param path     путь до каталога с платёжными документами.
+     * @param mode     способ объединения.
+     * @param progress ход объединения.
+     */
+    private void mergeAndSaveHistory(String path, MergeMode mode, MergeProgress progress) {
+        var docRefs = mode == MergeMode.STREAMING
+            ? mergeService.mergeStreaming(path, progress)
+            : mergeService.merge(path, progress);
+        try {
+            progress.time(MergeStage.HISTORY, () -> mergeMetrics.time(
+                PipelineStage.HISTORY, () -> historyService.addHistoryFromDocRefs(docRefs)
+            ));
+        } catch (RuntimeException e) {
+            deleteTotal(progress);
+            throw e;
+        }
+    }
+
+    /**
+     * Удаляет записанный результат объединения, в том числе все его части.
+     * <p>
+     * Ошибка удаления только логируется, чтобы не скрыть ошибку, из-за которой результат удаляется.
+     * В ходе объединения остаются пути только к неудалённым файлам.
+     *
+     * @param progress ход объединения с путями к результату.
+     */
+    private void deleteTotal(MergeProgress progress) {
+        List<String> remaining = new ArrayList<>();
+        for (var totalPath : progress.getTotalPaths()) {
+            try {
+                fileUtil.delete(new File(totalPath));
+            } catch (RuntimeException e) {
+                log.warn("Unable to delete total file {}: {}", totalPath, e.getMessage(), e);
+                remaining.add(totalPath);
+            }
+        }
+        progress.setTotalPaths(List.copyOf(remaining));
+    }
+}
@@ -0,0 +1,95 @@
+package com.vpolosov.trainee.mergexml.service;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Ход объединения платёжных документов: длительность этапов, количество файлов и платежей, итоговые файлы.
+ * <p>
+ * Заполняется по мере выполнения объединения, поэтому после ошибки содержит сведения о завершённых этапах.
+ *
+ * @author Maksim Litvinenko
+ */
+@Getter
+@Setter
+public class MergeProgress {
+
+    /**
+     * Количество объединяемых файлов.
+     */
+    private volatile Integer fileCount;
+
+    /**
+     * Количество объединённых платежей.
+     */
+    private volatile Integer documentCount;
+
+    /**
+     * Абсолютные пути к итоговому файлу или ко всем его частям в порядке записи.
+     */
+    private volatile List<String> totalPaths = List.of();
+
+    /**
+     * Длительность выполненных этапов.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final Map<MergeStage, Duration> durations = new ConcurrentHashMap<>();
+
+    /**
+     * Действие после завершения каждого этапа, например сохранение промежуточного хода задачи.
+     */
+    @Getter(AccessLevel.NONE)
+    private volatile Consumer<MergeProgress> stageListener = progress -> { };
+
+    /**
+     * Выполняет этап и запоминает его длительность, даже если этап завершился ошибкой.
+     * После этапа вызывает {@link #stageListener}.
+     *
+     * @param stage  этап.
+     * @param action действие этапа.
+     * @param <T>    тип результата этапа.
+     * @return результат этапа.
+     */
+    public <T> T time(MergeStage stage, Supplier<T> action) {
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            durations.put(stage, Duration.ofNanos(System.nanoTime() - start));
+            stageListener.accept(this);
+        }
+    }
+
+    /**
+     * Выполняет этап без результата и запоминает его длительность, даже если этап завершился ошибкой.
+     *
+     * @param stage  этап.
+     * @param action действие этапа.
+     */
+    public void time(MergeStage stage, Runnable action) {
+        time(stage, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Возвращает длительность этапа в миллисекундах.
+     *
+     * @param stage этап.
+     * @return длительность этапа или {@code null}, если этап не выполнялся.
+     */
+    public Long millis(MergeStage stage) {
+        var duration = durations.get(stage);
+        return duration == null ? null : duration.toMillis();
+    }
+}
@@ -3,34 +3,48 @@ package com.vpolosov.trainee.mergexml.service;
 import com.vpolosov.trainee.mergexml.aspect.Loggable;
 import com.vpolosov.trainee.mergexml.config.ConfigProperties;
 import com.vpolosov.trainee.mergexml.handler.exception.MoreFiveHundredKbException;
+import com.vpolosov.trainee.mergexml.handler.exception.ParallelValidationException;
+import com.vpolosov.trainee.mergexml.utils.DirectorySnapshot;
+import com.vpolosov.trainee.mergexml.utils.DocumentWriter;
 import com.vpolosov.trainee.mergexml.utils.DocumentUtil;
 import com.vpolosov.trainee.mergexml.utils.FileUtil;
-import com.vpolosov.trainee.mergexml.utils.TransformerUtil;
+import com.vpolosov.trainee.mergexml.utils.MergeMetrics;
+import com.vpolosov.trainee.mergexml.utils.PaymentFields;
+import com.vpolosov.trainee.mergexml.utils.PipelineStage;
+import com.vpolosov.trainee.mergexml.utils.SizeLimitedOutputStream;
+import com.vpolosov.trainee.mergexml.utils.XmlStreamUtil;
 import com.vpolosov.trainee.mergexml.validators.Validators;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.springframework.stereotype.Service;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 
-import javax.xml.transform.Transformer;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
+import javax.xml.validation.Schema;
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.time.Clock;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
-import static com.vpolosov.trainee.mergexml.utils.Constant.EMPTY_SIZE;
-import static com.vpolosov.trainee.mergexml.utils.Constant.FIRST_ELEMENT;
-import static com.vpolosov.trainee.mergexml.utils.XmlTags.BS_HEAD;
-import static com.vpolosov.trainee.mergexml.utils.XmlTags.BS_MESSAGE;
 import static com.vpolosov.trainee.mergexml.utils.XmlTags.DATE_TIME;
-import static com.vpolosov.trainee.mergexml.utils.XmlTags.DOCUMENTS;
 import static com.vpolosov.trainee.mergexml.utils.XmlTags.ID;
 import static com.vpolosov.trainee.mergexml.utils.XmlTags.PAYER;
 
@@ -44,6 +58,23 @@ import static com.vpolosov.trainee.mergexml.utils.XmlTags.PAYER;
 @RequiredArgsConstructor
 public class MergeService {
 
+    /**
+     * Количество одновременно обрабатываемых файлов на один поток проверки.
+     * <p>
+     * Пока объединяется очередной документ, потоки проверки уже заняты следующими файлами.
+     */
+    private static final int FILES_IN_FLIGHT_PER_THREAD = 2;
+
+    /**
+     * Количество частей результата, при котором части не нумеруются.
+     */
+    private static final int SINGLE_PART = 1;
+
+    /**
+     * Размер буфера записи результирующего файла в байтах.
+     */
+    private static final int WRITE_BUFFER_SIZE = 65_536;
+
     /**
      * Логирование для пользователя.
      */
@@ -60,9 +91,14 @@ public class MergeService {
     private final DocumentUtil documentUtil;
 
     /**
-     * Вспомогательный класс для работы с {@link Transformer}.
+     * Запись XML документа в поток вывода.
+     */
+    private final DocumentWriter documentWriter;
+
+    /**
+     * Вспомогательный класс для потокового объединения XML файлов.
      */
-    private final TransformerUtil transformerUtil;
+    private final XmlStreamUtil xmlStreamUtil;
 
     /**
      * Валидаторы XML документа.
@@ -84,98 +120,413 @@ public class MergeService {
      */
     private final DateTimeFormatter totalTimeFormat;
 
+    /**
+     * Пул потоков для параллельного разбора и проверки XML файлов.
+     */
+    private final ExecutorService validationExecutor;
+
+    /**
+     * Кэш результатов валидации XML файлов.
+     */
+    private final ValidationResultCache validationResultCache;
+
+    /**
+     * Метрики длительности этапов объединения.
+     */
+    private final MergeMetrics mergeMetrics;
+
     /**
      * Объединяет XML файлы в каталоге для создания платёжного документа.
+     * <p>
+     * Если включено {@link ConfigProperties#getSplitTotal()}, общий {@link Document} не строится:
+     * результат записывается частями потоково из исходных файлов, как в {@link #mergeStreaming(String, MergeProgress)}.
      *
-     * @param path путь до каталога с платёжными документами.
-     * @return объединённый документ платёжных операций.
-     * @throws MoreFiveHundredKbException если размер объединённого файла больше 500 кб.
+     * @param path     путь до каталога с платёжными документами.
+     * @param progress ход объединения, в который записываются длительность этапов и результаты.
+     * @return ref объединённых документов и даты их создания.
+     * @throws MoreFiveHundredKbException если размер объединённого файла больше 500 кб,
+     *                                    а при разбиении на части если один файл больше 500 кб.
+     */
+    @Loggable
+    public Map<String, String> merge(String path, MergeProgress progress) {
+        var snapshot = snapshot(path);
+        progress.setFileCount(snapshot.xml().size());
+
+        if (configProperties.getSplitTotal()) {
+            validate(snapshot, progress);
+            return writeParts(path, snapshot, progress);
+        }
+        var totalDocument = new TotalDocument(documentUtil.create());
+        progress.time(MergeStage.VALIDATION, () -> {
+            var schema = validators.createSchema(snapshot.xsdFile());
+            var paymentFields = parseAndValidate(
+                snapshot, schema, document -> aggregateTotal(document, totalDocument)
+            );
+            validators.validateHistory(paymentFields);
+        });
+        progress.setDocumentCount(totalDocument.docRefs().size());
+
+        var total = progress.time(MergeStage.WRITE, () -> {
+            Document targetDocument = totalDocument.document();
+            targetDocument.normalizeDocument();
+            Element root = targetDocument.getDocumentElement();
+            rootAttributes().forEach(root::setAttribute);
+
+            var fileName = fileUtil.fileNameWithTime(configProperties.getFileName(), clock, totalTimeFormat);
+            var totalFile = new File(path, fileName);
+            writeTotal(totalFile, outputStream -> {
+                documentWriter.write(targetDocument, outputStream);
+                return totalFile;
+            });
+            return totalFile;
+        });
+        progress.setTotalPaths(List.of(total.getAbsolutePath()));
+        return totalDocument.docRefs();
+    }
+
+    /**
+     * Потоково объединяет XML файлы в каталоге для создания платёжного документа.
+     * <p>
+     * Файлы проверяются по одному, после чего платежи копируются в результирующий файл
+     * без построения общего {@link Document}, поэтому потребление памяти не зависит от количества файлов.
+     * Если включено {@link ConfigProperties#getSplitTotal()}, результат, превышающий допустимый размер,
+     * записывается в несколько частей.
+     *
+     * @param path     путь до каталога с платёжными документами.
+     * @param progress ход объединения, в который записываются длительность этапов и результаты.
+     * @return ref объединённых документов и даты их создания.
+     * @throws MoreFiveHundredKbException если размер объединённого файла больше 500 кб,
+     *                                    а при разбиении на части если один файл больше 500 кб.
      */
     @Loggable
-    public Document merge(String path) {
-        List<File> xmlFiles = fileUtil.listXml(
+    public Map<String, String> mergeStreaming(String path, MergeProgress progress) {
+        var snapshot = snapshot(path);
+        progress.setFileCount(snapshot.xml().size());
+        validate(snapshot, progress);
+
+        if (configProperties.getSplitTotal()) {
+            return writeParts(path, snapshot, progress);
+        }
+        var fileName = fileUtil.fileNameWithTime(configProperties.getFileName(), clock, totalTimeFormat);
+        var total = new File(path, fileName);
+        Map<String, String> docRefs = progress.time(MergeStage.WRITE, () -> writeTotal(
+            total,
+            outputStream -> xmlStreamUtil.merge(snapshot.xmlFiles(), outputStream, rootAttributes())
+        ));
+        progress.setDocumentCount(docRefs.size());
+        progress.setTotalPaths(List.of(total.getAbsolutePath()));
+        return docRefs;
+    }
+
+    /**
+     * Проверяет XML файлы каталога без объединения их в общий {@link Document}.
+     *
+     * @param snapshot файлы каталога.
+     * @param progress ход объединения, в который записывается длительность проверки.
+     */
+    private void validate(DirectorySnapshot snapshot, MergeProgress progress) {
+        progress.time(MergeStage.VALIDATION, () -> {
+            var schema = validators.createSchema(snapshot.xsdFile());
+            validators.validateHistory(parseAndValidate(snapshot, schema, null));
+        });
+    }
+
+    /**
+     * Просматривает каталог и проверяет количество файлов в нём.
+     *
+     * @param path путь до каталога с платёжными документами.
+     * @return файлы каталога.
+     */
+    private DirectorySnapshot snapshot(String path) {
+        return mergeMetrics.time(PipelineStage.LISTING, () -> fileUtil.snapshot(
             path,
             configProperties.getMinCountFiles(),
             configProperties.getMaxCountFiles()
-        );
-        File xsdFile = fileUtil.xsd(path);
-
-        var payer = documentUtil.getValueByTagName(xmlFiles.get(FIRST_ELEMENT), PAYER);
-        Document targetDocument = documentUtil.create();
-        var validator = validators.createValidator(xsdFile);
-        xmlFiles.stream()
-            .map(documentUtil::parse)
-            .filter(document -> validators.validate(document, validator, payer))
-            .peek(document -> loggerForUser.info("Файл {} прошел проверку.", documentUtil.getFileName(document)))
-            .forEach(xmlFile -> aggregateTotal(xmlFile, targetDocument));
-
-        targetDocument.normalizeDocument();
-        targetDocument.getElementsByTagName(BS_MESSAGE)
-            .item(FIRST_ELEMENT)
-            .getAttributes()
-            .getNamedItem(ID)
-            .setNodeValue(UUID.randomUUID().toString());
-        targetDocument.getElementsByTagName(BS_MESSAGE)
-            .item(FIRST_ELEMENT)
-            .getAttributes()
-            .getNamedItem(DATE_TIME)
-            .setNodeValue(LocalDateTime.now().toString());
-
-
-        targetDocument.normalize();
-        DOMSource dom = new DOMSource(targetDocument);
+        ));
+    }
 
+    /**
+     * Потоково записывает результат частями не больше допустимого размера.
+     * <p>
+     * Части заполняются файлами жадно в исходном порядке, и каждая часть записывается на диск, как только
+     * следующий файл в неё не помещается. Каждая часть является отдельным {@code BSMessage}
+     * со своим {@code ID}. Если частей больше одной, они называются {@code Total{время}.part-N.xml},
+     * иначе результат называется как обычно. При ошибке уже записанные части удаляются.
+     *
+     * @param path     путь до каталога с платёжными документами.
+     * @param snapshot файлы каталога.
+     * @param progress ход объединения, в который записываются длительность записи и пути ко всем частям.
+     * @return ref документов и даты их создания в порядке записи.
+     * @throws MoreFiveHundredKbException если один файл не помещается в часть.
+     */
+    private Map<String, String> writeParts(String path, DirectorySnapshot snapshot, MergeProgress progress) {
+        var parts = progress.time(MergeStage.WRITE, () -> writeParts(path, snapshot));
+        progress.setDocumentCount(parts.docRefs().size());
+        progress.setTotalPaths(parts.files().stream().map(File::getAbsolutePath).toList());
+        return parts.docRefs();
+    }
+
+    /**
+     * Потоково записывает части результата.
+     *
+     * @param path     путь до каталога с платёжными документами.
+     * @param snapshot файлы каталога.
+     * @return записанные части и ref документов с датами их создания в порядке записи.
+     * @throws MoreFiveHundredKbException если один файл не помещается в часть.
+     */
+    private TotalParts writeParts(String path, DirectorySnapshot snapshot) {
         var fileName = fileUtil.fileNameWithTime(configProperties.getFileName(), clock, totalTimeFormat);
-        var total = new File(path, fileName);
-        transformerUtil.transform(dom, new StreamResult(total));
+        List<File> files = new ArrayList<>();
+        Map<String, String> docRefs;
+        try {
+            docRefs = xmlStreamUtil.split(
+                snapshot.xmlFiles(), validators.checkFileSize().maxBytes(), this::rootAttributes,
+                (part, content) -> {
+                    var partFile = new File(path, part.number() == SINGLE_PART && part.last()
+                        ? fileName
+                        : fileUtil.partFileName(fileName, part.number()));
+                    writeTotal(partFile, outputStream -> {
+                        content.accept(outputStream);
+                        return partFile;
+                    });
+                    files.add(partFile);
+                }
+            );
+        } catch (RuntimeException e) {
+            files.forEach(fileUtil::delete);
+            throw e;
+        }
+        return new TotalParts(files, docRefs);
+    }
+
+    /**
+     * Возвращает новые значения атрибутов {@code BSMessage} результирующего файла.
+     *
+     * @return новый {@code ID} и время создания.
+     */
+    private Map<String, String> rootAttributes() {
+        return Map.of(
+            ID, UUID.randomUUID().toString(),
+            DATE_TIME, LocalDateTime.now(clock).toString()
+        );
+    }
 
-        if (validators.checkFileSize().isMoreThanFiveKb(total)) {
-            fileUtil.delete(total);
-            throw new MoreFiveHundredKbException("There are more than 500 kb files");
+    /**
+     * Разбирает и проверяет XML файлы в пуле потоков {@link #validationExecutor}.
+     * <p>
+     * Первый файл проверяется в вызывающем потоке: плательщик каталога берётся из него, и уже с этим
+     * плательщиком проверяются остальные файлы. Одновременно обрабатывается не больше
+     * {@value #FILES_IN_FLIGHT_PER_THREAD} файлов на поток,
+     * а прошедшие проверку документы передаются в {@code consumer} в вызывающем потоке
+     * строго в исходном порядке файлов. При первой ошибке в порядке файлов оставшиеся задачи отменяются.
+     * <p>
+     * Проверка по истории платежей здесь не выполняется: она делается одним запросом
+     * для всех возвращённых полей документов.
+     * <p>
+     * Файлы, которые уже прошли проверку и с тех пор не изменились, повторно не проверяются
+     * (см. {@link ValidationResultCache}), а результаты новых проверок сохраняются, в том числе при ошибке
+     * в одном из следующих файлов.
+     *
+     * @param snapshot файлы каталога.
+     * @param schema   схема для проверки XML файлов.
+     * @param consumer обработчик прошедших проверку документов, {@code null} если документы не нужны.
+     * @return поля прошедших проверку документов в исходном порядке файлов.
+     * @throws ParallelValidationException если проверка была прервана или завершилась неожиданной ошибкой.
+     */
+    private List<PaymentFields> parseAndValidate(DirectorySnapshot snapshot, Schema schema,
+                                                 Consumer<Document> consumer) {
+        var lookup = validationResultCache.lookup(snapshot);
+        int maxInFlight = configProperties.getValidationParallelism() * FILES_IN_FLIGHT_PER_THREAD;
+        Deque<Future<ValidatedDocument>> inFlight = new ArrayDeque<>();
+        List<PaymentFields> paymentFields = new ArrayList<>(snapshot.xml().size());
+        var files = snapshot.xml().iterator();
+        try {
+            var firstFile = files.next();
+            var first = parseAndValidate(firstFile, schema, null, lookup, consumer != null);
+            var payer = first == null
+                ? documentUtil.getValueByTagName(firstFile.file(), PAYER)
+                : first.paymentFields().payer();
+            accept(first, lookup, paymentFields, consumer);
+            while (files.hasNext() || !inFlight.isEmpty()) {
+                while (files.hasNext() && inFlight.size() < maxInFlight) {
+                    var file = files.next();
+                    inFlight.add(validationExecutor.submit(
+                        () -> parseAndValidate(file, schema, payer, lookup, consumer != null)
+                    ));
+                }
+                accept(await(inFlight.poll()), lookup, paymentFields, consumer);
+            }
+        } finally {
+            inFlight.forEach(future -> future.cancel(true));
+            validationResultCache.save(lookup);
         }
-        return targetDocument;
+        return paymentFields;
     }
 
     /**
-     * Формирование общего документа с информацией о платёжных операциях.
+     * Разбирает и проверяет один XML файл, если он не был проверен ранее в том же состоянии.
      *
-     * @param document       содержит информацию о платёжной операции.
-     * @param targetDocument конечный документ, в который объединяется информация о платёжных операциях.
+     * @param file   XML файл платёжного документа.
+     * @param schema схема для проверки XML файлов.
+     * @param payer  плательщик, {@code null} если он берётся из этого же документа.
+     * @param lookup результаты прошлых проверок файлов каталога.
+     * @param parse  нужно ли разбирать ранее проверенный файл в документ.
+     * @return документ и его поля, если он прошёл проверку, иначе {@code null}.
      */
-    @Loggable
-    private void aggregateTotal(Document document, Document targetDocument) {
-        document.getDocumentElement().normalize();
-        if (targetDocument.getElementsByTagName(DOCUMENTS).getLength() == EMPTY_SIZE) {
-            NodeList documentNodeList = document.getChildNodes();
-            Node targetNode = targetDocument.importNode(documentNodeList.item(FIRST_ELEMENT), true);
-            targetDocument.appendChild(targetNode);
+    private ValidatedDocument parseAndValidate(DirectorySnapshot.ScannedFile file, Schema schema, String payer,
+                                               ValidationResultCache.Lookup lookup, boolean parse) {
+        var key = lookup.key(file);
+        var cachedFields = lookup.find(key, payer);
+        if (cachedFields != null) {
+            var document = parse ? documentUtil.parse(file.file()) : null;
+            return new ValidatedDocument(document, cachedFields, key, true);
+        }
+        var document = validators.parse(file.file(), schema);
+        var documentPayer = payer == null ? documentUtil.getValueByTagName(document, PAYER) : payer;
+        var paymentFields = validators.validate(document, documentPayer);
+        return paymentFields == null ? null : new ValidatedDocument(document, paymentFields, key, false);
+    }
+
+    /**
+     * Передаёт прошедший проверку документ дальше в исходном порядке файлов.
+     *
+     * @param validated     документ и его поля, {@code null} если документ не прошёл проверку.
+     * @param lookup        результаты проверок файлов каталога, в которые добавляется новая проверка.
+     * @param paymentFields поля прошедших проверку документов.
+     * @param consumer      обработчик прошедших проверку документов, {@code null} если документы не нужны.
+     */
+    private void accept(ValidatedDocument validated, ValidationResultCache.Lookup lookup,
+                        List<PaymentFields> paymentFields, Consumer<Document> consumer) {
+        if (validated == null) {
+            return;
+        }
+        if (validated.cached()) {
+            loggerForUser.info("Файл {} прошел проверку ранее и не изменился.", validated.paymentFields().fileName());
         } else {
-            NodeList headerNodeList = document.getElementsByTagName(BS_HEAD)
-                .item(FIRST_ELEMENT)
-                .getChildNodes();
-            for (int i = FIRST_ELEMENT; i < headerNodeList.getLength(); i++) {
-                Node headerNode = headerNodeList.item(i);
-                Node targetHeaderNode = targetDocument.importNode(headerNode, true);
-
-                Element targetHeaderElement = (Element) targetDocument
-                    .getElementsByTagName(BS_HEAD)
-                    .item(FIRST_ELEMENT);
-                targetHeaderElement.appendChild(targetHeaderNode);
+            loggerForUser.info("Файл {} прошел проверку.", validated.paymentFields().fileName());
+            lookup.add(validated.key(), validated.paymentFields());
+        }
+        paymentFields.add(validated.paymentFields());
+        if (consumer != null) {
+            consumer.accept(validated.document());
+        }
+    }
+
+    /**
+     * Ожидает результат проверки файла.
+     *
+     * @param future результат проверки файла.
+     * @return документ и его поля, если он прошёл проверку, иначе {@code null}.
+     * @throws ParallelValidationException если ожидание было прервано или проверка завершилась
+     *                                     неожиданной ошибкой.
+     */
+    private static ValidatedDocument await(Future<ValidatedDocument> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
             }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new ParallelValidationException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ParallelValidationException(e);
+        }
+    }
 
-            NodeList documentNodeList = document.getElementsByTagName(DOCUMENTS)
-                .item(FIRST_ELEMENT)
-                .getChildNodes();
-
-            for (int i = FIRST_ELEMENT; i < documentNodeList.getLength(); i++) {
-                Node documentNode = documentNodeList.item(i);
-                Node targetDocumentNode = targetDocument.importNode(documentNode, true);
-                targetDocument.normalize();
-                Element targetDocumentElement = (Element) targetDocument
-                    .getElementsByTagName(DOCUMENTS)
-                    .item(FIRST_ELEMENT);
-                targetDocumentElement.appendChild(targetDocumentNode);
+    /**
+     * Записывает результирующий файл, прерывая запись, как только размер превысит допустимый.
+     * <p>
+     * Записанные байты считаются по мере записи, поэтому слишком большой результат не записывается
+     * целиком. При любой ошибке частично записанный файл удаляется.
+     * <p>
+     * Файл записывается через буфер в {@link FileChannel}. Если включено {@link ConfigProperties#getFsyncTotal()},
+     * после записи содержимое файла сбрасывается на диск.
+     *
+     * @param total  результирующий файл.
+     * @param writer запись содержимого в поток вывода.
+     * @param <T>    результат записи.
+     * @return результат записи.
+     * @throws MoreFiveHundredKbException если размер объединённого файла больше 500 кб.
+     * @throws UncheckedIOException       если не удалось записать файл.
+     */
+    private <T> T writeTotal(File total, Function<OutputStream, T> writer) {
+        return mergeMetrics.time(PipelineStage.SERIALIZATION, () -> writeLimited(total, writer));
+    }
+
+    /**
+     * Записывает результирующий файл с ограничением размера, см. {@link #writeTotal(File, Function)}.
+     *
+     * @param total  результирующий файл.
+     * @param writer запись содержимого в поток вывода.
+     * @param <T>    результат записи.
+     * @return результат записи.
+     * @throws MoreFiveHundredKbException если размер объединённого файла больше 500 кб.
+     * @throws UncheckedIOException       если не удалось записать файл.
+     */
+    private <T> T writeLimited(File total, Function<OutputStream, T> writer) {
+        SizeLimitedOutputStream limited = null;
+        try (var channel = FileChannel.open(
+            total.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE
+        )) {
+            limited = new SizeLimitedOutputStream(
+                Channels.newOutputStream(channel), validators.checkFileSize().maxBytes()
+            );
+            var outputStream = new BufferedOutputStream(limited, WRITE_BUFFER_SIZE);
+            var result = writer.apply(outputStream);
+            outputStream.flush();
+            if (configProperties.getFsyncTotal()) {
+                channel.force(true);
+            }
+            return result;
+        } catch (IOException | RuntimeException e) {
+            if (total.exists()) {
+                fileUtil.delete(total);
+            }
+            if (limited != null && limited.isLimitExceeded()) {
+                throw new MoreFiveHundredKbException("There are more than 500 kb files");
             }
+            if (e instanceof IOException ioException) {
+                throw new UncheckedIOException(ioException);
+            }
+            throw (RuntimeException) e;
         }
     }
+
+    /**
+     * Формирование общего документа с информацией о платёжных операциях.
+     *
+     * @param document      содержит информацию о платёжной операции.
+     * @param totalDocument конечный документ, в который объединяется информация о платёжных операциях.
+     */
+    @Loggable
+    private void aggregateTotal(Document document, TotalDocument totalDocument) {
+        mergeMetrics.time(PipelineStage.AGGREGATION, () -> totalDocument.append(document));
+    }
+
+    /**
+     * Документ, прошедший проверку, и его поля.
+     *
+     * @author Maksim Litvinenko
+     * @param document      XML документ, {@code null} если ранее проверенный файл не разбирался.
+     * @param paymentFields поля документа.
+     * @param key           состояние файла документа.
+     * @param cached        файл прошёл проверку ранее и не проверялся повторно.
+     */
+    private record ValidatedDocument(Document document, PaymentFields paymentFields,
+                                     ValidationResultCache.FileKey key, boolean cached) {
+    }
+
+    /**
+     * Записанные части результата.
+     *
+     * @author Maksim Litvinenko
+     * @param files   файлы частей в порядке записи.
+     * @param docRefs ref документов и даты их создания в порядке записи.
+     */
+    private record TotalParts(List<File> files, Map<String, String> docRefs) {
+    }
 }
@@ -0,0 +1,24 @@
+package com.vpolosov.trainee.mergexml.service;
+
+/**
+ * Этап объединения платёжных документов.
+ *
+ * @author Maksim Litvinenko
+ */
+public enum MergeStage {
+
+    /**
+     * Разбор, проверка и объединение XML файлов, включая проверку по истории платежей.
+     */
+    VALIDATION,
+
+    /**
+     * Запись итогового документа и проверка его размера.
+     */
+    WRITE,
+
+    /**
+     * Сохранение истории объединённых платежей.
+     */
+    HISTORY
+}
@@ -0,0 +1,138 @@
+package com.vpolosov.trainee.mergexml.service;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.vpolosov.trainee.mergexml.utils.Constant.FIRST_ELEMENT;
+import static com.vpolosov.trainee.mergexml.utils.XmlTags.BS_HEAD;
+import static com.vpolosov.trainee.mergexml.utils.XmlTags.DOCREF;
+import static com.vpolosov.trainee.mergexml.utils.XmlTags.DOCUMENT;
+import static com.vpolosov.trainee.mergexml.utils.XmlTags.DOCUMENTDATE;
+import static com.vpolosov.trainee.mergexml.utils.XmlTags.DOCUMENTS;
+
+/**
+ * Результирующий документ, в который объединяется информация о платёжных операциях.
+ * <p>
+ * Хранит ссылки на элементы {@code BSHead} и {@code DOCUMENTS}, поэтому добавление очередного
+ * документа не требует поиска по уже объединённому дереву и стоит пропорционально размеру добавляемого документа.
+ * Ref и даты добавленных платежей собираются во время добавления, чтобы записать историю
+ * без повторного обхода объединённого дерева.
+ *
+ * @author Maksim Litvinenko
+ */
+public class TotalDocument {
+
+    /**
+     * Конечный документ.
+     */
+    private final Document targetDocument;
+
+    /**
+     * Элемент {@code BSHead} конечного документа.
+     */
+    private Element targetHeader;
+
+    /**
+     * Элемент {@code DOCUMENTS} конечного документа.
+     */
+    private Element targetDocuments;
+
+    /**
+     * Ref добавленных платежей и даты их создания в порядке добавления.
+     */
+    private final Map<String, String> docRefs = new LinkedHashMap<>();
+
+    /**
+     * Конструктор с одним параметром.
+     *
+     * @param targetDocument пустой документ, в который будет происходить объединение.
+     */
+    public TotalDocument(Document targetDocument) {
+        this.targetDocument = targetDocument;
+    }
+
+    /**
+     * Добавляет информацию о платёжной операции в конечный документ.
+     * <p>
+     * Первый документ копируется целиком, у следующих копируются дочерние узлы {@code BSHead} и {@code DOCUMENTS}.
+     *
+     * @param document содержит информацию о платёжной операции.
+     */
+    public void append(Document document) {
+        document.getDocumentElement().normalize();
+        var documents = document.getElementsByTagName(DOCUMENTS).item(FIRST_ELEMENT);
+        collectDocRefs(documents.getChildNodes());
+        if (targetDocuments == null) {
+            var targetNode = targetDocument.importNode(document.getChildNodes().item(FIRST_ELEMENT), true);
+            targetDocument.appendChild(targetNode);
+            targetHeader = (Element) targetDocument.getElementsByTagName(BS_HEAD).item(FIRST_ELEMENT);
+            targetDocuments = (Element) targetDocument.getElementsByTagName(DOCUMENTS).item(FIRST_ELEMENT);
+        } else {
+            appendChildren(document.getElementsByTagName(BS_HEAD).item(FIRST_ELEMENT).getChildNodes(), targetHeader);
+            appendChildren(documents.getChildNodes(), targetDocuments);
+        }
+    }
+
+    /**
+     * Возвращает конечный документ.
+     *
+     * @return конечный документ.
+     */
+    public Document document() {
+        return targetDocument;
+    }
+
+    /**
+     * Возвращает ref добавленных платежей и даты их создания.
+     *
+     * @return ref платежей и даты их создания в порядке добавления.
+     */
+    public Map<String, String> docRefs() {
+        return Collections.unmodifiableMap(docRefs);
+    }
+
+    /**
+     * Запоминает ref и даты платежей добавляемого документа.
+     * <p>
+     * Просматриваются только дочерние узлы каждого {@code DOCUMENT}, поэтому сбор стоит
+     * пропорционально размеру добавляемого документа.
+     *
+     * @param nodes дочерние узлы {@code DOCUMENTS} добавляемого документа.
+     */
+    private void collectDocRefs(NodeList nodes) {
+        for (int i = FIRST_ELEMENT; i < nodes.getLength(); i++) {
+            var node = nodes.item(i);
+            if (node.getNodeType() != Node.ELEMENT_NODE || !DOCUMENT.equals(node.getNodeName())) {
+                continue;
+            }
+            String docRef = null;
+            String documentDate = null;
+            for (var child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+                if (DOCREF.equals(child.getNodeName())) {
+                    docRef = child.getTextContent();
+                } else if (DOCUMENTDATE.equals(child.getNodeName())) {
+                    documentDate = child.getTextContent();
+                }
+            }
+            docRefs.put(docRef, documentDate);
+        }
+    }
+
+    /**
+     * Копирует узлы в элемент конечного документа.
+     *
+     * @param nodes  узлы для копирования.
+     * @param target элемент, в который добавляются узлы.
+     */
+    private void appendChildren(NodeList nodes, Element target) {
+        for (int i = FIRST_ELEMENT; i < nodes.getLength(); i++) {
+            target.appendChild(targetDocument.importNode(nodes.item(i), true));
+        }
+    }
+}
@@ -1,12 +1,30 @@
 package com.vpolosov.trainee.mergexml.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.vpolosov.trainee.mergexml.dtos.ValidationFileHistoryDto;
+import com.vpolosov.trainee.mergexml.dtos.ValidationFileHistoryFilter;
+import com.vpolosov.trainee.mergexml.dtos.ValidationFileHistoryPageDto;
+import com.vpolosov.trainee.mergexml.dtos.views.ValidationFileHistoryDtoViews;
 import com.vpolosov.trainee.mergexml.mappers.ValidationFileHistoryMapper;
+import com.vpolosov.trainee.mergexml.model.ValidationFileHistory;
 import com.vpolosov.trainee.mergexml.repository.ValidationFileHistoryRepository;
+import com.vpolosov.trainee.mergexml.service.specification.ValidationFileHistorySpecifications;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
+
+import static com.vpolosov.trainee.mergexml.utils.Constant.FIRST_ELEMENT;
+import static com.vpolosov.trainee.mergexml.utils.Constant.NEXT_ELEMENT;
 
 
 /**
@@ -18,6 +36,26 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ValidationFileHistoryService {
 
+    /**
+     * Наибольшее количество записей на странице.
+     */
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    /**
+     * Порядок записей для постраничного чтения: по убыванию даты валидации, затем id валидации.
+     */
+    private static final Sort KEYSET_SORT = Sort.by(Sort.Direction.DESC, "validationDate", "validationId");
+
+    /**
+     * Связь, загружаемая вместе с записями страницы.
+     */
+    private static final String VALIDATION_PROCESS = "validationProcess";
+
+    /**
+     * Разделитель записей в формате NDJSON.
+     */
+    private static final SerializedString NDJSON_SEPARATOR = new SerializedString("\n");
+
     /**
      * Репозиторий для работы с БД.
      */
@@ -26,6 +64,14 @@ public class ValidationFileHistoryService {
      * Маппер для преобразования из сущностей в ДТО и обратно.
      */
     private final ValidationFileHistoryMapper mapper;
+    /**
+     * Менеджер сущностей для отсоединения уже выгруженных записей.
+     */
+    private final EntityManager entityManager;
+    /**
+     * Сериализатор JSON.
+     */
+    private final ObjectMapper objectMapper;
 
     /**
      * Получение и преобразование всех провалидируемых файлов из сущностей в дто.
@@ -35,4 +81,64 @@ public class ValidationFileHistoryService {
     public List<ValidationFileHistoryDto> getAllValidatedFiles() {
         return mapper.toDtoList(repository.findAllByOrderByValidationDateDesc());
     }
+
+    /**
+     * Получение страницы провалидированных файлов по фильтру.
+     * <p>
+     * Страница начинается после записи, заданной курсором, поэтому время запроса не зависит от того,
+     * насколько далеко от начала находится страница. Запрашивается на одну запись больше размера страницы,
+     * чтобы без подсчёта количества записей определить, есть ли следующая страница.
+     *
+     * @param filter              фильтр истории валидации файлов.
+     * @param afterValidationDate дата валидации последней записи предыдущей страницы.
+     * @param afterValidationId   id валидации последней записи предыдущей страницы.
+     * @param limit               размер страницы, ограничивается значением {@value #MAX_PAGE_SIZE}.
+     * @return страница провалидированных файлов, отсортированных по убыванию даты валидации, и курсор следующей.
+     */
+    public ValidationFileHistoryPageDto getPage(ValidationFileHistoryFilter filter,
+                                                LocalDateTime afterValidationDate,
+                                                UUID afterValidationId,
+                                                int limit) {
+        int pageSize = Math.min(Math.max(limit, NEXT_ELEMENT), MAX_PAGE_SIZE);
+        var specification = ValidationFileHistorySpecifications.matches(filter)
+            .and(ValidationFileHistorySpecifications.after(afterValidationDate, afterValidationId));
+        List<ValidationFileHistory> rows = repository.findBy(specification, query -> query
+            .project(VALIDATION_PROCESS)
+            .sortBy(KEYSET_SORT)
+            .limit(pageSize + NEXT_ELEMENT)
+            .all());
+        if (rows.size() <= pageSize) {
+            return new ValidationFileHistoryPageDto(mapper.toDtoList(rows), null, null);
+        }
+        var page = rows.subList(FIRST_ELEMENT, pageSize);
+        var last = page.get(pageSize - NEXT_ELEMENT);
+        return new ValidationFileHistoryPageDto(
+            mapper.toDtoList(page), last.getValidationDate(), last.getValidationId()
+        );
+    }
+
+    /**
+     * Выгрузка всех провалидированных файлов в формате NDJSON, по одной записи JSON на строку.
+     * <p>
+     * Записи читаются курсором и пишутся в поток по одной: каждая запись отсоединяется от контекста
+     * персистентности после записи, поэтому потребление памяти не зависит от количества записей.
+     *
+     * @param outputStream поток, в который пишутся записи. Не закрывается.
+     * @throws IOException если не удалось записать в поток.
+     */
+    @Transactional(readOnly = true)
+    public void exportAllValidatedFiles(OutputStream outputStream) throws IOException {
+        var writer = objectMapper.writerWithView(ValidationFileHistoryDtoViews.Output.class);
+        try (var rows = repository.streamAllByOrderByValidationDateDesc();
+             var generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(NDJSON_SEPARATOR);
+            for (var iterator = rows.iterator(); iterator.hasNext();) {
+                var row = iterator.next();
+                writer.writeValue(generator, mapper.toDto(row));
+                entityManager.detach(row);
+            }
+            generator.writeRaw(NDJSON_SEPARATOR.getValue());
+        }
+    }
 }
@@ -0,0 +1,244 @@
+package com.vpolosov.trainee.mergexml.service;
+
+import com.vpolosov.trainee.mergexml.config.ConfigProperties;
+import com.vpolosov.trainee.mergexml.model.ValidationResultCacheEntry;
+import com.vpolosov.trainee.mergexml.repository.ValidationResultCacheRepository;
+import com.vpolosov.trainee.mergexml.utils.DirectorySnapshot;
+import com.vpolosov.trainee.mergexml.utils.HashUtil;
+import com.vpolosov.trainee.mergexml.utils.PaymentFields;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Кэш результатов валидации XML файлов, хранящийся в отдельной от истории валидации файлов таблице.
+ * <p>
+ * Файл, который уже прошёл проверку, повторно не проверяется, если не изменились его путь, размер,
+ * время изменения и хэш содержимого, хэш XSD схемы, версия правил проверки и плательщик каталога.
+ * Версия правил включает настройки валидаторов и текущую дату, так как дата платежа сравнивается с текущей.
+ * Проверка по истории платежей кэшем не заменяется.
+ * <p>
+ * На каждый путь к файлу хранится одна запись: новый результат валидации заменяет прежний,
+ * поэтому результаты с устаревшей версией правил или схемой не накапливаются.
+ *
+ * @author Maksim Litvinenko
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ValidationResultCache {
+
+    /**
+     * Версия кода валидаторов. Меняется при изменении правил проверки, чтобы не использовать старые результаты.
+     */
+    private static final String RULES_VERSION = "1";
+
+    /**
+     * Разделитель частей версии правил проверки.
+     */
+    private static final String VERSION_SEPARATOR = "|";
+
+    /**
+     * Репозиторий результатов валидации файлов.
+     */
+    private final ValidationResultCacheRepository repository;
+
+    /**
+     * Свойства приложения.
+     */
+    private final ConfigProperties configProperties;
+
+    /**
+     * Часы для корректировки времени.
+     */
+    private final Clock clock;
+
+    /**
+     * Загружает результаты прошлых успешных валидаций файлов каталога одним запросом.
+     *
+     * @param snapshot файлы каталога.
+     * @return результаты прошлых валидаций, в которые добавляются результаты новых.
+     * @throws UncheckedIOException если не удалось прочитать XSD файл.
+     */
+    public Lookup lookup(DirectorySnapshot snapshot) {
+        var schemaHash = HashUtil.sha256(read(snapshot.xsdFile()));
+        var configVersion = configVersion();
+        var paths = snapshot.xmlFiles().stream().map(File::getAbsolutePath).toList();
+        var validations = repository.findAllByFilePathIn(paths).stream()
+            .collect(Collectors.toMap(
+                ValidationResultCacheEntry::getFilePath, Function.identity(), (first, second) -> first
+            ));
+        return new Lookup(schemaHash, configVersion, validations, LocalDateTime.now(clock));
+    }
+
+    /**
+     * Сохраняет результаты новых валидаций, заменяя прежние результаты тех же файлов.
+     * <p>
+     * Ошибка сохранения не прерывает объединение: файлы просто будут проверены заново в следующий раз.
+     *
+     * @param lookup результаты валидаций каталога.
+     */
+    public void save(Lookup lookup) {
+        if (lookup.newValidations.isEmpty()) {
+            return;
+        }
+        try {
+            repository.saveAll(lookup.newValidations);
+        } catch (RuntimeException e) {
+            log.warn("Unable to save validation results: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Вычисляет версию правил проверки.
+     *
+     * @return хэш настроек валидаторов и текущей даты.
+     */
+    private String configVersion() {
+        return HashUtil.sha256(String.join(
+            VERSION_SEPARATOR,
+            RULES_VERSION,
+            String.valueOf(configProperties.getCurrencyCode()),
+            String.valueOf(configProperties.getMinPayment()),
+            String.valueOf(configProperties.getMaxPayment()),
+            LocalDate.now(clock).toString()
+        ));
+    }
+
+    /**
+     * Читает содержимое файла.
+     *
+     * @param file файл.
+     * @return содержимое файла.
+     * @throws UncheckedIOException если не удалось прочитать файл.
+     */
+    private static byte[] read(File file) {
+        try {
+            return Files.readAllBytes(file.toPath());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Состояние файла, по которому ищется результат валидации.
+     *
+     * @author Maksim Litvinenko
+     * @param file        XML файл с размером и временем изменения на момент просмотра каталога.
+     * @param contentHash хэш содержимого файла.
+     */
+    public record FileKey(DirectorySnapshot.ScannedFile file, String contentHash) {
+    }
+
+    /**
+     * Результаты валидаций файлов одного каталога.
+     * <p>
+     * {@link #key(DirectorySnapshot.ScannedFile)} и {@link #find(FileKey, String)} можно вызывать
+     * из разных потоков,
+     * {@link #add(FileKey, PaymentFields)} только из одного.
+     *
+     * @author Maksim Litvinenko
+     */
+    @RequiredArgsConstructor
+    public static final class Lookup {
+
+        /**
+         * Хэш XSD схемы.
+         */
+        private final String schemaHash;
+
+        /**
+         * Версия правил проверки.
+         */
+        private final String configVersion;
+
+        /**
+         * Прошлые успешные валидации по путям к файлам, в том числе с устаревшей схемой или версией правил.
+         */
+        private final Map<String, ValidationResultCacheEntry> validations;
+
+        /**
+         * Дата новых валидаций.
+         */
+        private final LocalDateTime validationDate;
+
+        /**
+         * Новые валидации для сохранения.
+         */
+        private final List<ValidationResultCacheEntry> newValidations = new ArrayList<>();
+
+        /**
+         * Вычисляет состояние файла.
+         *
+         * @param file XML файл с размером и временем изменения на момент просмотра каталога.
+         * @return состояние файла.
+         * @throws UncheckedIOException если не удалось прочитать файл.
+         */
+        public FileKey key(DirectorySnapshot.ScannedFile file) {
+            return new FileKey(file, HashUtil.sha256(read(file.file())));
+        }
+
+        /**
+         * Ищет результат прошлой успешной валидации файла в том же состоянии.
+         *
+         * @param key   состояние файла.
+         * @param payer плательщик каталога, {@code null} если файл первый и плательщик определяется по нему.
+         * @return имя файла, ref документа и плательщик, если файл уже прошёл проверку, иначе {@code null}.
+         */
+        public PaymentFields find(FileKey key, String payer) {
+            var file = key.file();
+            return Optional.ofNullable(validations.get(file.file().getAbsolutePath()))
+                .filter(validation -> schemaHash.equals(validation.getSchemaHash())
+                    && configVersion.equals(validation.getConfigVersion())
+                    && Objects.equals(validation.getFileSize(), file.size())
+                    && Objects.equals(validation.getFileModifiedMillis(), file.modifiedMillis())
+                    && key.contentHash().equals(validation.getContentHash())
+                    && (payer == null || payer.equals(validation.getPayer())))
+                .map(validation -> PaymentFields.cached(
+                    validation.getFileName(), validation.getPaymentDocRef(), validation.getPayer()
+                ))
+                .orElse(null);
+        }
+
+        /**
+         * Добавляет результат успешной валидации файла. Прежний результат этого файла будет заменён.
+         *
+         * @param key           состояние файла.
+         * @param paymentFields поля документа.
+         */
+        public void add(FileKey key, PaymentFields paymentFields) {
+            var file = key.file();
+            var validation = new ValidationResultCacheEntry();
+            var previous = validations.get(file.file().getAbsolutePath());
+            if (previous != null) {
+                validation.setId(previous.getId());
+            }
+            validation.setFilePath(file.file().getAbsolutePath());
+            validation.setFileName(file.file().getName());
+            validation.setValidationDate(validationDate);
+            validation.setFileSize(file.size());
+            validation.setFileModifiedMillis(file.modifiedMillis());
+            validation.setContentHash(key.contentHash());
+            validation.setSchemaHash(schemaHash);
+            validation.setConfigVersion(configVersion);
+            validation.setPaymentDocRef(paymentFields.docRef());
+            validation.setPayer(paymentFields.payer());
+            newValidations.add(validation);
+        }
+    }
+}
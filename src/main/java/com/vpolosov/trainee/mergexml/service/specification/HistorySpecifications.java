@@ -4,6 +4,8 @@ import com.vpolosov.trainee.mergexml.aspect.Loggable;
 import com.vpolosov.trainee.mergexml.model.History;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.util.Collection;
+
 /**
  * Спецификация {@link History} для запросов Criteria API.
  *
@@ -21,4 +23,15 @@ public class HistorySpecifications {
     public static Specification<History> docRefEquals(String docRef) {
         return (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("docRef"), docRef);
     }
+
+    /**
+     * Формирование условия для поиска по нескольким ref документов.
+     *
+     * @param docRefs ссылки на документы.
+     * @return условие запроса для поиска по любой из ссылок документов.
+     */
+    @Loggable
+    public static Specification<History> docRefIn(Collection<String> docRefs) {
+        return (root, query, criteriaBuilder) -> root.get("docRef").in(docRefs);
+    }
 }
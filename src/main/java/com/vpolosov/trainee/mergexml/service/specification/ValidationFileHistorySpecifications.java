@@ -0,0 +1,129 @@
+package com.vpolosov.trainee.mergexml.service.specification;
+
+import com.vpolosov.trainee.mergexml.aspect.Loggable;
+import com.vpolosov.trainee.mergexml.dtos.ValidationFileHistoryFilter;
+import com.vpolosov.trainee.mergexml.model.ValidationFileHistory;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Спецификация {@link ValidationFileHistory} для запросов Criteria API.
+ *
+ * @author Maksim Litvinenko
+ */
+public class ValidationFileHistorySpecifications {
+
+    /**
+     * Поле даты валидации.
+     */
+    private static final String VALIDATION_DATE = "validationDate";
+
+    /**
+     * Поле id валидации.
+     */
+    private static final String VALIDATION_ID = "validationId";
+
+    /**
+     * Формирование условия для поиска по фильтру истории валидации файлов.
+     * <p>
+     * Незаполненные поля фильтра в условие не попадают.
+     *
+     * @param filter фильтр истории валидации файлов.
+     * @return условие запроса для поиска по всем заполненным полям фильтра.
+     */
+    @Loggable
+    public static Specification<ValidationFileHistory> matches(ValidationFileHistoryFilter filter) {
+        return Specification.where(fileNameEquals(filter.getFileName()))
+            .and(docRefEquals(filter.getDocRef()))
+            .and(isSuccessEquals(filter.getIsSuccess()))
+            .and(validatedFrom(filter.getFrom()))
+            .and(validatedBefore(filter.getTo()));
+    }
+
+    /**
+     * Формирование условия для получения записей, следующих за курсором.
+     * <p>
+     * Записи упорядочены по убыванию даты валидации и id валидации, поэтому следующими
+     * считаются записи с меньшей датой или с той же датой и меньшим id. Такое условие использует индекс
+     * по {@code (validation_date, validation_id)} и не зависит от номера страницы.
+     *
+     * @param validationDate дата валидации последней полученной записи.
+     * @param validationId   id валидации последней полученной записи.
+     * @return условие запроса или {@code null}, если курсор не задан.
+     */
+    @Loggable
+    public static Specification<ValidationFileHistory> after(LocalDateTime validationDate, UUID validationId) {
+        if (validationDate == null || validationId == null) {
+            return null;
+        }
+        return (root, query, criteriaBuilder) -> criteriaBuilder.or(
+            criteriaBuilder.lessThan(root.get(VALIDATION_DATE), validationDate),
+            criteriaBuilder.and(
+                criteriaBuilder.equal(root.get(VALIDATION_DATE), validationDate),
+                criteriaBuilder.lessThan(root.get(VALIDATION_ID), validationId)
+            )
+        );
+    }
+
+    /**
+     * Формирование условия для поиска по имени файла.
+     *
+     * @param fileName имя файла.
+     * @return условие запроса или {@code null}, если имя файла не задано.
+     */
+    private static Specification<ValidationFileHistory> fileNameEquals(String fileName) {
+        return fileName == null
+            ? null
+            : (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("fileName"), fileName);
+    }
+
+    /**
+     * Формирование условия для поиска по ref документа.
+     *
+     * @param docRef ссылка на документ.
+     * @return условие запроса или {@code null}, если ссылка не задана.
+     */
+    private static Specification<ValidationFileHistory> docRefEquals(String docRef) {
+        return docRef == null
+            ? null
+            : (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("docRef"), docRef);
+    }
+
+    /**
+     * Формирование условия для поиска по результату валидации.
+     *
+     * @param isSuccess успех/провал валидации.
+     * @return условие запроса или {@code null}, если результат не задан.
+     */
+    private static Specification<ValidationFileHistory> isSuccessEquals(Boolean isSuccess) {
+        return isSuccess == null
+            ? null
+            : (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("isSuccess"), isSuccess);
+    }
+
+    /**
+     * Формирование условия для поиска записей, провалидированных не раньше указанной даты.
+     *
+     * @param from начало периода включительно.
+     * @return условие запроса или {@code null}, если начало периода не задано.
+     */
+    private static Specification<ValidationFileHistory> validatedFrom(LocalDateTime from) {
+        return from == null
+            ? null
+            : (root, query, criteriaBuilder) -> criteriaBuilder.greaterThanOrEqualTo(root.get(VALIDATION_DATE), from);
+    }
+
+    /**
+     * Формирование условия для поиска записей, провалидированных раньше указанной даты.
+     *
+     * @param to конец периода не включительно.
+     * @return условие запроса или {@code null}, если конец периода не задан.
+     */
+    private static Specification<ValidationFileHistory> validatedBefore(LocalDateTime to) {
+        return to == null
+            ? null
+            : (root, query, criteriaBuilder) -> criteriaBuilder.lessThan(root.get(VALIDATION_DATE), to);
+    }
+}
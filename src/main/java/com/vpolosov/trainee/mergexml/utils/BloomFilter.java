@@ -0,0 +1,274 @@
+package com.vpolosov.trainee.mergexml.utils;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static com.vpolosov.trainee.mergexml.utils.Constant.EMPTY_SIZE;
+import static com.vpolosov.trainee.mergexml.utils.Constant.FIRST_ELEMENT;
+import static com.vpolosov.trainee.mergexml.utils.Constant.NEXT_ELEMENT;
+
+/**
+ * Фильтр Блума для строк.
+ * <p>
+ * Отвечает на вопрос «встречалась ли строка» без хранения самих строк: ответ {@code false} точный,
+ * ответ {@code true} может оказаться ложноположительным с вероятностью, заданной при создании.
+ * Потокобезопасен: биты устанавливаются атомарно.
+ *
+ * @author Maksim Litvinenko
+ */
+public class BloomFilter {
+
+    /**
+     * Количество бит в одном элементе массива.
+     */
+    private static final int BITS_PER_WORD = Long.SIZE;
+
+    /**
+     * Сдвиг для получения номера элемента массива по номеру бита.
+     */
+    private static final int WORD_SHIFT = 6;
+
+    /**
+     * Начальное значение хэша FNV-1a.
+     */
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+    /**
+     * Множитель хэша FNV-1a.
+     */
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * Маска байта.
+     */
+    private static final int BYTE_MASK = 0xff;
+
+    /**
+     * Первый множитель перемешивания хэша.
+     */
+    private static final long MIX_MULTIPLIER_1 = 0xff51afd7ed558ccdL;
+
+    /**
+     * Второй множитель перемешивания хэша.
+     */
+    private static final long MIX_MULTIPLIER_2 = 0xc4ceb9fe1a85ec53L;
+
+    /**
+     * Сдвиг перемешивания хэша.
+     */
+    private static final int MIX_SHIFT = 33;
+
+    /**
+     * Натуральный логарифм двух.
+     */
+    private static final double LN_2 = Math.log(2);
+
+    /**
+     * Младший бит элемента массива.
+     */
+    private static final long LOWEST_BIT = 1L;
+
+    /**
+     * Элемент массива без установленных бит.
+     */
+    private static final long EMPTY_WORD = 0L;
+
+    /**
+     * Биты фильтра.
+     */
+    private final AtomicLongArray bits;
+
+    /**
+     * Количество бит фильтра.
+     */
+    private final long bitSize;
+
+    /**
+     * Количество хэш-функций.
+     */
+    private final int numHashFunctions;
+
+    /**
+     * Количество добавленных строк, включая повторные.
+     */
+    private final AtomicLong insertions;
+
+    /**
+     * Создаёт фильтр под ожидаемое количество строк и допустимую вероятность ложноположительного ответа.
+     *
+     * @param expectedInsertions ожидаемое количество строк.
+     * @param falsePositiveRate  допустимая вероятность ложноположительного ответа.
+     * @throws IllegalArgumentException если параметры вне допустимых значений.
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions < NEXT_ELEMENT
+            || falsePositiveRate <= EMPTY_SIZE
+            || falsePositiveRate >= NEXT_ELEMENT) {
+            throw new IllegalArgumentException(
+                "Invalid bloom filter parameters: %s, %s".formatted(expectedInsertions, falsePositiveRate)
+            );
+        }
+        long optimalBits = (long) Math.ceil(
+            -expectedInsertions * Math.log(falsePositiveRate) / (LN_2 * LN_2)
+        );
+        int words = Math.toIntExact((optimalBits + BITS_PER_WORD - NEXT_ELEMENT) / BITS_PER_WORD);
+        this.bits = new AtomicLongArray(words);
+        this.bitSize = (long) words * BITS_PER_WORD;
+        this.numHashFunctions = Math.max(
+            NEXT_ELEMENT, (int) Math.round((double) bitSize / expectedInsertions * LN_2)
+        );
+        this.insertions = new AtomicLong();
+    }
+
+    /**
+     * Конструктор для восстановления сохранённого фильтра.
+     *
+     * @param bits             биты фильтра.
+     * @param numHashFunctions количество хэш-функций.
+     * @param insertions       количество добавленных строк.
+     */
+    private BloomFilter(AtomicLongArray bits, int numHashFunctions, long insertions) {
+        this.bits = bits;
+        this.bitSize = (long) bits.length() * BITS_PER_WORD;
+        this.numHashFunctions = numHashFunctions;
+        this.insertions = new AtomicLong(insertions);
+    }
+
+    /**
+     * Читает фильтр, сохранённый через {@link #writeTo(OutputStream)}.
+     * <p>
+     * Размер проверяется до выделения памяти под биты, поэтому повреждённый файл не приводит
+     * к выделению произвольного объёма памяти.
+     *
+     * @param inputStream поток с сохранённым фильтром.
+     * @param bitSize     ожидаемое количество бит фильтра.
+     * @return восстановленный фильтр.
+     * @throws IOException если не удалось прочитать фильтр, он повреждён или другого размера.
+     */
+    public static BloomFilter readFrom(InputStream inputStream, long bitSize) throws IOException {
+        var in = new DataInputStream(inputStream);
+        int numHashFunctions = in.readInt();
+        long insertions = in.readLong();
+        int words = in.readInt();
+        if (numHashFunctions < NEXT_ELEMENT || insertions < EMPTY_SIZE || (long) words * BITS_PER_WORD != bitSize) {
+            throw new IOException("Saved bloom filter is damaged or has another size");
+        }
+        var bits = new AtomicLongArray(words);
+        for (int i = FIRST_ELEMENT; i < bits.length(); i++) {
+            bits.set(i, in.readLong());
+        }
+        return new BloomFilter(bits, numHashFunctions, insertions);
+    }
+
+    /**
+     * Добавляет строку в фильтр.
+     *
+     * @param value строка.
+     */
+    public void put(String value) {
+        long hash = hash(value);
+        long hash1 = mix(hash);
+        long hash2 = mix(hash1 ^ hash);
+        for (int i = FIRST_ELEMENT; i < numHashFunctions; i++) {
+            long index = ((hash1 + i * hash2) & Long.MAX_VALUE) % bitSize;
+            int word = (int) (index >>> WORD_SHIFT);
+            long mask = LOWEST_BIT << index;
+            bits.getAndUpdate(word, current -> current | mask);
+        }
+        insertions.incrementAndGet();
+    }
+
+    /**
+     * Проверяет, могла ли строка быть добавлена в фильтр.
+     *
+     * @param value строка.
+     * @return {@code false} если строка точно не добавлялась, {@code true} если могла быть добавлена.
+     */
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        long hash1 = mix(hash);
+        long hash2 = mix(hash1 ^ hash);
+        for (int i = FIRST_ELEMENT; i < numHashFunctions; i++) {
+            long index = ((hash1 + i * hash2) & Long.MAX_VALUE) % bitSize;
+            if ((bits.get((int) (index >>> WORD_SHIFT)) & (LOWEST_BIT << index)) == EMPTY_WORD) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Возвращает количество бит фильтра.
+     *
+     * @return количество бит.
+     */
+    public long bitSize() {
+        return bitSize;
+    }
+
+    /**
+     * Возвращает ожидаемую вероятность ложноположительного ответа при текущем заполнении фильтра.
+     *
+     * @return вероятность ложноположительного ответа.
+     */
+    public double expectedFalsePositiveRate() {
+        return Math.pow(
+            NEXT_ELEMENT - Math.exp(-(double) numHashFunctions * insertions.get() / bitSize),
+            numHashFunctions
+        );
+    }
+
+    /**
+     * Сохраняет фильтр в поток.
+     *
+     * @param outputStream поток для сохранения.
+     * @throws IOException если не удалось записать фильтр.
+     */
+    public void writeTo(OutputStream outputStream) throws IOException {
+        var out = new DataOutputStream(outputStream);
+        out.writeInt(numHashFunctions);
+        out.writeLong(insertions.get());
+        out.writeInt(bits.length());
+        for (int i = FIRST_ELEMENT; i < bits.length(); i++) {
+            out.writeLong(bits.get(i));
+        }
+        out.flush();
+    }
+
+    /**
+     * Вычисляет 64-битный хэш FNV-1a строки в кодировке UTF-8.
+     *
+     * @param value строка.
+     * @return хэш строки.
+     */
+    private static long hash(String value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & BYTE_MASK;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Перемешивает биты хэша для равномерного распределения.
+     *
+     * @param hash хэш.
+     * @return перемешанный хэш.
+     */
+    private static long mix(long hash) {
+        long result = hash;
+        result ^= result >>> MIX_SHIFT;
+        result *= MIX_MULTIPLIER_1;
+        result ^= result >>> MIX_SHIFT;
+        result *= MIX_MULTIPLIER_2;
+        result ^= result >>> MIX_SHIFT;
+        return result;
+    }
+}
@@ -0,0 +1,45 @@
+package com.vpolosov.trainee.mergexml.utils;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Файлы каталога с платёжными документами, полученные за один просмотр каталога.
+ * <p>
+ * Размер и время изменения файлов читаются вместе с содержимым каталога и дальше не перечитываются.
+ *
+ * @author Maksim Litvinenko
+ * @param xml XML файлы платёжных документов.
+ * @param xsd XSD файл схемы.
+ */
+public record DirectorySnapshot(List<ScannedFile> xml, ScannedFile xsd) {
+
+    /**
+     * Возвращает XML файлы платёжных документов.
+     *
+     * @return XML файлы в порядке просмотра каталога.
+     */
+    public List<File> xmlFiles() {
+        return xml.stream().map(ScannedFile::file).toList();
+    }
+
+    /**
+     * Возвращает XSD файл схемы.
+     *
+     * @return XSD файл.
+     */
+    public File xsdFile() {
+        return xsd.file();
+    }
+
+    /**
+     * Файл каталога и его состояние на момент просмотра.
+     *
+     * @author Maksim Litvinenko
+     * @param file           файл.
+     * @param size           размер файла в байтах.
+     * @param modifiedMillis время изменения файла в миллисекундах.
+     */
+    public record ScannedFile(File file, long size, long modifiedMillis) {
+    }
+}
@@ -0,0 +1,129 @@
+package com.vpolosov.trainee.mergexml.utils;
+
+import com.vpolosov.trainee.mergexml.config.ConfigProperties;
+import com.vpolosov.trainee.mergexml.handler.exception.XmlParseException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пул {@link DocumentBuilder}.
+ * <p>
+ * {@link DocumentBuilder} не потокобезопасен, поэтому каждый разбор XML берёт из пула свободный экземпляр
+ * и возвращает его после сброса состояния. Билдеры создаются по мере необходимости, но одновременно
+ * используется не больше {@link ConfigProperties#getDocumentBuilderPoolSize()}, остальные потоки ждут.
+ * Время ожидания и количество занятых билдеров публикуются в метриках.
+ *
+ * @author Maksim Litvinenko
+ */
+@Component
+public class DocumentBuilderPool {
+
+    /**
+     * Имя метрики времени ожидания свободного билдера.
+     */
+    private static final String WAIT_METRIC = "mergexml.document.builder.pool.wait";
+
+    /**
+     * Имя метрики количества занятых билдеров.
+     */
+    private static final String ACTIVE_METRIC = "mergexml.document.builder.pool.active";
+
+    /**
+     * Имя метрики размера пула.
+     */
+    private static final String SIZE_METRIC = "mergexml.document.builder.pool.size";
+
+    /**
+     * Фабрика для создания {@link DocumentBuilder}.
+     */
+    private final DocumentBuilderFactory documentBuilderFactory;
+
+    /**
+     * Свободные билдеры.
+     */
+    private final ConcurrentLinkedQueue<DocumentBuilder> idle = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Разрешения на использование билдера.
+     */
+    private final Semaphore permits;
+
+    /**
+     * Время ожидания свободного билдера.
+     */
+    private final Timer waitTimer;
+
+    /**
+     * Конструктор.
+     *
+     * @param documentBuilderFactory фабрика для создания {@link DocumentBuilder}.
+     * @param configProperties       свойства приложения.
+     * @param meterRegistry          реестр метрик.
+     */
+    public DocumentBuilderPool(DocumentBuilderFactory documentBuilderFactory,
+                               ConfigProperties configProperties,
+                               MeterRegistry meterRegistry) {
+        this.documentBuilderFactory = documentBuilderFactory;
+        int size = configProperties.getDocumentBuilderPoolSize();
+        this.permits = new Semaphore(size, true);
+        this.waitTimer = Timer.builder(WAIT_METRIC)
+            .description("Время ожидания свободного DocumentBuilder")
+            .register(meterRegistry);
+        Gauge.builder(ACTIVE_METRIC, permits, semaphore -> size - semaphore.availablePermits())
+            .description("Количество занятых DocumentBuilder")
+            .register(meterRegistry);
+        Gauge.builder(SIZE_METRIC, () -> size)
+            .description("Максимальное количество DocumentBuilder")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Берёт свободный билдер из пула, при необходимости ожидая его освобождения.
+     * <p>
+     * Полученный билдер обязательно нужно вернуть через {@link #release(DocumentBuilder)}.
+     *
+     * @return билдер для разбора XML.
+     * @throws XmlParseException если ожидание было прервано или билдер не удалось создать.
+     */
+    public DocumentBuilder borrow() {
+        long start = System.nanoTime();
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new XmlParseException("Interrupted while waiting for document builder", e);
+        } finally {
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        var documentBuilder = idle.poll();
+        if (documentBuilder != null) {
+            return documentBuilder;
+        }
+        try {
+            return documentBuilderFactory.newDocumentBuilder();
+        } catch (ParserConfigurationException e) {
+            permits.release();
+            throw new XmlParseException("Unable to create document builder", e);
+        }
+    }
+
+    /**
+     * Сбрасывает состояние билдера и возвращает его в пул.
+     *
+     * @param documentBuilder билдер, полученный через {@link #borrow()}.
+     */
+    public void release(DocumentBuilder documentBuilder) {
+        documentBuilder.reset();
+        idle.offer(documentBuilder);
+        permits.release();
+    }
+}
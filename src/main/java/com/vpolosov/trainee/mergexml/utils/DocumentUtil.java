@@ -6,18 +6,36 @@ import com.vpolosov.trainee.mergexml.handler.exception.XmlTagNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
 
-import javax.xml.parsers.DocumentBuilder;
+import javax.xml.validation.ValidatorHandler;
 import java.io.File;
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
 
 import static com.vpolosov.trainee.mergexml.utils.Constant.EMPTY_SIZE;
 import static com.vpolosov.trainee.mergexml.utils.Constant.FIRST_ELEMENT;
 import static com.vpolosov.trainee.mergexml.utils.Constant.NEXT_ELEMENT;
+import static com.vpolosov.trainee.mergexml.utils.XmlTags.AMOUNT;
+import static com.vpolosov.trainee.mergexml.utils.XmlTags.CODEREV;
+import static com.vpolosov.trainee.mergexml.utils.XmlTags.CURRCODE;
+import static com.vpolosov.trainee.mergexml.utils.XmlTags.DOCREF;
+import static com.vpolosov.trainee.mergexml.utils.XmlTags.DOCUMENTDATE;
+import static com.vpolosov.trainee.mergexml.utils.XmlTags.IP;
+import static com.vpolosov.trainee.mergexml.utils.XmlTags.PAYER;
+import static com.vpolosov.trainee.mergexml.utils.XmlTags.PAYGRNDPARAM;
+import static com.vpolosov.trainee.mergexml.utils.XmlTags.PAYTYPEPARAM;
 
 /**
  * Вспомогательный класс для работы с {@link Document}.
+ * <p>
+ * Потокобезопасен: для каждого разбора берётся свой {@link javax.xml.parsers.DocumentBuilder}
+ * из {@link DocumentBuilderPool} или {@link javax.xml.parsers.SAXParser} из {@link SaxParserPool}.
  *
  * @author Maksim Litvinenko
  */
@@ -26,9 +44,26 @@ import static com.vpolosov.trainee.mergexml.utils.Constant.NEXT_ELEMENT;
 public class DocumentUtil {
 
     /**
-     * Билдер для преобразования файла в XML документ.
+     * Свойство SAX для установки обработчика комментариев и секций CDATA.
      */
-    private final DocumentBuilder documentBuilder;
+    private static final String LEXICAL_HANDLER_PROPERTY = "http://xml.org/sax/properties/lexical-handler";
+
+    /**
+     * Теги, значения которых входят в {@link PaymentFields}.
+     */
+    private static final Set<String> PAYMENT_FIELD_TAGS = Set.of(
+        DOCREF, DOCUMENTDATE, AMOUNT, PAYER, CURRCODE, IP, CODEREV, PAYTYPEPARAM, PAYGRNDPARAM
+    );
+
+    /**
+     * Пул билдеров для преобразования файла в XML документ.
+     */
+    private final DocumentBuilderPool documentBuilderPool;
+
+    /**
+     * Пул парсеров для разбора XML файла с одновременной проверкой по XSD схеме.
+     */
+    private final SaxParserPool saxParserPool;
 
     /**
      * Парсит файл в XML документ.
@@ -39,11 +74,46 @@ public class DocumentUtil {
      */
     @Loggable
     public Document parse(File file) {
+        var documentBuilder = documentBuilderPool.borrow();
         try {
             return documentBuilder.parse(file);
         } catch (SAXException | IOException e) {
             throw new XmlParseException("File not parsing to xml", e);
+        } finally {
+            documentBuilderPool.release(documentBuilder);
+        }
+    }
+
+    /**
+     * Парсит файл в XML документ, одновременно передавая события разбора в {@link ValidatorHandler}.
+     * <p>
+     * Файл читается один раз: события SAX проходят через {@code validatorHandler} и уже из него
+     * попадают в строящийся документ. Ошибка проверки прерывает разбор, не дочитывая файл.
+     *
+     * @param file             XML файл.
+     * @param validatorHandler обработчик проверки по XSD схеме.
+     * @return XML документ.
+     * @throws XmlParseException ошибка преобразования в XML документ.
+     */
+    @Loggable
+    public Document parse(File file, ValidatorHandler validatorHandler) {
+        var systemId = file.toURI().toASCIIString();
+        var document = create();
+        document.setDocumentURI(systemId);
+        var domContentHandler = new DomContentHandler(document, validatorHandler.getTypeInfoProvider());
+        validatorHandler.setContentHandler(domContentHandler);
+        var saxParser = saxParserPool.borrow();
+        try {
+            XMLReader xmlReader = saxParser.getXMLReader();
+            xmlReader.setContentHandler(validatorHandler);
+            xmlReader.setProperty(LEXICAL_HANDLER_PROPERTY, domContentHandler);
+            xmlReader.parse(new InputSource(systemId));
+        } catch (SAXException | IOException e) {
+            throw new XmlParseException("File not parsing to xml", e);
+        } finally {
+            saxParserPool.release(saxParser);
         }
+        return document;
     }
 
     /**
@@ -81,6 +151,43 @@ public class DocumentUtil {
         return nodeList.item(FIRST_ELEMENT).getTextContent();
     }
 
+    /**
+     * Извлекает значения полей платёжного документа за один обход дерева.
+     * <p>
+     * Для каждого тега берётся значение первого элемента в порядке документа,
+     * как и в {@link #getValueByTagName(Document, String)}.
+     *
+     * @param document XML документ.
+     * @return значения полей платёжного документа.
+     * @throws XmlTagNotFoundException когда в XML документе нет одного из тегов.
+     */
+    @Loggable
+    public PaymentFields paymentFields(Document document) {
+        Map<String, String> values = new HashMap<>();
+        Node node = document.getDocumentElement();
+        while (node != null && values.size() < PAYMENT_FIELD_TAGS.size()) {
+            if (node.getNodeType() == Node.ELEMENT_NODE && PAYMENT_FIELD_TAGS.contains(node.getNodeName())) {
+                values.putIfAbsent(node.getNodeName(), node.getTextContent());
+            }
+            node = nextInDocumentOrder(node);
+        }
+        if (values.size() < PAYMENT_FIELD_TAGS.size()) {
+            throw new XmlTagNotFoundException("Xml tag was not found in document");
+        }
+        return new PaymentFields(
+            getFileName(document),
+            values.get(DOCREF),
+            values.get(DOCUMENTDATE),
+            values.get(AMOUNT),
+            values.get(PAYER),
+            values.get(CURRCODE),
+            values.get(IP),
+            values.get(CODEREV),
+            values.get(PAYTYPEPARAM),
+            values.get(PAYGRNDPARAM)
+        );
+    }
+
     /**
      * Возвращает имя файла.
      *
@@ -104,6 +211,28 @@ public class DocumentUtil {
      */
     @Loggable
     public Document create() {
-        return documentBuilder.newDocument();
+        var documentBuilder = documentBuilderPool.borrow();
+        try {
+            return documentBuilder.newDocument();
+        } finally {
+            documentBuilderPool.release(documentBuilder);
+        }
+    }
+
+    /**
+     * Возвращает следующий узел при обходе дерева в порядке документа.
+     *
+     * @param node текущий узел.
+     * @return следующий узел или {@code null}, если обход завершён.
+     */
+    private static Node nextInDocumentOrder(Node node) {
+        if (node.hasChildNodes()) {
+            return node.getFirstChild();
+        }
+        var current = node;
+        while (current != null && current.getNextSibling() == null) {
+            current = current.getParentNode();
+        }
+        return current == null ? null : current.getNextSibling();
     }
 }
@@ -0,0 +1,158 @@
+package com.vpolosov.trainee.mergexml.utils;
+
+import com.vpolosov.trainee.mergexml.aspect.Loggable;
+import com.vpolosov.trainee.mergexml.config.ConfigProperties;
+import com.vpolosov.trainee.mergexml.handler.exception.XmlStreamRuntimeException;
+import org.springframework.stereotype.Component;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.vpolosov.trainee.mergexml.utils.Constant.FIRST_ELEMENT;
+
+/**
+ * Запись XML документа в поток вывода напрямую через {@link XMLStreamWriter}.
+ * <p>
+ * В отличие от тождественного преобразования {@link javax.xml.transform.Transformer} узлы документа
+ * записываются сразу в поток без промежуточного представления. Форматирование результата задаёт
+ * {@link TotalXmlWriter}, тот же, что и при потоковом объединении в {@link XmlStreamUtil}, поэтому оба способа
+ * объединения дают одинаковый результат. Если включено {@link ConfigProperties#getIndentTotal()},
+ * вложенные элементы записываются с новой строки с отступом.
+ *
+ * @author Maksim Litvinenko
+ */
+@Component
+public class DocumentWriter {
+
+    /**
+     * Фабрика для потоковой записи XML файлов.
+     */
+    private final XMLOutputFactory xmlOutputFactory;
+
+    /**
+     * Записывать ли вложенные элементы с отступами.
+     */
+    private final boolean indent;
+
+    /**
+     * Конструктор.
+     *
+     * @param xmlOutputFactory фабрика для потоковой записи XML файлов.
+     * @param configProperties свойства приложения.
+     */
+    public DocumentWriter(XMLOutputFactory xmlOutputFactory, ConfigProperties configProperties) {
+        this.xmlOutputFactory = xmlOutputFactory;
+        this.indent = configProperties.getIndentTotal();
+    }
+
+    /**
+     * Записывает XML документ в поток вывода в кодировке UTF-8.
+     * <p>
+     * Поток вывода не закрывается.
+     *
+     * @param document     XML документ.
+     * @param outputStream куда записывается документ.
+     * @throws XmlStreamRuntimeException если не удалось записать XML.
+     */
+    @Loggable
+    public void write(Document document, OutputStream outputStream) {
+        try {
+            XMLStreamWriter writer = xmlOutputFactory.createXMLStreamWriter(
+                outputStream, StandardCharsets.UTF_8.name()
+            );
+            try {
+                var totalWriter = new TotalXmlWriter(writer, indent);
+                totalWriter.startDocument();
+                writeElement(document.getDocumentElement(), totalWriter);
+                totalWriter.endDocument();
+            } finally {
+                writer.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new XmlStreamRuntimeException(e);
+        }
+    }
+
+    /**
+     * Записывает элемент вместе с дочерними узлами.
+     *
+     * @param element элемент.
+     * @param writer  куда записывается элемент.
+     * @throws XMLStreamException если не удалось записать XML.
+     */
+    private static void writeElement(Element element, TotalXmlWriter writer) throws XMLStreamException {
+        var attributes = attributes(element.getAttributes());
+        if (element.getLocalName() == null) {
+            writer.startElement(
+                XMLConstants.DEFAULT_NS_PREFIX, element.getTagName(), XMLConstants.NULL_NS_URI, attributes
+            );
+        } else {
+            writer.startElement(prefix(element), element.getLocalName(), namespace(element), attributes);
+        }
+        for (var child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            switch (child.getNodeType()) {
+                case Node.ELEMENT_NODE -> writeElement((Element) child, writer);
+                case Node.TEXT_NODE, Node.CDATA_SECTION_NODE -> writer.characters(child.getNodeValue());
+                case Node.COMMENT_NODE -> writer.comment(child.getNodeValue());
+                case Node.PROCESSING_INSTRUCTION_NODE ->
+                    writer.processingInstruction(child.getNodeName(), child.getNodeValue());
+                default -> {
+                    // Остальные узлы не встречаются внутри элементов разобранного документа.
+                }
+            }
+        }
+        writer.endElement();
+    }
+
+    /**
+     * Возвращает атрибуты и объявления пространств имён элемента.
+     *
+     * @param attributes атрибуты элемента.
+     * @return атрибуты для записи.
+     */
+    private static List<TotalXmlWriter.Attribute> attributes(NamedNodeMap attributes) {
+        List<TotalXmlWriter.Attribute> result = new ArrayList<>(attributes.getLength());
+        for (int i = FIRST_ELEMENT; i < attributes.getLength(); i++) {
+            var attribute = (Attr) attributes.item(i);
+            result.add(attribute.getLocalName() == null
+                ? new TotalXmlWriter.Attribute(
+                    XMLConstants.DEFAULT_NS_PREFIX, attribute.getName(), XMLConstants.NULL_NS_URI, attribute.getValue()
+                )
+                : new TotalXmlWriter.Attribute(
+                    prefix(attribute), attribute.getLocalName(), namespace(attribute), attribute.getValue()
+                ));
+        }
+        return result;
+    }
+
+    /**
+     * Возвращает префикс узла.
+     *
+     * @param node элемент или атрибут.
+     * @return префикс или пустая строка, если префикса нет.
+     */
+    private static String prefix(Node node) {
+        return node.getPrefix() == null ? XMLConstants.DEFAULT_NS_PREFIX : node.getPrefix();
+    }
+
+    /**
+     * Возвращает пространство имён узла.
+     *
+     * @param node элемент или атрибут.
+     * @return пространство имён или пустая строка, если узел вне пространства имён.
+     */
+    private static String namespace(Node node) {
+        return node.getNamespaceURI() == null ? XMLConstants.NULL_NS_URI : node.getNamespaceURI();
+    }
+}
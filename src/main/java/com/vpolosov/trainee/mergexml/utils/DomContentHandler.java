@@ -0,0 +1,146 @@
+package com.vpolosov.trainee.mergexml.utils;
+
+import org.w3c.dom.CDATASection;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.Text;
+import org.xml.sax.Attributes;
+import org.xml.sax.ext.DefaultHandler2;
+
+import javax.xml.XMLConstants;
+import javax.xml.validation.TypeInfoProvider;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.vpolosov.trainee.mergexml.utils.Constant.FIRST_ELEMENT;
+
+/**
+ * Строит {@link Document} из событий SAX.
+ * <p>
+ * Используется после {@link javax.xml.validation.ValidatorHandler}, чтобы проверка по XSD схеме и построение
+ * дерева выполнялись за один проход по файлу. Атрибуты, которые не были указаны в файле, а добавлены
+ * схемой как значения по умолчанию, в дерево не попадают.
+ *
+ * @author Maksim Litvinenko
+ */
+class DomContentHandler extends DefaultHandler2 {
+
+    /**
+     * Префикс атрибута объявления пространства имён.
+     */
+    private static final String XMLNS_PREFIX = XMLConstants.XMLNS_ATTRIBUTE + ":";
+
+    /**
+     * Строящийся документ.
+     */
+    private final Document document;
+
+    /**
+     * Источник сведений о том, был ли атрибут указан в файле.
+     */
+    private final TypeInfoProvider typeInfoProvider;
+
+    /**
+     * Пространства имён, объявленные для следующего элемента.
+     */
+    private final Map<String, String> pendingNamespaces = new LinkedHashMap<>();
+
+    /**
+     * Узел, в который добавляются новые дочерние узлы.
+     */
+    private Node current;
+
+    /**
+     * Признак нахождения внутри секции CDATA.
+     */
+    private boolean inCdata;
+
+    /**
+     * Конструктор.
+     *
+     * @param document         пустой документ, который будет заполнен.
+     * @param typeInfoProvider источник сведений об атрибутах от {@link javax.xml.validation.ValidatorHandler}.
+     */
+    DomContentHandler(Document document, TypeInfoProvider typeInfoProvider) {
+        this.document = document;
+        this.typeInfoProvider = typeInfoProvider;
+        this.current = document;
+    }
+
+    @Override
+    public void startPrefixMapping(String prefix, String uri) {
+        pendingNamespaces.put(prefix, uri);
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) {
+        Element element = document.createElementNS(namespace(uri), qName);
+        pendingNamespaces.forEach((prefix, namespaceUri) -> element.setAttributeNS(
+            XMLConstants.XMLNS_ATTRIBUTE_NS_URI,
+            prefix.isEmpty() ? XMLConstants.XMLNS_ATTRIBUTE : XMLNS_PREFIX + prefix,
+            namespaceUri
+        ));
+        pendingNamespaces.clear();
+        for (int i = FIRST_ELEMENT; i < attributes.getLength(); i++) {
+            if (typeInfoProvider.isSpecified(i)) {
+                element.setAttributeNS(namespace(attributes.getURI(i)), attributes.getQName(i), attributes.getValue(i));
+            }
+        }
+        current.appendChild(element);
+        current = element;
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) {
+        current = current.getParentNode();
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) {
+        var data = new String(ch, start, length);
+        if (inCdata) {
+            ((CDATASection) current.getLastChild()).appendData(data);
+        } else if (current.getLastChild() instanceof Text text && text.getNodeType() == Node.TEXT_NODE) {
+            text.appendData(data);
+        } else {
+            current.appendChild(document.createTextNode(data));
+        }
+    }
+
+    @Override
+    public void ignorableWhitespace(char[] ch, int start, int length) {
+        characters(ch, start, length);
+    }
+
+    @Override
+    public void processingInstruction(String target, String data) {
+        current.appendChild(document.createProcessingInstruction(target, data));
+    }
+
+    @Override
+    public void comment(char[] ch, int start, int length) {
+        current.appendChild(document.createComment(new String(ch, start, length)));
+    }
+
+    @Override
+    public void startCDATA() {
+        current.appendChild(document.createCDATASection(""));
+        inCdata = true;
+    }
+
+    @Override
+    public void endCDATA() {
+        inCdata = false;
+    }
+
+    /**
+     * Возвращает пространство имён в виде, принятом в DOM.
+     *
+     * @param uri пространство имён из события SAX.
+     * @return пространство имён или {@code null}, если оно не задано.
+     */
+    private static String namespace(String uri) {
+        return uri == null || uri.isEmpty() ? null : uri;
+    }
+}
@@ -11,13 +11,18 @@ import org.springframework.stereotype.Component;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.time.Clock;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Stream;
 
 import static com.vpolosov.trainee.mergexml.utils.Constant.FIRST_ELEMENT;
@@ -48,6 +53,16 @@ public class FileUtil {
      */
     private static final int XSD_FILES_COUNT = 1;
 
+    /**
+     * Приставка номера части файла.
+     */
+    private static final String PART_SUFFIX = ".part-";
+
+    /**
+     * Глубина просмотра каталога: только файлы самого каталога.
+     */
+    private static final int DIRECTORY_DEPTH = 1;
+
     /**
      * Возвращает список XML файлов.
      *
@@ -90,6 +105,77 @@ public class FileUtil {
         }
     }
 
+    /**
+     * Возвращает XML и XSD файлы каталога вместе с их размером и временем изменения.
+     * <p>
+     * Каталог просматривается один раз, атрибуты файлов читаются при просмотре.
+     *
+     * @param location     путь до директории с XML и XSD файлами.
+     * @param minCountFile минимальное количество XML файлов.
+     * @param maxCountFile максимальное количество XML файлов.
+     * @return файлы каталога.
+     * @throws NotExactlyTenFilesException   если количество XML файлов не входит в допустимые границы.
+     * @throws NotExactlyOneXsdFileException если количество XSD файлов в директории не равно 1.
+     * @throws RuntimeException              если при просмотре каталога возникает ошибка ввода-вывода.
+     */
+    @Loggable
+    public DirectorySnapshot snapshot(String location, int minCountFile, int maxCountFile) {
+        List<DirectorySnapshot.ScannedFile> xml = new ArrayList<>();
+        List<DirectorySnapshot.ScannedFile> xsd = new ArrayList<>();
+        try {
+            var options = Set.of(FileVisitOption.FOLLOW_LINKS);
+            Files.walkFileTree(Path.of(location), options, DIRECTORY_DEPTH, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                    if (attributes.isDirectory()) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                    var name = file.getFileName().toString();
+                    var scanned = new DirectorySnapshot.ScannedFile(
+                        file.toFile(), attributes.size(), attributes.lastModifiedTime().toMillis()
+                    );
+                    if (name.endsWith(XML_EXTENSION)) {
+                        xml.add(scanned);
+                    } else if (name.endsWith(XSD_EXTENSION)) {
+                        xsd.add(scanned);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        if (xml.size() < minCountFile || xml.size() > maxCountFile) {
+            throw new NotExactlyTenFilesException(
+                "There are more than %s xml files, or the files are missing".formatted(maxCountFile)
+            );
+        }
+        if (xsd.size() != XSD_FILES_COUNT) {
+            throw new NotExactlyOneXsdFileException("There are not exactly 1 xsd files");
+        }
+        return new DirectorySnapshot(List.copyOf(xml), xsd.get(FIRST_ELEMENT));
+    }
+
+    /**
+     * Возвращает подкаталоги каталога.
+     *
+     * @param location путь до родительского каталога.
+     * @return пути подкаталогов, отсортированные по имени.
+     * @throws RuntimeException если при открытии каталога возникает ошибка ввода-вывода.
+     */
+    @Loggable
+    public List<String> listDirectories(String location) {
+        try (var pathStream = Files.list(Path.of(location))) {
+            return pathStream
+                .filter(Files::isDirectory)
+                .sorted()
+                .map(Path::toString)
+                .toList();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     /**
      * Возвращает список файлов указанного расширения и размера.
      *
@@ -138,17 +224,38 @@ public class FileUtil {
         }
     }
 
+    /**
+     * Возвращает имя части файла.
+     *
+     * @param fileName имя файла.
+     * @param part     номер части, начиная с 1.
+     * @return имя файла с номером части перед расширением или в конце, если расширения нет.
+     */
+    public String partFileName(String fileName, int part) {
+        var pointIndex = fileName.lastIndexOf('.');
+        if (pointIndex < FIRST_ELEMENT) {
+            return fileName + PART_SUFFIX + part;
+        }
+        return fileName.substring(FIRST_ELEMENT, pointIndex)
+            + PART_SUFFIX + part
+            + fileName.substring(pointIndex);
+    }
+
     /**
      * Возвращает имя файла с указанием времени.
      *
      * @param fileName  имя файла.
      * @param clock     часы для установки времени.
      * @param formatter формат времени.
-     * @return имя результирующего файла с меткой времени создания.
+     * @return имя результирующего файла с меткой времени создания перед расширением
+     *     или в конце, если расширения нет.
      */
     public String fileNameWithTime(String fileName, Clock clock, DateTimeFormatter formatter) {
         var timestampz = "{%s}".formatted(LocalDateTime.now(clock).format(formatter));
         var pointIndex = fileName.indexOf('.');
+        if (pointIndex < FIRST_ELEMENT) {
+            return fileName + timestampz;
+        }
         return fileName.substring(FIRST_ELEMENT, pointIndex)
             + timestampz
             + fileName.substring(pointIndex);
@@ -0,0 +1,48 @@
+package com.vpolosov.trainee.mergexml.utils;
+
+import lombok.experimental.UtilityClass;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Вспомогательный класс для вычисления хэшей содержимого файлов и строк.
+ *
+ * @author Maksim Litvinenko
+ */
+@UtilityClass
+public class HashUtil {
+
+    /**
+     * Алгоритм хэширования.
+     */
+    private static final String HASH_ALGORITHM = "SHA-256";
+
+    /**
+     * Вычисляет хэш содержимого.
+     *
+     * @param content содержимое.
+     * @return SHA-256 хэш в шестнадцатеричном виде.
+     * @throws IllegalStateException если алгоритм хэширования недоступен.
+     */
+    public static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance(HASH_ALGORITHM).digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Вычисляет хэш строки в кодировке UTF-8.
+     *
+     * @param value строка.
+     * @return SHA-256 хэш в шестнадцатеричном виде.
+     * @throws IllegalStateException если алгоритм хэширования недоступен.
+     */
+    public static String sha256(String value) {
+        return sha256(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
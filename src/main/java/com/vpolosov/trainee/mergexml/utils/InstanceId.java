@@ -0,0 +1,68 @@
+package com.vpolosov.trainee.mergexml.utils;
+
+import com.vpolosov.trainee.mergexml.config.ConfigProperties;
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Идентификатор запущенного экземпляра приложения.
+ * <p>
+ * Экземпляр называется {@link ConfigProperties#getInstanceId()}, а если имя не задано, именем хоста.
+ * Несколько экземпляров, работающих с одной базой, должны называться по-разному. Запуски одного
+ * экземпляра различаются временем запуска: оно округляется до миллисекунд, чтобы совпадать
+ * с сохранённым в базе значением.
+ *
+ * @author Maksim Litvinenko
+ */
+@Getter
+@Component
+public class InstanceId {
+
+    /**
+     * Префикс имени экземпляра, если имя хоста определить не удалось.
+     */
+    private static final String PID_PREFIX = "pid-";
+
+    /**
+     * Имя экземпляра.
+     */
+    private final String name;
+
+    /**
+     * Время запуска экземпляра.
+     */
+    private final LocalDateTime startedDate;
+
+    /**
+     * Конструктор.
+     *
+     * @param configProperties свойства приложения.
+     * @param clock            часы для корректировки времени.
+     */
+    public InstanceId(ConfigProperties configProperties, Clock clock) {
+        this.name = configProperties.getInstanceId() == null ? hostName() : configProperties.getInstanceId();
+        this.startedDate = LocalDateTime.now(clock).truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    /**
+     * Возвращает имя хоста.
+     * <p>
+     * Если имя хоста определить не удалось, возвращается имя по id процесса: оно не совпадёт с именем
+     * другого экземпляра, но и следующий запуск этого экземпляра не узнает свои прерванные задачи.
+     *
+     * @return имя хоста.
+     */
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return PID_PREFIX + ProcessHandle.current().pid();
+        }
+    }
+}
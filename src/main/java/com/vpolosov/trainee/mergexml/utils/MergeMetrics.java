@@ -0,0 +1,188 @@
+package com.vpolosov.trainee.mergexml.utils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Метрики длительности этапов объединения и отдельных валидаторов.
+ * <p>
+ * Каждый вызов записывается в таймер с тегами этапа или валидатора, результата и типа исключения,
+ * поэтому количество вызовов и их распределение по длительности видны отдельно для успешных и неудачных
+ * вызовов. Таймеры создаются при первом вызове с новым набором тегов и далее берутся из кэша.
+ *
+ * @author Maksim Litvinenko
+ */
+@Component
+public class MergeMetrics {
+
+    /**
+     * Имя метрики длительности этапа.
+     */
+    static final String STAGE_METRIC = "mergexml.merge.stage";
+
+    /**
+     * Имя метрики длительности валидатора.
+     */
+    static final String VALIDATOR_METRIC = "mergexml.merge.validator";
+
+    /**
+     * Тег этапа.
+     */
+    private static final String STAGE_TAG = "stage";
+
+    /**
+     * Тег валидатора.
+     */
+    private static final String VALIDATOR_TAG = "validator";
+
+    /**
+     * Тег результата.
+     */
+    private static final String OUTCOME_TAG = "outcome";
+
+    /**
+     * Тег типа исключения.
+     */
+    private static final String EXCEPTION_TAG = "exception";
+
+    /**
+     * Результат вызова, завершившегося без исключения.
+     */
+    private static final String SUCCESS = "success";
+
+    /**
+     * Результат вызова, завершившегося исключением.
+     */
+    private static final String FAILURE = "failure";
+
+    /**
+     * Результат валидатора, отклонившего документ без исключения.
+     */
+    private static final String INVALID = "invalid";
+
+    /**
+     * Значение тега исключения, если исключения не было.
+     */
+    private static final String NO_EXCEPTION = "none";
+
+    /**
+     * Реестр метрик.
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Созданные таймеры по набору тегов.
+     */
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    /**
+     * Конструктор.
+     *
+     * @param meterRegistry реестр метрик.
+     */
+    public MergeMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Выполняет этап и записывает его длительность, в том числе если этап завершился исключением.
+     *
+     * @param stage  этап.
+     * @param action действие этапа.
+     * @param <T>    тип результата этапа.
+     * @return результат этапа.
+     */
+    public <T> T time(PipelineStage stage, Supplier<T> action) {
+        long start = System.nanoTime();
+        try {
+            var result = action.get();
+            record(new TimerKey(STAGE_METRIC, STAGE_TAG, stage.tag(), SUCCESS, NO_EXCEPTION), start);
+            return result;
+        } catch (RuntimeException | Error e) {
+            record(new TimerKey(STAGE_METRIC, STAGE_TAG, stage.tag(), FAILURE, e.getClass().getSimpleName()), start);
+            throw e;
+        }
+    }
+
+    /**
+     * Выполняет этап без результата и записывает его длительность, в том числе если этап завершился исключением.
+     *
+     * @param stage  этап.
+     * @param action действие этапа.
+     */
+    public void time(PipelineStage stage, Runnable action) {
+        time(stage, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Выполняет проверку валидатора и записывает её длительность и результат.
+     *
+     * @param validator имя валидатора.
+     * @param check     проверка.
+     * @return результат проверки.
+     */
+    public boolean test(String validator, BooleanSupplier check) {
+        long start = System.nanoTime();
+        try {
+            boolean valid = check.getAsBoolean();
+            record(new TimerKey(VALIDATOR_METRIC, VALIDATOR_TAG, validator, valid ? SUCCESS : INVALID, NO_EXCEPTION),
+                start);
+            return valid;
+        } catch (RuntimeException | Error e) {
+            record(new TimerKey(VALIDATOR_METRIC, VALIDATOR_TAG, validator, FAILURE, e.getClass().getSimpleName()),
+                start);
+            throw e;
+        }
+    }
+
+    /**
+     * Записывает длительность вызова в таймер с указанными тегами.
+     *
+     * @param key   имя и теги таймера.
+     * @param start время начала вызова по {@link System#nanoTime()}.
+     */
+    private void record(TimerKey key, long start) {
+        long duration = System.nanoTime() - start;
+        timers.computeIfAbsent(key, this::register).record(duration, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Регистрирует таймер в реестре метрик.
+     *
+     * @param key имя и теги таймера.
+     * @return таймер.
+     */
+    private Timer register(TimerKey key) {
+        return Timer.builder(key.metric())
+            .description(STAGE_METRIC.equals(key.metric())
+                ? "Длительность этапа объединения"
+                : "Длительность проверки документа валидатором")
+            .tag(key.nameTag(), key.name())
+            .tag(OUTCOME_TAG, key.outcome())
+            .tag(EXCEPTION_TAG, key.exception())
+            .register(meterRegistry);
+    }
+
+    /**
+     * Имя и теги таймера.
+     *
+     * @author Maksim Litvinenko
+     * @param metric    имя метрики.
+     * @param nameTag   тег этапа или валидатора.
+     * @param name      имя этапа или валидатора.
+     * @param outcome   результат вызова.
+     * @param exception тип исключения.
+     */
+    private record TimerKey(String metric, String nameTag, String name, String outcome, String exception) {
+    }
+}
@@ -0,0 +1,47 @@
+package com.vpolosov.trainee.mergexml.utils;
+
+/**
+ * Значения полей платёжного документа, которые используются при проверке.
+ * <p>
+ * Извлекаются из {@link org.w3c.dom.Document} один раз за один обход дерева
+ * через {@link DocumentUtil#paymentFields(org.w3c.dom.Document)}.
+ *
+ * @author Maksim Litvinenko
+ * @param fileName     имя файла документа.
+ * @param docRef       ref документа.
+ * @param documentDate дата создания документа.
+ * @param amount       сумма платежа.
+ * @param payer        плательщик.
+ * @param currCode     код валюты.
+ * @param ip           IP адрес.
+ * @param codeRev      код программ доходов бюджетов.
+ * @param payTypeParam тип платежа.
+ * @param payGrndParam основание платежа.
+ */
+public record PaymentFields(
+    String fileName,
+    String docRef,
+    String documentDate,
+    String amount,
+    String payer,
+    String currCode,
+    String ip,
+    String codeRev,
+    String payTypeParam,
+    String payGrndParam
+) {
+
+    /**
+     * Создаёт поля ранее проверенного документа, для которого известны только имя файла, ref и плательщик.
+     * <p>
+     * Этого достаточно для проверки по истории платежей и определения плательщика каталога.
+     *
+     * @param fileName имя файла документа.
+     * @param docRef   ref документа.
+     * @param payer    плательщик.
+     * @return поля документа.
+     */
+    public static PaymentFields cached(String fileName, String docRef, String payer) {
+        return new PaymentFields(fileName, docRef, null, null, payer, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,68 @@
+package com.vpolosov.trainee.mergexml.utils;
+
+import java.util.Locale;
+
+/**
+ * Этап обработки каталога, длительность которого публикуется в метриках {@link MergeMetrics}.
+ * <p>
+ * В отличие от крупных этапов объединения, сохраняемых в задаче, этапы измеряются на каждом вызове:
+ * например, разбор измеряется для каждого файла.
+ *
+ * @author Maksim Litvinenko
+ */
+public enum PipelineStage {
+
+    /**
+     * Просмотр каталога.
+     */
+    LISTING,
+
+    /**
+     * Получение скомпилированной XSD схемы.
+     */
+    SCHEMA,
+
+    /**
+     * Разбор XML файла с одновременной проверкой по XSD схеме.
+     */
+    PARSE,
+
+    /**
+     * Проверка полей документа всеми валидаторами.
+     */
+    VALIDATION,
+
+    /**
+     * Поиск документов каталога в истории платежей.
+     */
+    DUPLICATE_LOOKUP,
+
+    /**
+     * Добавление документа в общий документ.
+     */
+    AGGREGATION,
+
+    /**
+     * Запись итогового файла или его части.
+     */
+    SERIALIZATION,
+
+    /**
+     * Сохранение истории объединённых платежей.
+     */
+    HISTORY;
+
+    /**
+     * Значение тега метрики.
+     */
+    private final String tag = name().toLowerCase(Locale.ROOT);
+
+    /**
+     * Возвращает значение тега метрики.
+     *
+     * @return имя этапа в нижнем регистре.
+     */
+    public String tag() {
+        return tag;
+    }
+}
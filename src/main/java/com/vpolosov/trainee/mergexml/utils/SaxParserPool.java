@@ -0,0 +1,131 @@
+package com.vpolosov.trainee.mergexml.utils;
+
+import com.vpolosov.trainee.mergexml.config.ConfigProperties;
+import com.vpolosov.trainee.mergexml.handler.exception.XmlParseException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пул {@link SAXParser}.
+ * <p>
+ * Создание {@link SAXParser} заново загружает конфигурацию парсера, а сам парсер не потокобезопасен,
+ * поэтому каждый разбор XML берёт из пула свободный экземпляр и возвращает его после сброса состояния.
+ * Парсеры создаются по мере необходимости, но одновременно используется не больше
+ * {@link ConfigProperties#getSaxParserPoolSize()}, остальные потоки ждут.
+ * Время ожидания и количество занятых парсеров публикуются в метриках.
+ *
+ * @author Maksim Litvinenko
+ */
+@Component
+public class SaxParserPool {
+
+    /**
+     * Имя метрики времени ожидания свободного парсера.
+     */
+    private static final String WAIT_METRIC = "mergexml.sax.parser.pool.wait";
+
+    /**
+     * Имя метрики количества занятых парсеров.
+     */
+    private static final String ACTIVE_METRIC = "mergexml.sax.parser.pool.active";
+
+    /**
+     * Имя метрики размера пула.
+     */
+    private static final String SIZE_METRIC = "mergexml.sax.parser.pool.size";
+
+    /**
+     * Фабрика для создания {@link SAXParser}.
+     */
+    private final SAXParserFactory saxParserFactory;
+
+    /**
+     * Свободные парсеры.
+     */
+    private final ConcurrentLinkedQueue<SAXParser> idle = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Разрешения на использование парсера.
+     */
+    private final Semaphore permits;
+
+    /**
+     * Время ожидания свободного парсера.
+     */
+    private final Timer waitTimer;
+
+    /**
+     * Конструктор.
+     *
+     * @param saxParserFactory фабрика для создания {@link SAXParser}.
+     * @param configProperties свойства приложения.
+     * @param meterRegistry    реестр метрик.
+     */
+    public SaxParserPool(SAXParserFactory saxParserFactory,
+                         ConfigProperties configProperties,
+                         MeterRegistry meterRegistry) {
+        this.saxParserFactory = saxParserFactory;
+        int size = configProperties.getSaxParserPoolSize();
+        this.permits = new Semaphore(size, true);
+        this.waitTimer = Timer.builder(WAIT_METRIC)
+            .description("Время ожидания свободного SAXParser")
+            .register(meterRegistry);
+        Gauge.builder(ACTIVE_METRIC, permits, semaphore -> size - semaphore.availablePermits())
+            .description("Количество занятых SAXParser")
+            .register(meterRegistry);
+        Gauge.builder(SIZE_METRIC, () -> size)
+            .description("Максимальное количество SAXParser")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Берёт свободный парсер из пула, при необходимости ожидая его освобождения.
+     * <p>
+     * Полученный парсер обязательно нужно вернуть через {@link #release(SAXParser)}.
+     *
+     * @return парсер для разбора XML.
+     * @throws XmlParseException если ожидание было прервано или парсер не удалось создать.
+     */
+    public SAXParser borrow() {
+        long start = System.nanoTime();
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new XmlParseException("Interrupted while waiting for sax parser", e);
+        } finally {
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        var saxParser = idle.poll();
+        if (saxParser != null) {
+            return saxParser;
+        }
+        try {
+            return saxParserFactory.newSAXParser();
+        } catch (ParserConfigurationException | SAXException e) {
+            permits.release();
+            throw new XmlParseException("Unable to create sax parser", e);
+        }
+    }
+
+    /**
+     * Сбрасывает состояние парсера, в том числе установленные обработчики, и возвращает его в пул.
+     *
+     * @param saxParser парсер, полученный через {@link #borrow()}.
+     */
+    public void release(SAXParser saxParser) {
+        saxParser.reset();
+        idle.offer(saxParser);
+        permits.release();
+    }
+}
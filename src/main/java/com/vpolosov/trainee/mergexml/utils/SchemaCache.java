@@ -0,0 +1,159 @@
+package com.vpolosov.trainee.mergexml.utils;
+
+import com.vpolosov.trainee.mergexml.config.ConfigProperties;
+import com.vpolosov.trainee.mergexml.handler.exception.InvalidSchemaException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.xml.sax.SAXException;
+
+import javax.xml.XMLConstants;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Кэш скомпилированных XSD схем.
+ * <p>
+ * Ключом служит SHA-256 содержимого XSD файла, поэтому одна и та же схема из разных директорий
+ * компилируется один раз. {@link Schema} потокобезопасна и может использоваться несколькими запросами
+ * одновременно. При превышении {@link ConfigProperties#getSchemaCacheSize()} вытесняется схема,
+ * которая дольше всех не использовалась.
+ *
+ * @author Maksim Litvinenko
+ */
+@Component
+public class SchemaCache {
+
+    /**
+     * Начальная ёмкость кэша.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Коэффициент заполнения кэша.
+     */
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /**
+     * Имя метрики обращений к кэшу.
+     */
+    private static final String REQUESTS_METRIC = "mergexml.schema.cache.requests";
+
+    /**
+     * Имя метрики количества схем в кэше.
+     */
+    private static final String SIZE_METRIC = "mergexml.schema.cache.size";
+
+    /**
+     * Скомпилированные схемы по хэшу содержимого XSD файла в порядке последнего использования.
+     */
+    private final Map<String, Schema> schemas;
+
+    /**
+     * Количество попаданий в кэш.
+     */
+    private final Counter hits;
+
+    /**
+     * Количество промахов кэша.
+     */
+    private final Counter misses;
+
+    /**
+     * Конструктор.
+     *
+     * @param configProperties свойства приложения.
+     * @param meterRegistry    реестр метрик.
+     */
+    public SchemaCache(ConfigProperties configProperties, MeterRegistry meterRegistry) {
+        int maxSize = configProperties.getSchemaCacheSize();
+        this.schemas = new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Schema> eldest) {
+                return size() > maxSize;
+            }
+        };
+        this.hits = Counter.builder(REQUESTS_METRIC)
+            .description("Обращения к кэшу XSD схем")
+            .tag("result", "hit")
+            .register(meterRegistry);
+        this.misses = Counter.builder(REQUESTS_METRIC)
+            .description("Обращения к кэшу XSD схем")
+            .tag("result", "miss")
+            .register(meterRegistry);
+        Gauge.builder(SIZE_METRIC, this, SchemaCache::size)
+            .description("Количество скомпилированных XSD схем в кэше")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Возвращает скомпилированную схему XSD файла, компилируя её только при первом обращении.
+     *
+     * @param xsdFile схема XSD файла.
+     * @return скомпилированная схема для проверки XML файлов.
+     * @throws InvalidSchemaException когда не удалось создать схему по XSD файлу.
+     * @throws RuntimeException       если не удалось прочитать XSD файл.
+     */
+    public Schema get(File xsdFile) {
+        byte[] content;
+        try {
+            content = Files.readAllBytes(xsdFile.toPath());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        var key = HashUtil.sha256(content);
+        Schema schema;
+        synchronized (schemas) {
+            schema = schemas.get(key);
+        }
+        if (schema != null) {
+            hits.increment();
+            return schema;
+        }
+        misses.increment();
+        schema = compile(xsdFile, content);
+        synchronized (schemas) {
+            var cached = schemas.putIfAbsent(key, schema);
+            return cached == null ? schema : cached;
+        }
+    }
+
+    /**
+     * Возвращает количество схем в кэше.
+     *
+     * @return количество схем в кэше.
+     */
+    public int size() {
+        synchronized (schemas) {
+            return schemas.size();
+        }
+    }
+
+    /**
+     * Компилирует схему из содержимого XSD файла.
+     * <p>
+     * Путь к файлу передаётся как system id, чтобы относительные {@code include} и {@code import} разрешались.
+     *
+     * @param xsdFile XSD файл.
+     * @param content содержимое XSD файла.
+     * @return скомпилированная схема.
+     * @throws InvalidSchemaException когда не удалось создать схему по XSD файлу.
+     */
+    private static Schema compile(File xsdFile, byte[] content) {
+        SchemaFactory factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+        var source = new StreamSource(new ByteArrayInputStream(content), xsdFile.toURI().toString());
+        try {
+            return factory.newSchema(source);
+        } catch (SAXException e) {
+            throw new InvalidSchemaException(e);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.vpolosov.trainee.mergexml.utils;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Поток вывода, который считает записанные байты и прерывает запись при превышении лимита.
+ * <p>
+ * Запись, после которой размер превысил бы лимит, не выполняется и завершается {@link IOException}.
+ * Библиотеки записи XML оборачивают это исключение в свои, поэтому причину ошибки следует проверять
+ * через {@link #isLimitExceeded()}.
+ *
+ * @author Maksim Litvinenko
+ */
+public class SizeLimitedOutputStream extends FilterOutputStream {
+
+    /**
+     * Наибольшее допустимое количество байт.
+     */
+    private final long limit;
+
+    /**
+     * Количество записанных байт.
+     */
+    private long count;
+
+    /**
+     * Признак того, что запись была прервана из-за превышения лимита.
+     */
+    private boolean limitExceeded;
+
+    /**
+     * Конструктор.
+     *
+     * @param out   поток, в который записываются байты.
+     * @param limit наибольшее допустимое количество байт.
+     */
+    public SizeLimitedOutputStream(OutputStream out, long limit) {
+        super(out);
+        this.limit = limit;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IOException если размер превысил бы лимит или запись не удалась.
+     */
+    @Override
+    public void write(int b) throws IOException {
+        reserve(Constant.NEXT_ELEMENT);
+        out.write(b);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IOException если размер превысил бы лимит или запись не удалась.
+     */
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        reserve(len);
+        out.write(b, off, len);
+    }
+
+    /**
+     * Возвращает количество записанных байт.
+     *
+     * @return количество записанных байт.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Проверяет, была ли запись прервана из-за превышения лимита.
+     *
+     * @return {@code true} если запись была прервана из-за превышения лимита.
+     */
+    public boolean isLimitExceeded() {
+        return limitExceeded;
+    }
+
+    /**
+     * Учитывает байты, которые будут записаны.
+     *
+     * @param length количество байт.
+     * @throws IOException если размер превысил бы лимит.
+     */
+    private void reserve(int length) throws IOException {
+        if (count + length > limit) {
+            limitExceeded = true;
+            throw new IOException("Size limit of %d bytes exceeded".formatted(limit));
+        }
+        count += length;
+    }
+}
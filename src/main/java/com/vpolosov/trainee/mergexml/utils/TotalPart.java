@@ -0,0 +1,13 @@
+package com.vpolosov.trainee.mergexml.utils;
+
+/**
+ * Часть результирующего файла при разбиении объединения по размеру.
+ * <p>
+ * Каждая часть является отдельным {@code BSMessage} со своими атрибутами.
+ *
+ * @author Maksim Litvinenko
+ * @param number номер части, начиная с единицы.
+ * @param last   является ли часть последней.
+ */
+public record TotalPart(int number, boolean last) {
+}
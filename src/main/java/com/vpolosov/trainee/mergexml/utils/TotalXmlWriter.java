@@ -0,0 +1,548 @@
+package com.vpolosov.trainee.mergexml.utils;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+
+import static com.vpolosov.trainee.mergexml.utils.Constant.EMPTY_SIZE;
+import static com.vpolosov.trainee.mergexml.utils.Constant.NEXT_ELEMENT;
+
+/**
+ * Запись результирующего XML файла через {@link XMLStreamWriter} по единым правилам форматирования.
+ * <p>
+ * Через этот класс пишут и {@link DocumentWriter}, и {@link XmlStreamUtil}, поэтому объединение через DOM
+ * и потоковое объединение одних и тех же файлов дают побайтно одинаковый результат:
+ * <ul>
+ *     <li>атрибуты и объявления пространств имён записываются в порядке их полного имени;</li>
+ *     <li>пробельный текст между вложенными элементами не записывается, а значения элементов без вложенных
+ *     элементов записываются как есть, даже если состоят только из пробельных символов;</li>
+ *     <li>элемент без содержимого записывается закрытым тегом;</li>
+ *     <li>секции CDATA записываются как текст, а соседние фрагменты текста объединяются;</li>
+ *     <li>узлы вне корневого элемента не записываются;</li>
+ *     <li>если включены отступы, вложенные элементы записываются с новой строки с отступом.</li>
+ * </ul>
+ * Начальный тег элемента записывается, только когда известно, есть ли у элемента вложенные элементы,
+ * поэтому до этого момента в памяти хранится содержимое только одного элемента.
+ * <p>
+ * Дочерние узлы элемента можно записать отдельно от самого элемента, см. {@link #startChildren(int)}:
+ * записанные байты совпадают с теми, что были бы записаны внутри элемента.
+ *
+ * @author Maksim Litvinenko
+ */
+final class TotalXmlWriter {
+
+    /**
+     * Версия XML результирующего файла.
+     */
+    private static final String XML_VERSION = "1.0";
+
+    /**
+     * Отступ одного уровня вложенности.
+     */
+    private static final String INDENT = "    ";
+
+    /**
+     * Перевод строки перед отступом.
+     */
+    private static final String LINE_SEPARATOR = "\n";
+
+    /**
+     * Разделитель префикса и локального имени.
+     */
+    private static final String PREFIX_SEPARATOR = ":";
+
+    /**
+     * Пустой текст, запись которого завершает начатый тег.
+     */
+    private static final String EMPTY_TEXT = "";
+
+    /**
+     * Куда записывается XML.
+     */
+    private final XMLStreamWriter writer;
+
+    /**
+     * Записывать ли вложенные элементы с отступами.
+     */
+    private final boolean indent;
+
+    /**
+     * Открытые элементы, начиная с самого вложенного.
+     */
+    private final Deque<OpenElement> open = new ArrayDeque<>();
+
+    /**
+     * Содержимое самого вложенного открытого элемента, начальный тег которого ещё не записан.
+     */
+    private final List<Content> pending = new ArrayList<>();
+
+    /**
+     * Текущий фрагмент текста.
+     */
+    private final StringBuilder text = new StringBuilder();
+
+    /**
+     * Уровень вложенности элемента, дочерние узлы которого записываются отдельно, иначе ноль.
+     */
+    private int baseDepth;
+
+    /**
+     * Конструктор.
+     *
+     * @param writer куда записывается XML.
+     * @param indent записывать ли вложенные элементы с отступами.
+     */
+    TotalXmlWriter(XMLStreamWriter writer, boolean indent) {
+        this.writer = writer;
+        this.indent = indent;
+    }
+
+    /**
+     * Записывает объявление XML.
+     *
+     * @throws XMLStreamException если не удалось записать XML.
+     */
+    void startDocument() throws XMLStreamException {
+        writer.writeStartDocument(StandardCharsets.UTF_8.name(), XML_VERSION);
+    }
+
+    /**
+     * Открывает элемент.
+     *
+     * @param prefix       префикс или пустая строка.
+     * @param localName    локальное имя.
+     * @param namespaceURI пространство имён или пустая строка.
+     * @param attributes   атрибуты и объявления пространств имён элемента в любом порядке.
+     * @throws XMLStreamException если не удалось записать XML.
+     */
+    void startElement(String prefix, String localName, String namespaceURI, List<Attribute> attributes)
+        throws XMLStreamException {
+        flushText();
+        var parent = open.peek();
+        if (parent != null && !parent.started) {
+            writeStart(parent);
+        }
+        writeIndent(depth());
+        open.push(new OpenElement(prefix, localName, namespaceURI, attributes));
+    }
+
+    /**
+     * Записывает открытый элемент как элемент с вложенными элементами, даже если их не окажется.
+     *
+     * @throws XMLStreamException если не удалось записать XML.
+     */
+    void nested() throws XMLStreamException {
+        flushText();
+        var element = open.element();
+        if (!element.started) {
+            writeStart(element);
+        }
+    }
+
+    /**
+     * Начинает запись дочерних узлов элемента, начальный тег которого записывается в другом месте.
+     * <p>
+     * Элемент считается элементом с вложенными элементами, как после {@link #nested()}.
+     *
+     * @param depth уровень вложенности дочерних узлов, см. {@link #depth()}.
+     */
+    void startChildren(int depth) {
+        baseDepth = depth - NEXT_ELEMENT;
+        var element = new OpenElement(
+            XMLConstants.DEFAULT_NS_PREFIX, XMLConstants.DEFAULT_NS_PREFIX, XMLConstants.NULL_NS_URI, List.of()
+        );
+        element.started = true;
+        open.push(element);
+    }
+
+    /**
+     * Завершает запись дочерних узлов, начатую {@link #startChildren(int)}, и сбрасывает записанное
+     * в поток вывода.
+     *
+     * @throws XMLStreamException если не удалось записать XML.
+     */
+    void endChildren() throws XMLStreamException {
+        flushText();
+        open.pop();
+        flush();
+    }
+
+    /**
+     * Возвращает уровень вложенности узлов, которые будут записаны следующими.
+     *
+     * @return количество открытых элементов, включая элемент, дочерние узлы которого записываются отдельно.
+     */
+    int depth() {
+        return baseDepth + open.size();
+    }
+
+    /**
+     * Дописывает начатый тег и сбрасывает записанное в поток вывода, не меняя результат.
+     *
+     * @throws XMLStreamException если не удалось записать XML.
+     */
+    void flush() throws XMLStreamException {
+        writer.writeCharacters(EMPTY_TEXT);
+        writer.flush();
+    }
+
+    /**
+     * Добавляет текст, в том числе содержимое секции CDATA.
+     *
+     * @param data текст.
+     */
+    void characters(String data) {
+        if (!open.isEmpty()) {
+            text.append(data);
+        }
+    }
+
+    /**
+     * Записывает комментарий.
+     *
+     * @param data текст комментария.
+     * @throws XMLStreamException если не удалось записать XML.
+     */
+    void comment(String data) throws XMLStreamException {
+        write(new Content(ContentType.COMMENT, null, data));
+    }
+
+    /**
+     * Записывает инструкцию обработки.
+     *
+     * @param target цель инструкции.
+     * @param data   данные инструкции.
+     * @throws XMLStreamException если не удалось записать XML.
+     */
+    void processingInstruction(String target, String data) throws XMLStreamException {
+        write(new Content(ContentType.PROCESSING_INSTRUCTION, target, data));
+    }
+
+    /**
+     * Закрывает самый вложенный открытый элемент.
+     *
+     * @throws XMLStreamException если не удалось записать XML.
+     */
+    void endElement() throws XMLStreamException {
+        flushText();
+        var element = open.pop();
+        if (element.started) {
+            writeIndent(depth());
+            writer.writeEndElement();
+            return;
+        }
+        if (pending.stream().allMatch(Content::isEmptyText)) {
+            pending.clear();
+            element.writeEmpty(writer);
+            writeAttributes(element.attributes);
+            return;
+        }
+        element.writeStart(writer);
+        writeAttributes(element.attributes);
+        writePending(false);
+        writer.writeEndElement();
+    }
+
+    /**
+     * Завершает документ и сбрасывает записанное в поток вывода.
+     *
+     * @throws XMLStreamException если не удалось записать XML.
+     */
+    void endDocument() throws XMLStreamException {
+        writer.writeEndDocument();
+        writer.flush();
+    }
+
+    /**
+     * Записывает узел, который не является текстом или элементом.
+     *
+     * @param content узел.
+     * @throws XMLStreamException если не удалось записать XML.
+     */
+    private void write(Content content) throws XMLStreamException {
+        if (open.isEmpty()) {
+            return;
+        }
+        flushText();
+        if (open.element().started) {
+            content.write(writer);
+        } else {
+            pending.add(content);
+        }
+    }
+
+    /**
+     * Передаёт накопленный фрагмент текста в открытый элемент.
+     * <p>
+     * Если начальный тег элемента уже записан, у элемента есть вложенные элементы,
+     * поэтому пробельный текст не записывается.
+     *
+     * @throws XMLStreamException если не удалось записать XML.
+     */
+    private void flushText() throws XMLStreamException {
+        if (text.isEmpty()) {
+            return;
+        }
+        var content = new Content(ContentType.TEXT, null, text.toString());
+        text.setLength(EMPTY_SIZE);
+        if (!open.element().started) {
+            pending.add(content);
+        } else if (!content.isBlankText()) {
+            content.write(writer);
+        }
+    }
+
+    /**
+     * Записывает начальный тег элемента с вложенными элементами и накопленное содержимое элемента.
+     *
+     * @param element элемент.
+     * @throws XMLStreamException если не удалось записать XML.
+     */
+    private void writeStart(OpenElement element) throws XMLStreamException {
+        element.writeStart(writer);
+        writeAttributes(element.attributes);
+        writePending(true);
+        element.started = true;
+    }
+
+    /**
+     * Записывает накопленное содержимое элемента.
+     *
+     * @param nested есть ли у элемента вложенные элементы: тогда пробельный текст не записывается.
+     * @throws XMLStreamException если не удалось записать XML.
+     */
+    private void writePending(boolean nested) throws XMLStreamException {
+        for (var content : pending) {
+            if (!nested || !content.isBlankText()) {
+                content.write(writer);
+            }
+        }
+        pending.clear();
+    }
+
+    /**
+     * Записывает атрибуты и объявления пространств имён в порядке их полного имени.
+     *
+     * @param attributes атрибуты элемента.
+     * @throws XMLStreamException если не удалось записать XML.
+     */
+    private void writeAttributes(List<Attribute> attributes) throws XMLStreamException {
+        var sorted = attributes.stream().sorted(Comparator.comparing(Attribute::qualifiedName)).toList();
+        for (var attribute : sorted) {
+            attribute.write(writer);
+        }
+    }
+
+    /**
+     * Записывает перевод строки и отступ перед тегом, если включены отступы.
+     *
+     * @param depth уровень вложенности тега.
+     * @throws XMLStreamException если не удалось записать XML.
+     */
+    private void writeIndent(int depth) throws XMLStreamException {
+        if (indent) {
+            writer.writeCharacters(LINE_SEPARATOR);
+            writer.writeCharacters(INDENT.repeat(depth));
+        }
+    }
+
+    /**
+     * Атрибут или объявление пространства имён.
+     * <p>
+     * Объявление пространства имён по умолчанию имеет локальное имя {@code xmlns} без префикса,
+     * объявление префикса имеет префикс {@code xmlns}; пространство имён у обоих
+     * {@link XMLConstants#XMLNS_ATTRIBUTE_NS_URI}.
+     *
+     * @author Maksim Litvinenko
+     * @param prefix       префикс или пустая строка.
+     * @param localName    локальное имя.
+     * @param namespaceURI пространство имён или пустая строка.
+     * @param value        значение.
+     */
+    record Attribute(String prefix, String localName, String namespaceURI, String value) {
+
+        /**
+         * Создаёт объявление пространства имён.
+         *
+         * @param prefix       объявляемый префикс или пустая строка для пространства имён по умолчанию.
+         * @param namespaceURI пространство имён.
+         * @return объявление пространства имён.
+         */
+        static Attribute namespace(String prefix, String namespaceURI) {
+            return prefix.isEmpty()
+                ? new Attribute(
+                    XMLConstants.DEFAULT_NS_PREFIX, XMLConstants.XMLNS_ATTRIBUTE,
+                    XMLConstants.XMLNS_ATTRIBUTE_NS_URI, namespaceURI
+                )
+                : new Attribute(
+                    XMLConstants.XMLNS_ATTRIBUTE, prefix, XMLConstants.XMLNS_ATTRIBUTE_NS_URI, namespaceURI
+                );
+        }
+
+        /**
+         * Возвращает полное имя атрибута.
+         *
+         * @return имя с префиксом, если он есть.
+         */
+        String qualifiedName() {
+            return prefix.isEmpty() ? localName : prefix + PREFIX_SEPARATOR + localName;
+        }
+
+        /**
+         * Записывает атрибут.
+         *
+         * @param writer куда записывается атрибут.
+         * @throws XMLStreamException если не удалось записать XML.
+         */
+        private void write(XMLStreamWriter writer) throws XMLStreamException {
+            if (!XMLConstants.XMLNS_ATTRIBUTE_NS_URI.equals(namespaceURI)) {
+                if (namespaceURI.isEmpty()) {
+                    writer.writeAttribute(localName, value);
+                } else {
+                    writer.writeAttribute(prefix, namespaceURI, localName, value);
+                }
+            } else if (prefix.isEmpty()) {
+                writer.writeDefaultNamespace(value);
+            } else {
+                writer.writeNamespace(localName, value);
+            }
+        }
+    }
+
+    /**
+     * Вид узла содержимого элемента.
+     *
+     * @author Maksim Litvinenko
+     */
+    private enum ContentType {
+        /**
+         * Текст.
+         */
+        TEXT,
+        /**
+         * Комментарий.
+         */
+        COMMENT,
+        /**
+         * Инструкция обработки.
+         */
+        PROCESSING_INSTRUCTION
+    }
+
+    /**
+     * Узел содержимого элемента, запись которого отложена до записи начального тега элемента.
+     *
+     * @author Maksim Litvinenko
+     * @param type   вид узла.
+     * @param target цель инструкции обработки, для остальных узлов {@code null}.
+     * @param data   текст узла.
+     */
+    private record Content(ContentType type, String target, String data) {
+
+        /**
+         * Проверяет, что узел является текстом нулевой длины.
+         *
+         * @return {@code true} если узел пустой текст.
+         */
+        boolean isEmptyText() {
+            return type == ContentType.TEXT && data.isEmpty();
+        }
+
+        /**
+         * Проверяет, что узел является пробельным текстом.
+         *
+         * @return {@code true} если узел текст из пробельных символов.
+         */
+        boolean isBlankText() {
+            return type == ContentType.TEXT && data.isBlank();
+        }
+
+        /**
+         * Записывает узел.
+         *
+         * @param writer куда записывается узел.
+         * @throws XMLStreamException если не удалось записать XML.
+         */
+        void write(XMLStreamWriter writer) throws XMLStreamException {
+            switch (type) {
+                case TEXT -> writer.writeCharacters(data);
+                case COMMENT -> writer.writeComment(data);
+                case PROCESSING_INSTRUCTION -> writer.writeProcessingInstruction(target, data);
+            }
+        }
+    }
+
+    /**
+     * Открытый элемент.
+     *
+     * @author Maksim Litvinenko
+     */
+    private static final class OpenElement {
+
+        /**
+         * Префикс или пустая строка.
+         */
+        private final String prefix;
+
+        /**
+         * Локальное имя.
+         */
+        private final String localName;
+
+        /**
+         * Пространство имён или пустая строка.
+         */
+        private final String namespaceURI;
+
+        /**
+         * Атрибуты и объявления пространств имён.
+         */
+        private final List<Attribute> attributes;
+
+        /**
+         * Записан ли начальный тег элемента с вложенными элементами.
+         */
+        private boolean started;
+
+        /**
+         * Конструктор.
+         *
+         * @param prefix       префикс или пустая строка.
+         * @param localName    локальное имя.
+         * @param namespaceURI пространство имён или пустая строка.
+         * @param attributes   атрибуты и объявления пространств имён.
+         */
+        OpenElement(String prefix, String localName, String namespaceURI, List<Attribute> attributes) {
+            this.prefix = prefix;
+            this.localName = localName;
+            this.namespaceURI = namespaceURI;
+            this.attributes = attributes;
+        }
+
+        /**
+         * Записывает начальный тег без атрибутов.
+         *
+         * @param writer куда записывается тег.
+         * @throws XMLStreamException если не удалось записать XML.
+         */
+        void writeStart(XMLStreamWriter writer) throws XMLStreamException {
+            writer.writeStartElement(prefix, localName, namespaceURI);
+        }
+
+        /**
+         * Записывает закрытый тег без атрибутов.
+         *
+         * @param writer куда записывается тег.
+         * @throws XMLStreamException если не удалось записать XML.
+         */
+        void writeEmpty(XMLStreamWriter writer) throws XMLStreamException {
+            writer.writeEmptyElement(prefix, localName, namespaceURI);
+        }
+    }
+}
@@ -0,0 +1,584 @@
+package com.vpolosov.trainee.mergexml.utils;
+
+import com.vpolosov.trainee.mergexml.aspect.Loggable;
+import com.vpolosov.trainee.mergexml.config.ConfigProperties;
+import com.vpolosov.trainee.mergexml.handler.exception.XmlStreamRuntimeException;
+import org.springframework.stereotype.Component;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.stream.events.Comment;
+import javax.xml.stream.events.ProcessingInstruction;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static com.vpolosov.trainee.mergexml.utils.Constant.EMPTY_SIZE;
+import static com.vpolosov.trainee.mergexml.utils.Constant.FIRST_ELEMENT;
+import static com.vpolosov.trainee.mergexml.utils.Constant.NEXT_ELEMENT;
+import static com.vpolosov.trainee.mergexml.utils.XmlTags.BS_HEAD;
+import static com.vpolosov.trainee.mergexml.utils.XmlTags.BS_MESSAGE;
+import static com.vpolosov.trainee.mergexml.utils.XmlTags.DOCREF;
+import static com.vpolosov.trainee.mergexml.utils.XmlTags.DOCUMENT;
+import static com.vpolosov.trainee.mergexml.utils.XmlTags.DOCUMENTDATE;
+import static com.vpolosov.trainee.mergexml.utils.XmlTags.DOCUMENTS;
+
+/**
+ * Вспомогательный класс для потокового объединения XML файлов через StAX.
+ * <p>
+ * В памяти не хранится ни один документ целиком: структура результирующего файла копируется из первого файла,
+ * в его {@code BSHead} записываются элементы заголовков всех файлов, а в {@code DOCUMENTS} их платежи.
+ * Результат форматируется {@link TotalXmlWriter}, как и при записи объединённого документа
+ * в {@link DocumentWriter}, поэтому совпадает с результатом объединения через DOM побайтно.
+ *
+ * @author Maksim Litvinenko
+ */
+@Component
+public class XmlStreamUtil {
+
+    /**
+     * Фабрика для потокового чтения XML файлов.
+     */
+    private final XMLInputFactory xmlInputFactory;
+
+    /**
+     * Фабрика для потоковой записи XML файлов.
+     */
+    private final XMLOutputFactory xmlOutputFactory;
+
+    /**
+     * Записывать ли вложенные элементы с отступами.
+     */
+    private final boolean indent;
+
+    /**
+     * Конструктор.
+     *
+     * @param xmlInputFactory  фабрика для потокового чтения XML файлов.
+     * @param xmlOutputFactory фабрика для потоковой записи XML файлов.
+     * @param configProperties свойства приложения.
+     */
+    public XmlStreamUtil(XMLInputFactory xmlInputFactory, XMLOutputFactory xmlOutputFactory,
+                         ConfigProperties configProperties) {
+        this.xmlInputFactory = xmlInputFactory;
+        this.xmlOutputFactory = xmlOutputFactory;
+        this.indent = configProperties.getIndentTotal();
+    }
+
+    /**
+     * Объединяет XML файлы в поток вывода.
+     * <p>
+     * Поток вывода не закрывается.
+     *
+     * @param xmlFiles       XML файлы платёжных документов, первый файл задаёт структуру результата.
+     * @param outputStream   куда записывается результат.
+     * @param rootAttributes новые значения атрибутов элемента {@code BSMessage}.
+     * @return ref документов и даты их создания в порядке записи.
+     * @throws XmlStreamRuntimeException если не удалось прочитать или записать XML.
+     */
+    @Loggable
+    public Map<String, String> merge(List<File> xmlFiles, OutputStream outputStream,
+                                     Map<String, String> rootAttributes) {
+        var docRefs = new DocRefCollector();
+        write(xmlFiles.get(FIRST_ELEMENT), rootAttributes, outputStream, (tagName, writer) -> {
+            for (var file : xmlFiles) {
+                copyChildren(file, tagName, writer, DOCUMENTS.equals(tagName) ? docRefs : null);
+            }
+        });
+        return docRefs.result();
+    }
+
+    /**
+     * Потоково разбивает объединение XML файлов на части, размер каждой из которых не больше {@code maxBytes}.
+     * <p>
+     * Файлы распределяются по частям жадно в исходном порядке, и каждый файл читается один раз: его заголовки
+     * и платежи записываются отдельно от части, и по их размеру проверяется, помещается ли файл в текущую часть.
+     * Если не помещается, текущая часть передаётся на запись и начинается следующая. Так как в части
+     * {@code BSHead} идёт раньше {@code DOCUMENTS}, часть записывается, только когда известны все её файлы,
+     * поэтому в памяти хранится не больше одной части. Структура части записывается по первому файлу
+     * один раз на часть.
+     *
+     * @param xmlFiles       XML файлы платёжных документов, первый файл задаёт структуру каждой части.
+     * @param maxBytes       наибольший размер части в байтах.
+     * @param rootAttributes значения атрибутов элемента {@code BSMessage} для очередной части.
+     * @param partWriter     запись части: получает часть и запись её содержимого в поток вывода, который
+     *                       не закрывается; часть из одного файла может быть больше {@code maxBytes},
+     *                       если этот файл не помещается ни в одну часть.
+     * @return ref документов и даты их создания в порядке записи.
+     * @throws XmlStreamRuntimeException если не удалось прочитать XML или записать часть.
+     */
+    @Loggable
+    public Map<String, String> split(List<File> xmlFiles, long maxBytes, Supplier<Map<String, String>> rootAttributes,
+                                     BiConsumer<TotalPart, Consumer<OutputStream>> partWriter) {
+        var template = xmlFiles.get(FIRST_ELEMENT);
+        var docRefs = new DocRefCollector();
+        int number = NEXT_ELEMENT;
+        var skeleton = skeleton(template, rootAttributes.get());
+        List<Fragments> partFiles = new ArrayList<>();
+        long size = skeleton.bytes().length;
+        for (var file : xmlFiles) {
+            var fragments = fragments(file, skeleton.slots(), docRefs);
+            if (!partFiles.isEmpty() && size + fragments.size() > maxBytes) {
+                writePart(new TotalPart(number++, false), skeleton, partFiles, partWriter);
+                skeleton = skeleton(template, rootAttributes.get());
+                partFiles = new ArrayList<>();
+                size = skeleton.bytes().length;
+            }
+            partFiles.add(fragments);
+            size += fragments.size();
+        }
+        writePart(new TotalPart(number, true), skeleton, partFiles, partWriter);
+        return docRefs.result();
+    }
+
+    /**
+     * Записывает {@code BSMessage} со структурой файла {@code template}, содержимое {@code BSHead}
+     * и {@code DOCUMENTS} которого записывает {@code content}.
+     *
+     * @param template       XML файл, задающий структуру результата.
+     * @param rootAttributes новые значения атрибутов элемента {@code BSMessage}.
+     * @param outputStream   куда записывается результат.
+     * @param content        запись дочерних узлов {@code BSHead} и {@code DOCUMENTS}.
+     * @throws XmlStreamRuntimeException если не удалось прочитать или записать XML.
+     */
+    private void write(File template, Map<String, String> rootAttributes, OutputStream outputStream,
+                       ContainerContent content) {
+        try (var inputStream = new BufferedInputStream(Files.newInputStream(template.toPath()))) {
+            XMLStreamWriter streamWriter = xmlOutputFactory.createXMLStreamWriter(
+                outputStream, StandardCharsets.UTF_8.name()
+            );
+            XMLEventReader reader = xmlInputFactory.createXMLEventReader(inputStream);
+            try {
+                var writer = new TotalXmlWriter(streamWriter, indent);
+                while (reader.hasNext()) {
+                    var event = reader.nextEvent();
+                    if (isStartElement(event, BS_MESSAGE)) {
+                        startElement(event.asStartElement(), rootAttributes, writer);
+                    } else if (isStartElement(event, BS_HEAD) || isStartElement(event, DOCUMENTS)) {
+                        startElement(event.asStartElement(), Map.of(), writer);
+                        writer.nested();
+                        content.write(event.asStartElement().getName().getLocalPart(), writer);
+                        skipChildren(reader);
+                        writer.endElement();
+                    } else {
+                        add(event, writer);
+                    }
+                }
+            } finally {
+                reader.close();
+                streamWriter.close();
+            }
+        } catch (XMLStreamException | IOException e) {
+            throw new XmlStreamRuntimeException(e);
+        }
+    }
+
+    /**
+     * Записывает структуру части без заголовков и платежей и запоминает, куда их нужно вставить.
+     *
+     * @param template       XML файл, задающий структуру части.
+     * @param rootAttributes значения атрибутов элемента {@code BSMessage} части.
+     * @return структура части.
+     * @throws XmlStreamRuntimeException если не удалось прочитать XML.
+     */
+    private Skeleton skeleton(File template, Map<String, String> rootAttributes) {
+        var outputStream = new ByteArrayOutputStream();
+        List<Slot> slots = new ArrayList<>();
+        write(template, rootAttributes, outputStream, (tagName, writer) -> {
+            writer.flush();
+            slots.add(new Slot(tagName, outputStream.size(), writer.depth()));
+        });
+        return new Skeleton(outputStream.toByteArray(), List.copyOf(slots));
+    }
+
+    /**
+     * Читает XML файл один раз и записывает дочерние узлы его элементов для каждого места вставки.
+     *
+     * @param file    XML файл.
+     * @param slots   места вставки в структуре части.
+     * @param docRefs сборщик ref документов из {@code DOCUMENTS}.
+     * @return записанные дочерние узлы в порядке мест вставки.
+     * @throws XmlStreamRuntimeException если не удалось прочитать XML.
+     */
+    private Fragments fragments(File file, List<Slot> slots, DocRefCollector docRefs) {
+        Map<String, byte[]> byTag = new HashMap<>();
+        try (var inputStream = new BufferedInputStream(Files.newInputStream(file.toPath()))) {
+            XMLEventReader reader = xmlInputFactory.createXMLEventReader(inputStream);
+            try {
+                while (reader.hasNext() && byTag.size() < slots.size()) {
+                    var event = reader.nextEvent();
+                    var slot = event.isStartElement() ? slot(slots, event.asStartElement()) : null;
+                    if (slot != null && !byTag.containsKey(slot.tagName())) {
+                        byTag.put(slot.tagName(), children(reader, slot, DOCUMENTS.equals(slot.tagName())
+                            ? docRefs
+                            : null));
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException | IOException e) {
+            throw new XmlStreamRuntimeException(e);
+        }
+        List<byte[]> bytes = slots.stream()
+            .map(slot -> byTag.getOrDefault(slot.tagName(), new byte[EMPTY_SIZE]))
+            .toList();
+        return new Fragments(bytes, bytes.stream().mapToLong(fragment -> fragment.length).sum());
+    }
+
+    /**
+     * Записывает дочерние узлы текущего элемента так, как они будут записаны в месте вставки.
+     *
+     * @param reader  чтение XML, остановленное на начале элемента.
+     * @param slot    место вставки.
+     * @param docRefs сборщик ref документов, {@code null} если собирать не нужно.
+     * @return записанные дочерние узлы.
+     * @throws XMLStreamException если не удалось прочитать или записать XML.
+     */
+    private byte[] children(XMLEventReader reader, Slot slot, DocRefCollector docRefs) throws XMLStreamException {
+        var outputStream = new ByteArrayOutputStream();
+        XMLStreamWriter streamWriter = xmlOutputFactory.createXMLStreamWriter(
+            outputStream, StandardCharsets.UTF_8.name()
+        );
+        try {
+            var writer = new TotalXmlWriter(streamWriter, indent);
+            writer.startChildren(slot.depth());
+            copyChildren(reader, writer, docRefs);
+            writer.endChildren();
+        } finally {
+            streamWriter.close();
+        }
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Передаёт часть на запись: вставляет в её структуру заголовки и платежи её файлов.
+     *
+     * @param part       часть.
+     * @param skeleton   структура части.
+     * @param partFiles  записанные дочерние узлы файлов части.
+     * @param partWriter запись части.
+     * @throws XmlStreamRuntimeException если не удалось записать часть.
+     */
+    private static void writePart(TotalPart part, Skeleton skeleton, List<Fragments> partFiles,
+                                  BiConsumer<TotalPart, Consumer<OutputStream>> partWriter) {
+        partWriter.accept(part, outputStream -> {
+            try {
+                var bytes = skeleton.bytes();
+                int from = FIRST_ELEMENT;
+                for (int i = FIRST_ELEMENT; i < skeleton.slots().size(); i++) {
+                    int offset = skeleton.slots().get(i).offset();
+                    outputStream.write(bytes, from, offset - from);
+                    for (var fragments : partFiles) {
+                        outputStream.write(fragments.bytes().get(i));
+                    }
+                    from = offset;
+                }
+                outputStream.write(bytes, from, bytes.length - from);
+            } catch (IOException e) {
+                throw new XmlStreamRuntimeException(e);
+            }
+        });
+    }
+
+    /**
+     * Ищет место вставки для дочерних узлов элемента.
+     *
+     * @param slots   места вставки.
+     * @param element начало элемента.
+     * @return место вставки или {@code null}, если дочерние узлы элемента не вставляются.
+     */
+    private static Slot slot(List<Slot> slots, StartElement element) {
+        var tagName = element.getName().getLocalPart();
+        return slots.stream().filter(slot -> slot.tagName().equals(tagName)).findFirst().orElse(null);
+    }
+
+    /**
+     * Пропускает дочерние узлы текущего элемента.
+     *
+     * @param reader чтение XML, остановленное на начале элемента.
+     * @throws XMLStreamException если не удалось прочитать XML.
+     */
+    private static void skipChildren(XMLEventReader reader) throws XMLStreamException {
+        int depth = EMPTY_SIZE;
+        while (true) {
+            var event = reader.nextEvent();
+            if (event.isStartElement()) {
+                depth++;
+            } else if (event.isEndElement()) {
+                if (depth == EMPTY_SIZE) {
+                    return;
+                }
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * Копирует дочерние узлы первого найденного элемента из XML файла.
+     *
+     * @param file     XML файл.
+     * @param tagName  имя элемента, дочерние узлы которого копируются.
+     * @param writer   куда копируются узлы.
+     * @param docRefs  сборщик ref документов, {@code null} если собирать не нужно.
+     * @throws XMLStreamException если не удалось прочитать или записать XML.
+     * @throws IOException        если не удалось открыть файл.
+     */
+    private void copyChildren(File file, String tagName, TotalXmlWriter writer, DocRefCollector docRefs)
+        throws XMLStreamException, IOException {
+        try (var inputStream = new BufferedInputStream(Files.newInputStream(file.toPath()))) {
+            XMLEventReader reader = xmlInputFactory.createXMLEventReader(inputStream);
+            try {
+                var found = false;
+                while (!found && reader.hasNext()) {
+                    found = isStartElement(reader.nextEvent(), tagName);
+                }
+                if (found) {
+                    copyChildren(reader, writer, docRefs);
+                }
+            } finally {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * Копирует дочерние узлы текущего элемента.
+     *
+     * @param reader  чтение XML, остановленное на начале элемента; после копирования остановлено на его конце.
+     * @param writer  куда копируются узлы.
+     * @param docRefs сборщик ref документов, {@code null} если собирать не нужно.
+     * @throws XMLStreamException если не удалось прочитать или записать XML.
+     */
+    private static void copyChildren(XMLEventReader reader, TotalXmlWriter writer, DocRefCollector docRefs)
+        throws XMLStreamException {
+        int depth = EMPTY_SIZE;
+        while (reader.hasNext()) {
+            var event = reader.nextEvent();
+            if (event.isStartElement()) {
+                depth++;
+            } else if (event.isEndElement()) {
+                if (depth == EMPTY_SIZE) {
+                    return;
+                }
+                depth--;
+            }
+            if (docRefs != null) {
+                docRefs.accept(event);
+            }
+            add(event, writer);
+        }
+    }
+
+    /**
+     * Передаёт событие XML в запись результата.
+     * <p>
+     * Объявление DTD и ссылки на сущности не записываются, как и при записи объединённого документа.
+     *
+     * @param event  событие XML.
+     * @param writer куда записывается событие.
+     * @throws XMLStreamException если не удалось записать XML.
+     */
+    private static void add(XMLEvent event, TotalXmlWriter writer) throws XMLStreamException {
+        switch (event.getEventType()) {
+            case XMLStreamConstants.START_DOCUMENT -> writer.startDocument();
+            case XMLStreamConstants.END_DOCUMENT -> writer.endDocument();
+            case XMLStreamConstants.START_ELEMENT -> startElement(event.asStartElement(), Map.of(), writer);
+            case XMLStreamConstants.END_ELEMENT -> writer.endElement();
+            case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA, XMLStreamConstants.SPACE ->
+                writer.characters(event.asCharacters().getData());
+            case XMLStreamConstants.COMMENT -> writer.comment(((Comment) event).getText());
+            case XMLStreamConstants.PROCESSING_INSTRUCTION -> {
+                var instruction = (ProcessingInstruction) event;
+                writer.processingInstruction(instruction.getTarget(), instruction.getData());
+            }
+            default -> {
+                // Остальные события не записываются.
+            }
+        }
+    }
+
+    /**
+     * Открывает элемент с заменёнными значениями атрибутов.
+     *
+     * @param element    исходный элемент.
+     * @param attributes новые значения атрибутов по их имени: недостающие атрибуты добавляются,
+     *                   остальные атрибуты не меняются.
+     * @param writer     куда записывается элемент.
+     * @throws XMLStreamException если не удалось записать XML.
+     */
+    private static void startElement(StartElement element, Map<String, String> attributes, TotalXmlWriter writer)
+        throws XMLStreamException {
+        List<TotalXmlWriter.Attribute> result = new ArrayList<>();
+        element.getNamespaces().forEachRemaining(namespace -> result.add(
+            TotalXmlWriter.Attribute.namespace(namespace.getPrefix(), namespace.getNamespaceURI())
+        ));
+        Map<String, String> missing = new LinkedHashMap<>(attributes);
+        element.getAttributes().forEachRemaining(attribute -> {
+            var name = attribute.getName();
+            var value = missing.remove(name.getLocalPart());
+            result.add(new TotalXmlWriter.Attribute(
+                name.getPrefix(), name.getLocalPart(), name.getNamespaceURI(),
+                value == null ? attribute.getValue() : value
+            ));
+        });
+        missing.forEach((name, value) -> result.add(new TotalXmlWriter.Attribute(
+            XMLConstants.DEFAULT_NS_PREFIX, name, XMLConstants.NULL_NS_URI, value
+        )));
+        var name = element.getName();
+        writer.startElement(name.getPrefix(), name.getLocalPart(), name.getNamespaceURI(), result);
+    }
+
+    /**
+     * Проверяет, что событие является началом элемента с указанным именем.
+     *
+     * @param event   событие XML.
+     * @param tagName имя элемента.
+     * @return {@code true} если событие начало элемента {@code tagName}.
+     */
+    private static boolean isStartElement(XMLEvent event, String tagName) {
+        return event.isStartElement() && tagName.equals(event.asStartElement().getName().getLocalPart());
+    }
+
+    /**
+     * Проверяет, что событие является концом элемента с указанным именем.
+     *
+     * @param event   событие XML.
+     * @param tagName имя элемента.
+     * @return {@code true} если событие конец элемента {@code tagName}.
+     */
+    private static boolean isEndElement(XMLEvent event, String tagName) {
+        return event.isEndElement() && tagName.equals(event.asEndElement().getName().getLocalPart());
+    }
+
+    /**
+     * Запись дочерних узлов {@code BSHead} и {@code DOCUMENTS} результата.
+     *
+     * @author Maksim Litvinenko
+     */
+    @FunctionalInterface
+    private interface ContainerContent {
+
+        /**
+         * Записывает дочерние узлы элемента, начальный тег которого уже записан.
+         *
+         * @param tagName имя элемента.
+         * @param writer  куда записываются узлы.
+         * @throws XMLStreamException если не удалось прочитать или записать XML.
+         * @throws IOException        если не удалось открыть файл.
+         */
+        void write(String tagName, TotalXmlWriter writer) throws XMLStreamException, IOException;
+    }
+
+    /**
+     * Структура части без заголовков и платежей.
+     *
+     * @author Maksim Litvinenko
+     * @param bytes записанная структура.
+     * @param slots места вставки дочерних узлов в порядке записи.
+     */
+    private record Skeleton(byte[] bytes, List<Slot> slots) {
+    }
+
+    /**
+     * Место вставки дочерних узлов элемента в структуру части.
+     *
+     * @author Maksim Litvinenko
+     * @param tagName имя элемента.
+     * @param offset  смещение в байтах сразу после начального тега элемента.
+     * @param depth   уровень вложенности дочерних узлов элемента.
+     */
+    private record Slot(String tagName, int offset, int depth) {
+    }
+
+    /**
+     * Записанные дочерние узлы элементов одного XML файла.
+     *
+     * @author Maksim Litvinenko
+     * @param bytes дочерние узлы в порядке мест вставки.
+     * @param size  общий размер в байтах.
+     */
+    private record Fragments(List<byte[]> bytes, long size) {
+    }
+
+    /**
+     * Собирает ref и дату создания документов из проходящих через него событий.
+     *
+     * @author Maksim Litvinenko
+     */
+    private static final class DocRefCollector {
+
+        /**
+         * Ref документов и даты их создания.
+         */
+        private final Map<String, String> docRefs = new LinkedHashMap<>();
+
+        /**
+         * Имя текущего элемента, значение которого нужно сохранить.
+         */
+        private String currentTag;
+
+        /**
+         * Ref текущего документа.
+         */
+        private String docRef;
+
+        /**
+         * Дата создания текущего документа.
+         */
+        private String documentDate;
+
+        /**
+         * Обрабатывает очередное событие.
+         *
+         * @param event событие XML.
+         */
+        void accept(XMLEvent event) {
+            if (isStartElement(event, DOCREF) || isStartElement(event, DOCUMENTDATE)) {
+                currentTag = event.asStartElement().getName().getLocalPart();
+            } else if (event.isCharacters() && currentTag != null) {
+                var text = event.asCharacters().getData();
+                if (DOCREF.equals(currentTag)) {
+                    docRef = text;
+                } else {
+                    documentDate = text;
+                }
+            } else if (event.isEndElement()) {
+                currentTag = null;
+                if (isEndElement(event, DOCUMENT) && docRef != null) {
+                    docRefs.put(docRef, documentDate);
+                    docRef = null;
+                    documentDate = null;
+                }
+            }
+        }
+
+        /**
+         * Возвращает собранные ref документов.
+         *
+         * @return ref документов и даты их создания.
+         */
+        Map<String, String> result() {
+            return docRefs;
+        }
+    }
+}
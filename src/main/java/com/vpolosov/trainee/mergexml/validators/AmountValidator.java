@@ -5,17 +5,14 @@ import com.vpolosov.trainee.mergexml.config.ConfigProperties;
 import com.vpolosov.trainee.mergexml.handler.exception.IncorrectMaxAmountException;
 import com.vpolosov.trainee.mergexml.handler.exception.IncorrectMinAmountException;
 import com.vpolosov.trainee.mergexml.handler.exception.IncorrectValueException;
-import com.vpolosov.trainee.mergexml.utils.DocumentUtil;
+import com.vpolosov.trainee.mergexml.utils.PaymentFields;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
-import org.w3c.dom.Document;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.function.Predicate;
 
-import static com.vpolosov.trainee.mergexml.utils.XmlTags.AMOUNT;
-
 /**
  * Валидатор минимальной суммы платежа.
  *
@@ -23,18 +20,13 @@ import static com.vpolosov.trainee.mergexml.utils.XmlTags.AMOUNT;
  */
 @Component
 @RequiredArgsConstructor
-public class AmountValidator implements Predicate<Document> {
+public class AmountValidator implements Predicate<PaymentFields> {
 
     /**
      * Свойства приложения.
      */
     private final ConfigProperties configProperties;
 
-    /**
-     * Вспомогательный класс для работы с {@link Document}.
-     */
-    private final DocumentUtil documentUtil;
-
     /**
      * {@inheritDoc}
      *
@@ -44,27 +36,27 @@ public class AmountValidator implements Predicate<Document> {
      */
     @Loggable
     @Override
-    public boolean test(Document document) {
-        var amountStr = documentUtil.getValueByTagName(document, AMOUNT);
+    public boolean test(PaymentFields paymentFields) {
+        var amountStr = paymentFields.amount();
         BigDecimal amount;
         try {
             amount = new BigDecimal(amountStr);
         } catch (Exception e) {
             throw new IncorrectValueException(
                 "В файле %s не найдена сумма платежа или сумма некорректна"
-                    .formatted(documentUtil.getFileName(document))
+                    .formatted(paymentFields.fileName())
             );
         }
         if (amount.compareTo(configProperties.getMinPayment()) < BigInteger.ZERO.intValue()) {
             throw new IncorrectMinAmountException(
                 "В файле %s сумма платежа не соответствует минимальной"
-                    .formatted(documentUtil.getFileName(document))
+                    .formatted(paymentFields.fileName())
             );
         }
         if (amount.compareTo(configProperties.getMaxPayment()) > BigInteger.ZERO.intValue()) {
             throw new IncorrectMaxAmountException(
                 "В файле %s сумма платежа не соответствует максимальной"
-                    .formatted(documentUtil.getFileName(document))
+                    .formatted(paymentFields.fileName())
             );
         }
         return true;
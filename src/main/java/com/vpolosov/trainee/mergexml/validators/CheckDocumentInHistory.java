@@ -4,24 +4,21 @@ import com.vpolosov.trainee.mergexml.aspect.Loggable;
 import com.vpolosov.trainee.mergexml.handler.exception.DuplicationProcessingException;
 import com.vpolosov.trainee.mergexml.model.History;
 import com.vpolosov.trainee.mergexml.service.HistoryService;
-import com.vpolosov.trainee.mergexml.service.specification.HistorySpecifications;
-import com.vpolosov.trainee.mergexml.utils.DocumentUtil;
+import com.vpolosov.trainee.mergexml.utils.PaymentFields;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
-import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
-import org.w3c.dom.Document;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
-
-import static com.vpolosov.trainee.mergexml.utils.XmlTags.DOCREF;
 
 /**
- * Проверка документа в истории совершённых платежей.
+ * Проверка документов в истории совершённых платежей.
+ * <p>
+ * Ref всех документов каталога проверяются вместе, поэтому количество запросов к базе
+ * не зависит от количества файлов.
  *
  * @author Ali Takushinov
  * @author Andrei Stalybka
@@ -29,7 +26,7 @@ import static com.vpolosov.trainee.mergexml.utils.XmlTags.DOCREF;
  */
 @Component
 @RequiredArgsConstructor
-public class CheckDocumentInHistory implements Predicate<Document> {
+public class CheckDocumentInHistory implements Predicate<List<PaymentFields>> {
 
     /**
      * Сервис хранения истории объединённых платежей.
@@ -41,27 +38,24 @@ public class CheckDocumentInHistory implements Predicate<Document> {
      */
     private final Logger loggerForDouble;
 
-    /**
-     * Вспомогательный класс для работы с {@link Document}.
-     */
-    private final DocumentUtil documentUtil;
-
     /**
      * {@inheritDoc}
      *
-     * @throws DuplicationProcessingException обнаружен платёж который уже есть в истории объединенных платежей.
+     * @throws DuplicationProcessingException обнаружены платежи, которые уже есть в истории объединенных платежей.
+     *                                        В сообщении перечислены все найденные платежи.
      */
     @Loggable
     @Override
-    public boolean test(Document document) {
-        Map<String, String> docRefAndFileNameFromHistory = getLoadDateToBDFromHistory(document);
-        if (!docRefAndFileNameFromHistory.isEmpty()) {
+    public boolean test(List<PaymentFields> paymentFields) {
+        Map<String, String> docRefsAndFileNames = fileNames(paymentFields);
+        List<History> histories = getLoadDateToBDFromHistory(docRefsAndFileNames);
+        if (!histories.isEmpty()) {
             StringBuilder message = new StringBuilder();
-            for (var entry : docRefAndFileNameFromHistory.entrySet()) {
+            for (var history : histories) {
                 message.append("В файле ")
-                    .append(entry.getValue())
+                    .append(docRefsAndFileNames.get(history.getDocRef()))
                     .append(" найден платеж, который уже был загружен ранее ")
-                    .append(entry.getKey())
+                    .append(history.getDateTimeUpload())
                     .append(";");
             }
             throw new DuplicationProcessingException(message.toString());
@@ -72,27 +66,28 @@ public class CheckDocumentInHistory implements Predicate<Document> {
     /**
      * Возвращает историю совершённых платежей.
      *
-     * @param document документ с информацией о платеже.
-     * @return историю платежей по переданному документу, иначе пустое значение.
+     * @param docRefsAndFileNames имена файлов по ref документов.
+     * @return историю платежей по переданным документам, иначе пустой список.
      */
     @Loggable
-    private Map<String, String> getLoadDateToBDFromHistory(Document document) {
-        Map<String, String> docRefsAndFileNames = new HashMap<>();
-        Specification<History> spec = Specification.where(null);
-
-        String docRef = documentUtil.getValueByTagName(document, DOCREF);
-        docRefsAndFileNames.put(docRef, documentUtil.getFileName(document));
-        spec = spec.or(HistorySpecifications.docRefEquals(docRef));
+    private List<History> getLoadDateToBDFromHistory(Map<String, String> docRefsAndFileNames) {
+        List<History> histories = historyService.findByDocRefs(docRefsAndFileNames.keySet());
+        histories.forEach(history -> loggerForDouble.info("Документ с номером {} из файла {} уже был загружен {}",
+            history.getDocRef(),
+            docRefsAndFileNames.get(history.getDocRef()),
+            history.getDateTimeUpload()));
+        return histories;
+    }
 
-        List<History> histories = historyService.getHistoryListBySpec(spec);
-        return histories.stream()
-            .peek(history -> loggerForDouble.info("Документ с номером {} из файла {} уже был загружен {}",
-                history.getDocRef(),
-                docRefsAndFileNames.get(history.getDocRef()),
-                history.getDateTimeUpload()))
-            .collect(Collectors.toMap(
-                history -> history.getDateTimeUpload().toString(),
-                history -> docRefsAndFileNames.get(history.getDocRef())
-            ));
+    /**
+     * Возвращает имена файлов по ref документов.
+     *
+     * @param paymentFields поля документов с информацией о платежах.
+     * @return имена файлов по ref документов.
+     */
+    private static Map<String, String> fileNames(List<PaymentFields> paymentFields) {
+        Map<String, String> docRefsAndFileNames = new HashMap<>();
+        paymentFields.forEach(fields -> docRefsAndFileNames.putIfAbsent(fields.docRef(), fields.fileName()));
+        return docRefsAndFileNames;
     }
 }
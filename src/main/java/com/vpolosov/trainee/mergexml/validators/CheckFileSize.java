@@ -29,6 +29,15 @@ public class CheckFileSize {
      */
     @Loggable
     public boolean isMoreThanFiveKb(File file) {
-        return file.length() > configProperties.getMaxResultFileWeight().toBytes();
+        return file.length() > maxBytes();
+    }
+
+    /**
+     * Возвращает наибольший допустимый размер результирующего файла.
+     *
+     * @return размер в байтах.
+     */
+    public long maxBytes() {
+        return configProperties.getMaxResultFileWeight().toBytes();
     }
 }
@@ -3,15 +3,12 @@ package com.vpolosov.trainee.mergexml.validators;
 import com.vpolosov.trainee.mergexml.aspect.Loggable;
 import com.vpolosov.trainee.mergexml.config.ConfigProperties;
 import com.vpolosov.trainee.mergexml.handler.exception.InvalidCurrencyCodeValueException;
-import com.vpolosov.trainee.mergexml.utils.DocumentUtil;
+import com.vpolosov.trainee.mergexml.utils.PaymentFields;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
-import org.w3c.dom.Document;
 
 import java.util.function.Predicate;
 
-import static com.vpolosov.trainee.mergexml.utils.XmlTags.CURRCODE;
-
 /**
  * Валидация валюты.
  *
@@ -19,18 +16,13 @@ import static com.vpolosov.trainee.mergexml.utils.XmlTags.CURRCODE;
  */
 @Component
 @RequiredArgsConstructor
-public class CurrentCodeValidator implements Predicate<Document> {
+public class CurrentCodeValidator implements Predicate<PaymentFields> {
 
     /**
      * Свойства приложения.
      */
     private final ConfigProperties configProperties;
 
-    /**
-     * Вспомогательный класс для работы с {@link Document}.
-     */
-    private final DocumentUtil documentUtil;
-
     /**
      * {@inheritDoc}
      *
@@ -38,8 +30,8 @@ public class CurrentCodeValidator implements Predicate<Document> {
      */
     @Loggable
     @Override
-    public boolean test(Document document) {
-        var currCode = documentUtil.getValueByTagName(document, CURRCODE);
+    public boolean test(PaymentFields paymentFields) {
+        var currCode = paymentFields.currCode();
         var validCurrCode = String.valueOf(configProperties.getCurrencyCode());
         if (!currCode.equals(validCurrCode)) {
             throw new InvalidCurrencyCodeValueException("Допустимое значение кода валюты " + validCurrCode);
@@ -2,16 +2,13 @@ package com.vpolosov.trainee.mergexml.validators;
 
 import com.vpolosov.trainee.mergexml.aspect.Loggable;
 import com.vpolosov.trainee.mergexml.handler.exception.InvalidIPv4Exception;
-import com.vpolosov.trainee.mergexml.utils.DocumentUtil;
+import com.vpolosov.trainee.mergexml.utils.PaymentFields;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
-import org.w3c.dom.Document;
 
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
-import static com.vpolosov.trainee.mergexml.utils.XmlTags.IP;
-
 /**
  * Проверка IP адреса на соответствие IPv4.
  *
@@ -19,7 +16,7 @@ import static com.vpolosov.trainee.mergexml.utils.XmlTags.IP;
  */
 @Component
 @RequiredArgsConstructor
-public class IPv4Validator implements Predicate<Document> {
+public class IPv4Validator implements Predicate<PaymentFields> {
 
     /**
      * Regexp паттерн для проверки IPv4.
@@ -28,11 +25,6 @@ public class IPv4Validator implements Predicate<Document> {
         "^(([0-9]|[1-9][0-9]|1[0-9]{2}|2[0-4][0-9]|25[0-5])\\.){3}"
             + "([0-9]|[1-9][0-9]|1[0-9]{2}|2[0-4][0-9]|25[0-5])$");
 
-    /**
-     * Вспомогательный класс для работы с {@link Document}.
-     */
-    private final DocumentUtil documentUtil;
-
     /**
      * {@inheritDoc}
      *
@@ -40,8 +32,8 @@ public class IPv4Validator implements Predicate<Document> {
      */
     @Override
     @Loggable
-    public boolean test(Document document) {
-        var ipv4 = documentUtil.getValueByTagName(document, IP);
+    public boolean test(PaymentFields paymentFields) {
+        var ipv4 = paymentFields.ip();
         if (IPV4_REGEXP.matcher(ipv4).matches()) {
             return true;
         }
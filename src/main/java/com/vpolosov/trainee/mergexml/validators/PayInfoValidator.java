@@ -6,13 +6,12 @@ import com.vpolosov.trainee.mergexml.handler.exception.DependencyCoderevNotFound
 import com.vpolosov.trainee.mergexml.handler.exception.DependencyPayGrndParamNotFoundException;
 import com.vpolosov.trainee.mergexml.handler.exception.NoSingleDependencyPayInfoException;
 import com.vpolosov.trainee.mergexml.handler.exception.DependencyPayTypeParamNotFoundException;
-import com.vpolosov.trainee.mergexml.utils.DocumentUtil;
+import com.vpolosov.trainee.mergexml.utils.PaymentFields;
 import com.vpolosov.trainee.mergexml.utils.Vertex;
 import lombok.RequiredArgsConstructor;
 import org.jgrapht.Graph;
 import org.jgrapht.graph.DefaultEdge;
 import org.springframework.stereotype.Component;
-import org.w3c.dom.Document;
 
 import java.util.function.Predicate;
 
@@ -28,12 +27,7 @@ import static com.vpolosov.trainee.mergexml.utils.XmlTags.PAYTYPEPARAM;
  */
 @Component
 @RequiredArgsConstructor
-public class PayInfoValidator implements Predicate<Document> {
-
-    /**
-     * Вспомогательный класс для работы с {@link Document}.
-     */
-    private final DocumentUtil documentUtil;
+public class PayInfoValidator implements Predicate<PaymentFields> {
 
     /**
      * Граф зависимостей.
@@ -42,10 +36,10 @@ public class PayInfoValidator implements Predicate<Document> {
 
     @Override
     @Loggable
-    public boolean test(Document document) {
-        var coderev = documentUtil.getValueByTagName(document, CODEREV);
-        var payTypeParam = documentUtil.getValueByTagName(document, PAYTYPEPARAM);
-        var payGrndParam = documentUtil.getValueByTagName(document, PAYGRNDPARAM);
+    public boolean test(PaymentFields paymentFields) {
+        var coderev = paymentFields.codeRev();
+        var payTypeParam = paymentFields.payTypeParam();
+        var payGrndParam = paymentFields.payGrndParam();
         var vCodeRev = new Vertex(coderev, CODEREV);
         var vPayTypeParam = new Vertex(payTypeParam, PAYTYPEPARAM);
         var vPayGrndParam = new Vertex(payGrndParam, PAYGRNDPARAM);
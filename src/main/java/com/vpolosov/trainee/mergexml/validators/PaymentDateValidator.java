@@ -2,18 +2,15 @@ package com.vpolosov.trainee.mergexml.validators;
 
 import com.vpolosov.trainee.mergexml.aspect.Loggable;
 import com.vpolosov.trainee.mergexml.handler.exception.IncorrectDateException;
-import com.vpolosov.trainee.mergexml.utils.DocumentUtil;
+import com.vpolosov.trainee.mergexml.utils.PaymentFields;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
-import org.w3c.dom.Document;
 
 import java.time.Clock;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.function.Predicate;
 
-import static com.vpolosov.trainee.mergexml.utils.XmlTags.DOCUMENTDATE;
-
 /**
  * Проверяет что текущая дата равна дате совершения платежа.
  * <p>
@@ -23,7 +20,7 @@ import static com.vpolosov.trainee.mergexml.utils.XmlTags.DOCUMENTDATE;
  */
 @Component
 @RequiredArgsConstructor
-public class PaymentDateValidator implements Predicate<Document> {
+public class PaymentDateValidator implements Predicate<PaymentFields> {
 
     /**
      * Часы для корректировки времени.
@@ -35,11 +32,6 @@ public class PaymentDateValidator implements Predicate<Document> {
      */
     private final DateTimeFormatter localDateFormat;
 
-    /**
-     * Вспомогательный класс для работы с {@link Document}.
-     */
-    private final DocumentUtil documentUtil;
-
     /**
      * {@inheritDoc}
      *
@@ -47,9 +39,9 @@ public class PaymentDateValidator implements Predicate<Document> {
      */
     @Loggable
     @Override
-    public boolean test(Document document) {
+    public boolean test(PaymentFields paymentFields) {
         var nowDate = LocalDate.now(clock);
-        var dateStr = documentUtil.getValueByTagName(document, DOCUMENTDATE);
+        var dateStr = paymentFields.documentDate();
         var date = LocalDate.parse(dateStr, localDateFormat);
         if (!date.equals(nowDate)) {
             throw new IncorrectDateException("Дата платежного документа должна быть равна текущей дате");
@@ -2,15 +2,12 @@ package com.vpolosov.trainee.mergexml.validators;
 
 import com.vpolosov.trainee.mergexml.aspect.Loggable;
 import com.vpolosov.trainee.mergexml.handler.exception.DifferentPayerException;
-import com.vpolosov.trainee.mergexml.utils.DocumentUtil;
+import com.vpolosov.trainee.mergexml.utils.PaymentFields;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
-import org.w3c.dom.Document;
 
 import java.util.function.BiPredicate;
 
-import static com.vpolosov.trainee.mergexml.utils.XmlTags.PAYER;
-
 /**
  * Проверяет что в XML документах один и тот же плательщик.
  *
@@ -18,12 +15,7 @@ import static com.vpolosov.trainee.mergexml.utils.XmlTags.PAYER;
  */
 @Component
 @RequiredArgsConstructor
-public class SinglePayerValidator implements BiPredicate<String, Document> {
-
-    /**
-     * Вспомогательный класс для работы с {@link Document}.
-     */
-    private final DocumentUtil documentUtil;
+public class SinglePayerValidator implements BiPredicate<String, PaymentFields> {
 
     /**
      * {@inheritDoc}
@@ -32,8 +24,8 @@ public class SinglePayerValidator implements BiPredicate<String, Document> {
      */
     @Loggable
     @Override
-    public boolean test(String payer, Document document) {
-        var nextPayer = documentUtil.getValueByTagName(document, PAYER);
+    public boolean test(String payer, PaymentFields paymentFields) {
+        var nextPayer = paymentFields.payer();
         if (!payer.equals(nextPayer)) {
             throw new DifferentPayerException(
                 "Данные файлы не могут быть объединены, т.к. обнаружены разные плательщики"
@@ -2,19 +2,19 @@ package com.vpolosov.trainee.mergexml.validators;
 
 import com.vpolosov.trainee.mergexml.aspect.Loggable;
 import com.vpolosov.trainee.mergexml.handler.exception.InvalidSchemaException;
+import com.vpolosov.trainee.mergexml.utils.DocumentUtil;
+import com.vpolosov.trainee.mergexml.utils.MergeMetrics;
+import com.vpolosov.trainee.mergexml.utils.PaymentFields;
+import com.vpolosov.trainee.mergexml.utils.PipelineStage;
+import com.vpolosov.trainee.mergexml.utils.SchemaCache;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.Accessors;
 import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
 import org.w3c.dom.Document;
-import org.xml.sax.SAXException;
 
-import javax.xml.XMLConstants;
-import javax.xml.transform.Source;
-import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.Schema;
-import javax.xml.validation.SchemaFactory;
-import javax.xml.validation.Validator;
 import java.io.File;
 import java.util.List;
 import java.util.function.BiPredicate;
@@ -22,6 +22,8 @@ import java.util.function.Predicate;
 
 /**
  * Объединяет все валидаторы XML документа в один класс.
+ * <p>
+ * Длительность разбора, каждого валидатора и проверки по истории публикуется в {@link MergeMetrics}.
  *
  * @author Maksim Litvinenko
  */
@@ -39,50 +41,111 @@ public class Validators {
     /**
      * Список валидаторов с одним параметром для проверки XML файла.
      */
-    private final List<Predicate<Document>> singleParamValidators;
+    private final List<Predicate<PaymentFields>> singleParamValidators;
 
     /**
      * Валидатор для проверки одного плательщика.
      */
-    private final BiPredicate<String, Document> paymentValidator;
+    private final BiPredicate<String, PaymentFields> paymentValidator;
+
+    /**
+     * Проверка документов каталога в истории совершённых платежей.
+     */
+    private final Predicate<List<PaymentFields>> historyValidator;
 
     /**
      * Валидатор для проверки XML файла по XSD схеме.
      */
-    private final BiPredicate<Document, Validator> xmlValidator;
+    private final XmlValidator xmlValidator;
+
+    /**
+     * Кэш скомпилированных XSD схем.
+     */
+    private final SchemaCache schemaCache;
 
     /**
-     * Прогоняет XML документ по всем валидаторам.
+     * Вспомогательный класс для работы с {@link Document}.
+     */
+    private final DocumentUtil documentUtil;
+
+    /**
+     * Метрики длительности этапов объединения и валидаторов.
+     */
+    private final MergeMetrics mergeMetrics;
+
+    /**
+     * Разбирает XML файл, одновременно проверяя его по XSD схеме.
      *
-     * @param document  документ для объединения платежа.
-     * @param validator проверяет схему документа платежа.
-     * @param payer     плательщик.
-     * @return true если все проверки прошли успешно иначе выбрасывает соответствующее исключение.
+     * @param file   XML файл платёжного документа.
+     * @param schema схема для проверки XML файлов.
+     * @return документ, прошедший проверку по XSD схеме.
      */
     @Loggable
-    public boolean validate(Document document, Validator validator, String payer) {
-        return xmlValidator.test(document, validator)
-            && singleParamValidators.stream().allMatch(predicate -> predicate.test(document))
-            && paymentValidator.test(payer, document);
+    public Document parse(File file, Schema schema) {
+        return mergeMetrics.time(PipelineStage.PARSE, () -> xmlValidator.parse(file, schema));
     }
 
     /**
-     * Создать {@link Validator} по схеме XSD файла.
+     * Прогоняет XML документ по всем остальным валидаторам.
+     * <p>
+     * Проверка по XSD схеме выполняется раньше, при разборе файла в {@link #parse(File, Schema)}.
+     * Поля документа извлекаются один раз и передаются всем валидаторам.
+     * <p>
+     * Проверка по истории платежей выполняется отдельно для всех документов каталога
+     * в {@link #validateHistory(List)}.
+     *
+     * @param document документ для объединения платежа.
+     * @param payer    плательщик.
+     * @return поля документа, если все проверки прошли успешно, иначе {@code null}.
+     */
+    @Loggable
+    public PaymentFields validate(Document document, String payer) {
+        return mergeMetrics.time(PipelineStage.VALIDATION, () -> {
+            var paymentFields = documentUtil.paymentFields(document);
+            var valid = singleParamValidators.stream().allMatch(predicate -> mergeMetrics.test(
+                    validatorName(predicate), () -> predicate.test(paymentFields)
+                ))
+                && mergeMetrics.test(
+                    validatorName(paymentValidator), () -> paymentValidator.test(payer, paymentFields)
+                );
+            return valid ? paymentFields : null;
+        });
+    }
+
+    /**
+     * Проверяет, что платежи каталога ещё не были загружены ранее.
+     *
+     * @param paymentFields поля всех документов каталога.
+     * @return true если проверка прошла успешно иначе выбрасывает соответствующее исключение.
+     */
+    @Loggable
+    public boolean validateHistory(List<PaymentFields> paymentFields) {
+        return mergeMetrics.time(PipelineStage.DUPLICATE_LOOKUP, () -> historyValidator.test(paymentFields));
+    }
+
+    /**
+     * Создать {@link Schema} по XSD файлу.
+     * <p>
+     * В отличие от валидаторов схема потокобезопасна, поэтому из неё можно
+     * создавать отдельный валидатор для каждого потока. Схема компилируется один раз
+     * для каждого различного содержимого XSD файла и далее берётся из {@link SchemaCache}.
      *
      * @param xsdFile схема XSD файла.
-     * @return валидатор для проверки XML файлов.
+     * @return скомпилированная схема для проверки XML файлов.
      * @throws InvalidSchemaException когда не удалось создать схему по XSD файлу.
      */
     @Loggable
-    public Validator createValidator(File xsdFile) {
-        SchemaFactory factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
-        Source schemaFile = new StreamSource(xsdFile);
-        Schema schema;
-        try {
-            schema = factory.newSchema(schemaFile);
-        } catch (SAXException e) {
-            throw new InvalidSchemaException(e);
-        }
-        return schema.newValidator();
+    public Schema createSchema(File xsdFile) {
+        return mergeMetrics.time(PipelineStage.SCHEMA, () -> schemaCache.get(xsdFile));
+    }
+
+    /**
+     * Возвращает имя валидатора для метрик.
+     *
+     * @param validator валидатор, возможно обёрнутый прокси.
+     * @return имя класса валидатора.
+     */
+    private static String validatorName(Object validator) {
+        return ClassUtils.getUserClass(validator).getSimpleName();
     }
 }
@@ -2,20 +2,25 @@ package com.vpolosov.trainee.mergexml.validators;
 
 import com.vpolosov.trainee.mergexml.aspect.Loggable;
 import com.vpolosov.trainee.mergexml.handler.exception.IncorrectXmlFileException;
+import com.vpolosov.trainee.mergexml.handler.exception.InvalidSchemaException;
+import com.vpolosov.trainee.mergexml.handler.exception.XmlParseException;
 import com.vpolosov.trainee.mergexml.utils.DocumentUtil;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.springframework.stereotype.Component;
 import org.w3c.dom.Document;
 import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.DefaultHandler;
 
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.validation.Validator;
-import java.io.IOException;
-import java.util.function.BiPredicate;
+import javax.xml.validation.Schema;
+import java.io.File;
 
 /**
  * Валидатор XML документа по XSD схеме.
+ * <p>
+ * Проверка выполняется во время разбора файла, поэтому документ не обходится повторно
+ * после построения, а разбор останавливается на первой ошибке схемы.
  *
  * @author Ali Takushinov
  * @author Andrei Stalybka
@@ -23,7 +28,19 @@ import java.util.function.BiPredicate;
  */
 @Component
 @RequiredArgsConstructor
-public class XmlValidator implements BiPredicate<Document, Validator> {
+public class XmlValidator {
+
+    /**
+     * Признак подстановки значений элементов по умолчанию из схемы.
+     */
+    private static final String ELEMENT_DEFAULT_FEATURE =
+        "http://apache.org/xml/features/validation/schema/element-default";
+
+    /**
+     * Признак нормализации значений по типу из схемы.
+     */
+    private static final String NORMALIZED_VALUE_FEATURE =
+        "http://apache.org/xml/features/validation/schema/normalized-value";
 
     /**
      * Логирование для пользователя.
@@ -36,20 +53,70 @@ public class XmlValidator implements BiPredicate<Document, Validator> {
     private final DocumentUtil documentUtil;
 
     /**
-     * {@inheritDoc}
+     * Разбирает XML файл, одновременно проверяя его по XSD схеме.
+     * <p>
+     * Схема только проверяет файл: значения по умолчанию и нормализация значений в документ не попадают,
+     * документ совпадает с результатом обычного разбора.
      *
+     * @param file   XML файл.
+     * @param schema схема для проверки XML файлов.
+     * @return документ, прошедший проверку.
      * @throws IncorrectXmlFileException если файл не прошёл проверку XSD схемы.
+     * @throws XmlParseException         если файл не удалось разобрать.
+     * @throws InvalidSchemaException    если схема не поддерживает проверку без изменения документа.
      */
     @Loggable
-    @Override
-    public boolean test(Document document, Validator validator) {
+    public Document parse(File file, Schema schema) {
+        var validatorHandler = schema.newValidatorHandler();
+        var errorHandler = new SchemaErrorHandler();
+        try {
+            validatorHandler.setFeature(ELEMENT_DEFAULT_FEATURE, false);
+            validatorHandler.setFeature(NORMALIZED_VALUE_FEATURE, false);
+        } catch (SAXException e) {
+            throw new InvalidSchemaException(e);
+        }
+        validatorHandler.setErrorHandler(errorHandler);
         try {
-            validator.validate(new DOMSource(document));
-        } catch (SAXException | IOException e) {
-            var fileName = documentUtil.getFileName(document);
-            loggerForUser.error("Файл {} не прошел проверку.", fileName);
-            throw new IncorrectXmlFileException("Invalid XML file with name: " + fileName);
+            return documentUtil.parse(file, validatorHandler);
+        } catch (XmlParseException e) {
+            if (!errorHandler.hasError()) {
+                throw e;
+            }
+            loggerForUser.error("Файл {} не прошел проверку.", file.getName());
+            throw new IncorrectXmlFileException("Invalid XML file with name: " + file.getName());
+        }
+    }
+
+    /**
+     * Запоминает ошибку проверки по XSD схеме и прерывает разбор.
+     *
+     * @author Maksim Litvinenko
+     */
+    private static final class SchemaErrorHandler extends DefaultHandler {
+
+        /**
+         * Первая ошибка проверки.
+         */
+        private SAXParseException error;
+
+        @Override
+        public void error(SAXParseException e) throws SAXParseException {
+            error = e;
+            throw e;
+        }
+
+        @Override
+        public void fatalError(SAXParseException e) throws SAXParseException {
+            error(e);
+        }
+
+        /**
+         * Проверяет, была ли ошибка проверки по XSD схеме.
+         *
+         * @return {@code true} если файл не прошёл проверку.
+         */
+        boolean hasError() {
+            return error != null;
         }
-        return true;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,17 @@
+-- liquibase formatted sql
+
+-- changeset mlitvinenko:validation-file-history-indexes-1
+CREATE INDEX idx_validation_file_history_date_id ON validation_file_history (validation_date DESC, validation_id DESC);
+-- rollback DROP INDEX idx_validation_file_history_date_id;
+
+-- changeset mlitvinenko:validation-file-history-indexes-2
+CREATE INDEX idx_validation_file_history_file_name_date_id ON validation_file_history (file_name, validation_date DESC, validation_id DESC);
+-- rollback DROP INDEX idx_validation_file_history_file_name_date_id;
+
+-- changeset mlitvinenko:validation-file-history-indexes-3
+CREATE INDEX idx_validation_file_history_doc_ref_date_id ON validation_file_history (doc_ref, validation_date DESC, validation_id DESC);
+-- rollback DROP INDEX idx_validation_file_history_doc_ref_date_id;
+
+-- changeset mlitvinenko:validation-file-history-indexes-4
+CREATE INDEX idx_validation_file_history_is_success_date_id ON validation_file_history (is_success, validation_date DESC, validation_id DESC);
+-- rollback DROP INDEX idx_validation_file_history_is_success_date_id;
@@ -0,0 +1,20 @@
+-- liquibase formatted sql
+
+-- changeset mlitvinenko:validation-process-merge-jobs-1
+ALTER TABLE validation_process ADD COLUMN status VARCHAR(20), ADD COLUMN finished_date TIMESTAMP WITHOUT TIME ZONE, ADD COLUMN file_count INTEGER, ADD COLUMN document_count INTEGER, ADD COLUMN validation_millis BIGINT, ADD COLUMN write_millis BIGINT, ADD COLUMN history_millis BIGINT, ADD COLUMN error_message TEXT;
+UPDATE validation_process SET status = CASE WHEN is_succsess THEN 'SUCCEEDED' ELSE 'FAILED' END;
+-- rollback ALTER TABLE validation_process DROP COLUMN status, DROP COLUMN finished_date, DROP COLUMN file_count, DROP COLUMN document_count, DROP COLUMN validation_millis, DROP COLUMN write_millis, DROP COLUMN history_millis, DROP COLUMN error_message;
+
+-- changeset mlitvinenko:validation-process-merge-jobs-2
+ALTER TABLE validation_process ALTER COLUMN total_doc_ref DROP NOT NULL;
+-- rollback ALTER TABLE validation_process ALTER COLUMN total_doc_ref SET NOT NULL;
+
+-- changeset mlitvinenko:validation-process-merge-jobs-3
+CREATE TABLE validation_process_total_doc_ref (validation_process_id UUID NOT NULL, part_index INTEGER NOT NULL, total_doc_ref VARCHAR(255) NOT NULL, CONSTRAINT pk_validation_process_total_doc_ref PRIMARY KEY (validation_process_id, part_index));
+ALTER TABLE validation_process_total_doc_ref ADD CONSTRAINT FK_VALIDATION_PROCESS_TOTAL_DOC_REF_ON_VALIDATION_PROCESS FOREIGN KEY (validation_process_id) REFERENCES validation_process (id);
+INSERT INTO validation_process_total_doc_ref (validation_process_id, part_index, total_doc_ref) SELECT id, 0, total_doc_ref FROM validation_process WHERE total_doc_ref IS NOT NULL;
+-- rollback DROP TABLE validation_process_total_doc_ref;
+
+-- changeset astonuser:1729245600000-1
+ALTER TABLE validation_process ADD COLUMN owner_instance VARCHAR(255), ADD COLUMN owner_started_date TIMESTAMP WITHOUT TIME ZONE;
+-- rollback ALTER TABLE validation_process DROP COLUMN owner_instance, DROP COLUMN owner_started_date;
@@ -0,0 +1,5 @@
+-- liquibase formatted sql
+
+-- changeset astonuser:1724328000000-1
+CREATE TABLE validation_result_cache (id UUID NOT NULL, file_path VARCHAR(255) NOT NULL, file_name VARCHAR(255) NOT NULL, file_size BIGINT NOT NULL, file_modified_millis BIGINT NOT NULL, content_hash VARCHAR(64) NOT NULL, schema_hash VARCHAR(64) NOT NULL, config_version VARCHAR(64) NOT NULL, payment_doc_ref VARCHAR(255), payer VARCHAR(255), validation_date TIMESTAMP WITHOUT TIME ZONE NOT NULL, CONSTRAINT pk_validation_result_cache PRIMARY KEY (id), CONSTRAINT uc_validation_result_cache_file_path UNIQUE (file_path));
+-- rollback DROP TABLE validation_result_cache;
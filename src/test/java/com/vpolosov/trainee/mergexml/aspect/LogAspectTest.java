@@ -0,0 +1,123 @@
+package com.vpolosov.trainee.mergexml.aspect;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.vpolosov.trainee.mergexml.config.ConfigProperties;
+import com.vpolosov.trainee.mergexml.test.TestUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Тестирование {@link LogAspect}.
+ *
+ * @author Maksim Litvinenko
+ */
+@DisplayName("Тестирование аспекта логирования")
+class LogAspectTest {
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(LoggedService.class);
+
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    void setUp() {
+        appender.start();
+        logger.addAppender(appender);
+        logger.setLevel(Level.INFO);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(appender);
+        logger.setLevel(null);
+    }
+
+    @Test
+    @DisplayName("Логируется только каждый заданный вызов, ошибки логируются всегда")
+    void log_whenSampled_thenEveryNthCallLogged() {
+        var configProperties = new ConfigProperties();
+        configProperties.setLogSampleEvery(2);
+        var service = proxy(configProperties);
+
+        for (int i = 0; i < 4; i++) {
+            service.list(i);
+        }
+        assertThatThrownBy(service::fail).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(service::fail).isInstanceOf(IllegalStateException.class);
+
+        assertThat(messages("Start method")).filteredOn(message -> message.endsWith("list(int)")).hasSize(2);
+        assertThat(messages("Incorrect finish method")).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Вместо возвращаемого значения логируется его размер")
+    void log_whenCollectionReturned_thenSizeLogged() {
+        var service = proxy(new ConfigProperties());
+
+        service.list(3);
+
+        assertThat(messages("Correct finish method"))
+            .singleElement()
+            .satisfies(message -> assertThat(message).endsWith("Returning values: CopiesList[size=3]"));
+    }
+
+    @Test
+    @DisplayName("Если уровень INFO выключен, вызовы не логируются")
+    void log_whenInfoDisabled_thenNothingLogged() {
+        logger.setLevel(Level.WARN);
+        var service = proxy(new ConfigProperties());
+
+        service.list(1);
+
+        assertThat(appender.list).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Краткое описание документа и длинной строки")
+    void summary_whenDocumentOrLongString_thenShortDescription() {
+        var document = TestUtil.document(Path.of("src/test/resources/test_fixtures/Ok/DTO1.v1.xml"));
+
+        assertThat(LogAspect.summary(document)).isEqualTo("Document[root=BSMessage]");
+        assertThat(LogAspect.summary("a".repeat(1000))).hasSize(203);
+        assertThat(LogAspect.summary(new Object())).isEqualTo("Object");
+    }
+
+    private LoggedService proxy(ConfigProperties configProperties) {
+        var factory = new AspectJProxyFactory(new LoggedService());
+        factory.addAspect(new LogAspect(configProperties));
+        return factory.getProxy();
+    }
+
+    private List<String> messages(String prefix) {
+        return appender.list.stream()
+            .map(ILoggingEvent::getFormattedMessage)
+            .filter(message -> message.startsWith(prefix))
+            .toList();
+    }
+
+    static class LoggedService {
+
+        @Loggable
+        public List<Integer> list(int size) {
+            return Collections.nCopies(size, size);
+        }
+
+        @Loggable
+        public void fail() {
+            throw new IllegalStateException("fail");
+        }
+    }
+}
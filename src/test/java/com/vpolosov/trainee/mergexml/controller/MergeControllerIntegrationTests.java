@@ -6,6 +6,7 @@ import com.vpolosov.trainee.mergexml.utils.FileUtil;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -28,6 +29,7 @@ import java.time.format.DateTimeFormatter;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @Import(MergeControllerIntegrationTests.TestTimeConfig.class)
@@ -116,4 +118,28 @@ public class MergeControllerIntegrationTests {
         responsePost.setCharacterEncoding("UTF-8");
         assertThat(responsePost.getContentAsString()).contains("Допустимое значение кода валюты 810");
     }
+
+    @DisplayName("Тест контроллера bulkMerge() когда каталоги с одними платежами объединяются одновременно")
+    @Test
+    void bulkMerge_whenSameDocRefsConcurrently_thenOnlyOneDirectoryMerged(@TempDir Path directory) throws Exception {
+        var source = Paths.get("src/test/resources/test_fixtures/Ok").toAbsolutePath().normalize();
+        var first = Files.createDirectory(directory.resolve("first"));
+        var second = Files.createDirectory(directory.resolve("second"));
+        try (var files = Files.list(source)) {
+            for (var file : files.toList()) {
+                Files.copy(file, first.resolve(file.getFileName()));
+                Files.copy(file, second.resolve(file.getFileName()));
+            }
+        }
+
+        mockMvc
+            .perform(
+                post("/xml/bulk")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"paths\": [\"%s\", \"%s\"]}".formatted(first, second))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.succeeded").value(1))
+            .andExpect(jsonPath("$.failed").value(1));
+    }
 }
@@ -2,6 +2,7 @@ package com.vpolosov.trainee.mergexml.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.vpolosov.trainee.mergexml.dtos.ValidationFileHistoryDto;
+import com.vpolosov.trainee.mergexml.dtos.ValidationFileHistoryPageDto;
 import com.vpolosov.trainee.mergexml.repository.ValidationFileHistoryRepository;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -12,14 +13,21 @@ import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -74,4 +82,71 @@ class ValidationFileHistoryControllerTest {
         );
         assertTrue(response.isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    @Sql(value = "file:src/test/resources/test_data.sql")
+    @DisplayName("Тест контроллера ValidationFileHistoryController.getPage() проходит все записи по курсору")
+    void getPage_whenWalkAllPages_thenReturnEveryRowOnceInOrder() throws Exception {
+        List<ValidationFileHistoryDto> rows = new ArrayList<>();
+        ValidationFileHistoryPageDto page = getPage("/fileHistory?limit=2");
+        rows.addAll(page.getItems());
+        while (page.getNextValidationId() != null) {
+            page = getPage("/fileHistory?limit=2&afterValidationDate=" + page.getNextValidationDate()
+                    + "&afterValidationId=" + page.getNextValidationId());
+            rows.addAll(page.getItems());
+        }
+        List<ValidationFileHistoryDto> ordered = new ArrayList<>(rows);
+        ordered.sort((first, second) -> second.getValidationDate().compareTo(first.getValidationDate()));
+        assertAll(
+                () -> assertEquals(9, rows.size()),
+                () -> assertEquals(9, new HashSet<>(rows.stream().map(ValidationFileHistoryDto::getValidationId)
+                        .toList()).size()),
+                () -> assertEquals(
+                        ordered.stream().map(ValidationFileHistoryDto::getValidationDate).toList(),
+                        rows.stream().map(ValidationFileHistoryDto::getValidationDate).toList()
+                )
+        );
+    }
+
+    @Test
+    @Sql(value = "file:src/test/resources/test_data.sql")
+    @DisplayName("Тест контроллера ValidationFileHistoryController.getPage() с фильтром по имени файла")
+    void getPage_whenFilterByFileName_thenReturnOnlyMatchingRows() throws Exception {
+        ValidationFileHistoryPageDto page = getPage("/fileHistory?fileName=Sidorov2.txt&isSuccess=true");
+        assertAll(
+                () -> assertEquals(1, page.getItems().size()),
+                () -> assertEquals("Sidorov2.txt", page.getItems().get(0).getFileName()),
+                () -> assertNull(page.getNextValidationId())
+        );
+    }
+
+    @Test
+    @Sql(value = "file:src/test/resources/test_data.sql")
+    @DisplayName("Тест контроллера ValidationFileHistoryController.export() выгружает все записи в NDJSON")
+    void export_whenDataInDB_thenReturnOneJsonPerLine() throws Exception {
+        MvcResult asyncResult = mockMvc
+                .perform(get("/fileHistory/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc
+                .perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+        List<String> lines = body.lines().toList();
+        assertAll(
+                () -> assertEquals(9, lines.size()),
+                () -> assertTrue(objectMapper.readTree(lines.get(0)).has("validationProcessId"))
+        );
+    }
+
+    private ValidationFileHistoryPageDto getPage(String url) throws Exception {
+        MockHttpServletResponse mockResponse = mockMvc
+                .perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse();
+        return objectMapper.readValue(mockResponse.getContentAsByteArray(), ValidationFileHistoryPageDto.class);
+    }
+}
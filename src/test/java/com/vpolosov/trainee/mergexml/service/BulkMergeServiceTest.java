@@ -0,0 +1,90 @@
+package com.vpolosov.trainee.mergexml.service;
+
+import com.vpolosov.trainee.mergexml.config.MergeMode;
+import com.vpolosov.trainee.mergexml.dtos.BulkMergeRequestDto;
+import com.vpolosov.trainee.mergexml.dtos.DirectoryMergeResultDto;
+import com.vpolosov.trainee.mergexml.handler.exception.EmptyBulkMergeRequestException;
+import com.vpolosov.trainee.mergexml.handler.exception.IncorrectXmlFileException;
+import com.vpolosov.trainee.mergexml.utils.FileUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Тестирование сервиса пакетного объединения каталогов")
+@ExtendWith(MockitoExtension.class)
+class BulkMergeServiceTest {
+
+    @Mock
+    private MergeJobService mergeJobService;
+
+    @Mock
+    private FileUtil fileUtil;
+
+    private ExecutorService bulkMergeExecutor;
+
+    private BulkMergeService bulkMergeService;
+
+    @BeforeEach
+    void setUp() {
+        bulkMergeExecutor = Executors.newFixedThreadPool(2);
+        bulkMergeService = new BulkMergeService(mergeJobService, fileUtil, bulkMergeExecutor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bulkMergeExecutor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Ошибка одного каталога не мешает объединению остальных")
+    void mergeAll_whenOneDirectoryFails_thenOthersMergedAndFailureReported() {
+        when(mergeJobService.merge("/a", MergeMode.DOM)).thenReturn(progress(3, 5, "/a/Total.xml"));
+        when(mergeJobService.merge("/b", MergeMode.DOM))
+            .thenThrow(new IncorrectXmlFileException("Invalid XML file with name: 1.xml"));
+        when(fileUtil.listDirectories("/parent")).thenReturn(List.of("/c", "/a"));
+        when(mergeJobService.merge("/c", MergeMode.DOM)).thenReturn(progress(2, 2, "/c/Total.part-1.xml", "/c/Total.part-2.xml"));
+
+        var result = bulkMergeService.mergeAll(new BulkMergeRequestDto(List.of("/a", "/b"), "/parent"), MergeMode.DOM);
+
+        assertThat(result.getDirectories()).extracting(DirectoryMergeResultDto::getPath)
+            .containsExactly("/a", "/b", "/c");
+        assertThat(result.getDirectories()).extracting(DirectoryMergeResultDto::getIsSuccess)
+            .containsExactly(true, false, true);
+        assertThat(result.getDirectories().get(1).getErrorMessage()).isEqualTo("Invalid XML file with name: 1.xml");
+        assertThat(result.getDirectories().get(2).getTotalDocRef()).isEqualTo("/c/Total.part-1.xml");
+        assertThat(result.getDirectories().get(2).getTotalDocRefs())
+            .containsExactly("/c/Total.part-1.xml", "/c/Total.part-2.xml");
+        assertThat(result.getSucceeded()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(result.getFileCount()).isEqualTo(5);
+        assertThat(result.getDocumentCount()).isEqualTo(7);
+        assertThat(result.getDirectoriesPerSecond()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Запрос без каталогов отклоняется")
+    void mergeAll_whenNoDirectories_thenThrowEmptyBulkMergeRequestException() {
+        assertThatThrownBy(() -> bulkMergeService.mergeAll(new BulkMergeRequestDto(List.of(), null), MergeMode.DOM))
+            .isInstanceOf(EmptyBulkMergeRequestException.class);
+    }
+
+    private static MergeProgress progress(int fileCount, int documentCount, String... totalPaths) {
+        var progress = new MergeProgress();
+        progress.setFileCount(fileCount);
+        progress.setDocumentCount(documentCount);
+        progress.setTotalPaths(List.of(totalPaths));
+        return progress;
+    }
+}
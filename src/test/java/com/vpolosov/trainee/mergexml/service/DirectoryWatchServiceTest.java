@@ -0,0 +1,108 @@
+package com.vpolosov.trainee.mergexml.service;
+
+import com.vpolosov.trainee.mergexml.config.ConfigProperties;
+import com.vpolosov.trainee.mergexml.config.MergeMode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+@DisplayName("Тестирование наблюдения за каталогами")
+@ExtendWith(MockitoExtension.class)
+class DirectoryWatchServiceTest {
+
+    @TempDir
+    private Path root;
+
+    @Mock
+    private MergeJobService mergeJobService;
+
+    private ConfigProperties configProperties;
+
+    private DirectoryWatchService directoryWatchService;
+
+    @BeforeEach
+    void setUp() {
+        configProperties = new ConfigProperties();
+        configProperties.setFileName("Total.xml");
+        configProperties.setMinCountFiles(1);
+        configProperties.setMergeMode(MergeMode.STREAMING);
+        configProperties.setWatchRoots(root.toString());
+        configProperties.setWatchDebounceMillis(100L);
+        directoryWatchService = new DirectoryWatchService(mergeJobService, configProperties);
+        directoryWatchService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        directoryWatchService.stop();
+    }
+
+    @Test
+    @DisplayName("Новый каталог с XML и XSD файлами объединяется после загрузки файлов")
+    void start_whenDirectoryUploaded_thenDirectoryMerged() throws IOException {
+        var directory = Files.createDirectory(root.resolve("client"));
+        Files.writeString(directory.resolve("1.xml"), "<a/>");
+        Files.writeString(directory.resolve("schema.xsd"), "<xs:schema/>");
+
+        verify(mergeJobService, timeout(5000)).merge(directory.toString(), MergeMode.STREAMING);
+    }
+
+    @Test
+    @DisplayName("Каталог без XSD файла не объединяется")
+    void start_whenDirectoryWithoutXsd_thenDirectoryNotMerged() throws IOException {
+        var directory = Files.createDirectory(root.resolve("client"));
+        Files.writeString(directory.resolve("1.xml"), "<a/>");
+
+        verify(mergeJobService, after(1000).never()).merge(anyString(), any(MergeMode.class));
+    }
+
+    @Test
+    @DisplayName("Каталоги, загруженные до запуска и ещё не объединённые, объединяются при запуске")
+    void start_whenDirectoriesExistBeforeStart_thenNotMergedDirectoriesMerged() throws IOException {
+        directoryWatchService.stop();
+        var uploaded = Files.createDirectory(root.resolve("uploaded"));
+        Files.writeString(uploaded.resolve("1.xml"), "<a/>");
+        Files.writeString(uploaded.resolve("schema.xsd"), "<xs:schema/>");
+        var merged = Files.createDirectory(root.resolve("merged"));
+        Files.writeString(merged.resolve("1.xml"), "<a/>");
+        Files.writeString(merged.resolve("schema.xsd"), "<xs:schema/>");
+        Files.writeString(merged.resolve("Total{18-10-2026 10-00-00}.xml"), "<a/>");
+
+        directoryWatchService = new DirectoryWatchService(mergeJobService, configProperties);
+        directoryWatchService.start();
+
+        verify(mergeJobService, timeout(5000)).merge(uploaded.toString(), MergeMode.STREAMING);
+        verify(mergeJobService, after(1000).never()).merge(merged.toString(), MergeMode.STREAMING);
+    }
+
+    @Test
+    @DisplayName("Имя итогового файла без расширения не мешает наблюдению")
+    void start_whenFileNameWithoutExtension_thenDirectoryMerged() throws IOException {
+        directoryWatchService.stop();
+        configProperties.setFileName("Total");
+        directoryWatchService = new DirectoryWatchService(mergeJobService, configProperties);
+        directoryWatchService.start();
+
+        var directory = Files.createDirectory(root.resolve("client"));
+        Files.writeString(directory.resolve("1.xml"), "<a/>");
+        Files.writeString(directory.resolve("schema.xsd"), "<xs:schema/>");
+
+        verify(mergeJobService, timeout(5000)).merge(directory.toString(), MergeMode.STREAMING);
+    }
+}
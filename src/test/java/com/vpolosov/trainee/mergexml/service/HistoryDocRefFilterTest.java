@@ -0,0 +1,108 @@
+package com.vpolosov.trainee.mergexml.service;
+
+import com.vpolosov.trainee.mergexml.config.ConfigProperties;
+import com.vpolosov.trainee.mergexml.repository.HistoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Тестирование фильтра Блума по ref документов истории")
+class HistoryDocRefFilterTest {
+
+    private static final String LOADED_DOC_REF = "1fd63ceb89e44fe8875e1892a1cec5f2";
+
+    private static final String NEW_DOC_REF = "2fd63ceb89e44fe8875e1892a1cec5f2";
+
+    private static final String UPLOADED_DOC_REF = "3fd63ceb89e44fe8875e1892a1cec5f2";
+
+    private static final LocalDateTime LAST_UPLOAD = LocalDateTime.parse("2024-02-22T10:00:00");
+
+    private HistoryRepository historyRepository;
+
+    private ConfigProperties configProperties;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        historyRepository = mock(HistoryRepository.class);
+        configProperties = new ConfigProperties();
+        configProperties.setDocRefFilterExpectedInsertions(1000L);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @DisplayName("До заполнения фильтр отправляет проверку в базу")
+    void mightContain_whenNotWarmedUp_thenTrue() {
+        var filter = new HistoryDocRefFilter(historyRepository, configProperties, meterRegistry);
+
+        assertThat(filter.mightContain(NEW_DOC_REF)).isTrue();
+    }
+
+    @Test
+    @DisplayName("После заполнения из истории новый ref отсекается без запроса в базу")
+    void mightContain_whenWarmedUp_thenNewDocRefAbsent() {
+        when(historyRepository.streamAllDocRefs()).thenReturn(Stream.of(LOADED_DOC_REF));
+        var filter = new HistoryDocRefFilter(historyRepository, configProperties, meterRegistry);
+
+        filter.warmUp();
+
+        assertThat(filter.mightContain(LOADED_DOC_REF)).isTrue();
+        assertThat(filter.mightContain(NEW_DOC_REF)).isFalse();
+        assertThat(meterRegistry.get("mergexml.history.docref.filter.lookups").tag("result", "absent").counter()
+            .count()).isEqualTo(1);
+        assertThat(meterRegistry.get("mergexml.history.docref.filter.size").gauge().value()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Сохранённый фильтр читается при запуске вместо истории и дополняется новыми загрузками")
+    void warmUp_whenFilterSaved_thenHistoryNotReadAndNewUploadsAdded(@TempDir Path tempDir) {
+        configProperties.setDocRefFilterPath(tempDir.resolve("docref.filter").toString());
+        when(historyRepository.findLastDateTimeUpload()).thenReturn(LAST_UPLOAD);
+        when(historyRepository.streamAllDocRefs()).thenReturn(Stream.of(LOADED_DOC_REF));
+        var filter = new HistoryDocRefFilter(historyRepository, configProperties, meterRegistry);
+        filter.warmUp();
+        filter.save();
+        var restartedRepository = mock(HistoryRepository.class);
+        when(restartedRepository.streamDocRefsUploadedSince(LAST_UPLOAD)).thenReturn(Stream.of(UPLOADED_DOC_REF));
+
+        var restarted = new HistoryDocRefFilter(restartedRepository, configProperties, new SimpleMeterRegistry());
+        restarted.warmUp();
+
+        verify(restartedRepository, never()).streamAllDocRefs();
+        assertThat(restarted.mightContain(LOADED_DOC_REF)).isTrue();
+        assertThat(restarted.mightContain(UPLOADED_DOC_REF)).isTrue();
+        assertThat(restarted.mightContain(NEW_DOC_REF)).isFalse();
+        assertThat(Files.exists(tempDir.resolve("docref.filter"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Повреждённый файл фильтра не мешает запуску: он удаляется, а фильтр строится по истории")
+    void warmUp_whenSavedFilterDamaged_thenRebuiltFromHistory(@TempDir Path tempDir) throws IOException {
+        var filterPath = tempDir.resolve("docref.filter");
+        Files.write(filterPath, new byte[] {1, 2, 3});
+        configProperties.setDocRefFilterPath(filterPath.toString());
+        when(historyRepository.streamAllDocRefs()).thenReturn(Stream.of(LOADED_DOC_REF));
+
+        var filter = new HistoryDocRefFilter(historyRepository, configProperties, meterRegistry);
+        filter.warmUp();
+
+        assertThat(Files.exists(filterPath)).isFalse();
+        assertThat(filter.mightContain(LOADED_DOC_REF)).isTrue();
+        assertThat(filter.mightContain(NEW_DOC_REF)).isFalse();
+    }
+}
@@ -0,0 +1,157 @@
+package com.vpolosov.trainee.mergexml.service;
+
+import com.vpolosov.trainee.mergexml.config.TimeConfig;
+import com.vpolosov.trainee.mergexml.handler.exception.DuplicationProcessingException;
+import com.vpolosov.trainee.mergexml.model.History;
+import com.vpolosov.trainee.mergexml.repository.HistoryBatchRepository;
+import com.vpolosov.trainee.mergexml.repository.HistoryRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Тестирование сервиса хранения истории объединённых платежей")
+@ExtendWith(MockitoExtension.class)
+class HistoryServiceTest {
+
+    @Mock
+    private HistoryRepository historyRepository;
+
+    @Mock
+    private HistoryDocRefFilter historyDocRefFilter;
+
+    @Mock
+    private HistoryBatchRepository historyBatchRepository;
+
+    @InjectMocks
+    private HistoryService historyService;
+
+    @Test
+    @DisplayName("Ref документов ищутся пачками, а не по одному")
+    @SuppressWarnings("unchecked")
+    void findByDocRefs_whenManyDocRefs_thenOneQueryPerChunk() {
+        var history = new History();
+        when(historyDocRefFilter.mightContain(anyString())).thenReturn(true);
+        when(historyRepository.findAll(any(Specification.class))).thenReturn(List.of(history));
+        var docRefs = IntStream.range(0, 2500).mapToObj(String::valueOf).toList();
+
+        var histories = historyService.findByDocRefs(docRefs);
+
+        verify(historyRepository, times(3)).findAll(any(Specification.class));
+        assertThat(histories).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("Без ref документов запрос к базе не выполняется")
+    @SuppressWarnings("unchecked")
+    void findByDocRefs_whenEmpty_thenNoQuery() {
+        assertThat(historyService.findByDocRefs(List.of())).isEmpty();
+
+        verify(historyRepository, never()).findAll(any(Specification.class));
+    }
+
+    @Test
+    @DisplayName("Ref документов, которых точно нет в истории, в базе не ищутся")
+    @SuppressWarnings("unchecked")
+    void findByDocRefs_whenFilterSaysAbsent_thenNoQuery() {
+        when(historyDocRefFilter.mightContain(anyString())).thenReturn(false);
+
+        assertThat(historyService.findByDocRefs(List.of("1", "2"))).isEmpty();
+
+        verify(historyRepository, never()).findAll(any(Specification.class));
+    }
+
+    @Test
+    @DisplayName("История платежей сохраняется одной пакетной записью")
+    @SuppressWarnings("unchecked")
+    void addHistoryFromDocRefs_whenManyDocRefs_thenSavedInBatch() {
+        var timeConfig = new TimeConfig();
+        var clock = Clock.fixed(Instant.parse("2024-02-22T10:00:00Z"), ZoneOffset.UTC);
+        var service = new HistoryService(
+            historyRepository, timeConfig.localDateFormat(), clock, historyDocRefFilter, historyBatchRepository
+        );
+        Map<String, String> docRefs = new LinkedHashMap<>();
+        docRefs.put("1", "22.02.2024");
+        docRefs.put("2", "21.02.2024");
+
+        when(historyBatchRepository.saveAll(any())).thenReturn(Set.of());
+
+        service.addHistoryFromDocRefs(docRefs);
+
+        ArgumentCaptor<Collection<History>> histories = ArgumentCaptor.forClass(Collection.class);
+        verify(historyBatchRepository).saveAll(histories.capture());
+        assertThat(histories.getValue()).extracting(History::getDocRef).containsExactly("1", "2");
+        verify(historyRepository, never()).save(any(History.class));
+        verify(historyDocRefFilter).put("1");
+        verify(historyDocRefFilter).put("2");
+    }
+
+    @Test
+    @DisplayName("Из одновременных загрузок одного платежа проходит только одна")
+    void addHistoryFromDocRefs_whenSameDocRefConcurrently_thenOnlyOneSaved() throws Exception {
+        var timeConfig = new TimeConfig();
+        var service = new HistoryService(
+            historyRepository, timeConfig.localDateFormat(), Clock.systemUTC(), historyDocRefFilter,
+            historyBatchRepository
+        );
+        Set<String> saved = ConcurrentHashMap.newKeySet();
+        when(historyBatchRepository.saveAll(any())).thenAnswer(invocation -> {
+            Collection<History> histories = invocation.getArgument(0);
+            return histories.stream()
+                .map(History::getDocRef)
+                .filter(docRef -> !saved.add(docRef))
+                .collect(Collectors.toSet());
+        });
+        var start = new CyclicBarrier(2);
+        var executor = Executors.newFixedThreadPool(2);
+        try {
+            Callable<Boolean> load = () -> {
+                start.await();
+                try {
+                    service.addHistoryFromDocRefs(Map.of("1", "22.02.2024"));
+                    return true;
+                } catch (DuplicationProcessingException e) {
+                    return false;
+                }
+            };
+            List<Boolean> loaded = new ArrayList<>();
+            for (var result : executor.invokeAll(List.of(load, load))) {
+                loaded.add(result.get());
+            }
+
+            assertThat(loaded).containsExactlyInAnyOrder(true, false);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(saved).containsExactly("1");
+        verify(historyDocRefFilter).put("1");
+    }
+}
@@ -0,0 +1,228 @@
+package com.vpolosov.trainee.mergexml.service;
+
+import com.vpolosov.trainee.mergexml.config.ConfigProperties;
+import com.vpolosov.trainee.mergexml.config.MergeMode;
+import com.vpolosov.trainee.mergexml.handler.exception.DuplicationProcessingException;
+import com.vpolosov.trainee.mergexml.handler.exception.IncorrectXmlFileException;
+import com.vpolosov.trainee.mergexml.handler.exception.MergeJobRejectedException;
+import com.vpolosov.trainee.mergexml.mappers.ValidationProcessMapper;
+import com.vpolosov.trainee.mergexml.model.MergeJobStatus;
+import com.vpolosov.trainee.mergexml.model.ValidationProcess;
+import com.vpolosov.trainee.mergexml.repository.ValidationProcessRepository;
+import com.vpolosov.trainee.mergexml.utils.FileUtil;
+import com.vpolosov.trainee.mergexml.utils.InstanceId;
+import com.vpolosov.trainee.mergexml.utils.MergeMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.File;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Тестирование сервиса задач объединения")
+@ExtendWith(MockitoExtension.class)
+class MergeJobServiceTest {
+
+    private static final String PATH = "/payments";
+
+    @Mock
+    private MergeService mergeService;
+
+    @Mock
+    private HistoryService historyService;
+
+    @Mock
+    private ValidationProcessRepository validationProcessRepository;
+
+    @Mock
+    private ValidationProcessMapper validationProcessMapper;
+
+    @Mock
+    private ExecutorService mergeJobExecutor;
+
+    @Mock
+    private FileUtil fileUtil;
+
+    private MergeJobService mergeJobService;
+
+    private ValidationProcess job;
+
+    @BeforeEach
+    void setUp() {
+        var clock = Clock.fixed(Instant.parse("2024-02-22T10:00:00Z"), ZoneOffset.UTC);
+        var configProperties = new ConfigProperties();
+        configProperties.setInstanceId("node-1");
+        mergeJobService = new MergeJobService(
+            mergeService, historyService, validationProcessRepository, validationProcessMapper, clock, mergeJobExecutor,
+            new MergeMetrics(new SimpleMeterRegistry()), fileUtil, new InstanceId(configProperties, clock)
+        );
+        lenient().when(validationProcessRepository.save(any(ValidationProcess.class))).thenAnswer(invocation -> {
+            job = invocation.getArgument(0);
+            if (job.getId() == null) {
+                job.setId(UUID.randomUUID());
+            }
+            return job;
+        });
+    }
+
+    @Test
+    @DisplayName("Задача ставится в очередь, выполняется в пуле и сохраняет результат и длительность этапов")
+    void submit_whenMergeSucceeds_thenJobSucceeded() {
+        when(mergeService.mergeStreaming(eq(PATH), any(MergeProgress.class))).thenAnswer(invocation -> {
+            MergeProgress progress = invocation.getArgument(1);
+            progress.setFileCount(2);
+            progress.setTotalPaths(List.of("/payments/Total.xml"));
+            progress.time(MergeStage.WRITE, () -> { });
+            return Map.of("1", "22.02.2024");
+        });
+
+        mergeJobService.submit(PATH, MergeMode.STREAMING);
+
+        assertThat(job.getStatus()).isEqualTo(MergeJobStatus.QUEUED);
+        assertThat(job.getOwnerInstance()).isEqualTo("node-1");
+        assertThat(job.getOwnerStartedDate()).isEqualTo(LocalDateTime.of(2024, 2, 22, 10, 0));
+        when(validationProcessRepository.findById(job.getId())).thenReturn(Optional.of(job));
+        runSubmitted();
+
+        assertThat(job.getStatus()).isEqualTo(MergeJobStatus.SUCCEEDED);
+        assertThat(job.getIsSuccess()).isTrue();
+        assertThat(job.getTotalDocRef()).isEqualTo("/payments/Total.xml");
+        assertThat(job.getTotalDocRefs()).containsExactly("/payments/Total.xml");
+        assertThat(job.getFileCount()).isEqualTo(2);
+        assertThat(job.getWriteMillis()).isNotNull();
+        assertThat(job.getHistoryMillis()).isNotNull();
+        assertThat(job.getFinishedDate()).isNotNull();
+        verify(historyService).addHistoryFromDocRefs(Map.of("1", "22.02.2024"));
+    }
+
+    @Test
+    @DisplayName("Ошибка объединения сохраняется в задаче")
+    void submit_whenMergeFails_thenJobFailed() {
+        when(mergeService.merge(eq(PATH), any(MergeProgress.class)))
+            .thenThrow(new IncorrectXmlFileException("Invalid XML file with name: 1.xml"));
+
+        mergeJobService.submit(PATH, MergeMode.DOM);
+        when(validationProcessRepository.findById(job.getId())).thenReturn(Optional.of(job));
+        runSubmitted();
+
+        assertThat(job.getStatus()).isEqualTo(MergeJobStatus.FAILED);
+        assertThat(job.getIsSuccess()).isFalse();
+        assertThat(job.getErrorMessage()).isEqualTo("Invalid XML file with name: 1.xml");
+    }
+
+    @Test
+    @DisplayName("Если платёж одновременно загрузили из другого каталога, все части результата удаляются")
+    void submit_whenHistoryHasDuplicate_thenTotalDeleted() {
+        when(mergeService.merge(eq(PATH), any(MergeProgress.class))).thenAnswer(invocation -> {
+            invocation.<MergeProgress>getArgument(1)
+                .setTotalPaths(List.of("/payments/Total.part-1.xml", "/payments/Total.part-2.xml"));
+            return Map.of("1", "22.02.2024");
+        });
+        doThrow(new DuplicationProcessingException("Платеж 1 уже был загружен ранее;"))
+            .when(historyService).addHistoryFromDocRefs(Map.of("1", "22.02.2024"));
+
+        mergeJobService.submit(PATH, MergeMode.DOM);
+        when(validationProcessRepository.findById(job.getId())).thenReturn(Optional.of(job));
+        runSubmitted();
+
+        assertThat(job.getStatus()).isEqualTo(MergeJobStatus.FAILED);
+        assertThat(job.getErrorMessage()).isEqualTo("Платеж 1 уже был загружен ранее;");
+        assertThat(job.getTotalDocRef()).isNull();
+        assertThat(job.getTotalDocRefs()).isEmpty();
+        verify(fileUtil).delete(new File("/payments/Total.part-1.xml"));
+        verify(fileUtil).delete(new File("/payments/Total.part-2.xml"));
+    }
+
+    @Test
+    @DisplayName("Ход задачи сохраняется после каждого этапа, а не только по завершении")
+    void submit_whenStageCompleted_thenProgressSaved() {
+        List<MergeJobStatus> savedStatuses = new ArrayList<>();
+        List<Integer> savedFileCounts = new ArrayList<>();
+        when(mergeService.merge(eq(PATH), any(MergeProgress.class))).thenAnswer(invocation -> {
+            MergeProgress progress = invocation.getArgument(1);
+            progress.setFileCount(2);
+            progress.time(MergeStage.VALIDATION, () -> { });
+            savedStatuses.add(job.getStatus());
+            savedFileCounts.add(job.getFileCount());
+            return Map.of("1", "22.02.2024");
+        });
+
+        mergeJobService.submit(PATH, MergeMode.DOM);
+        when(validationProcessRepository.findById(job.getId())).thenReturn(Optional.of(job));
+        runSubmitted();
+
+        assertThat(savedStatuses).containsExactly(MergeJobStatus.RUNNING);
+        assertThat(savedFileCounts).containsExactly(2);
+        assertThat(job.getStatus()).isEqualTo(MergeJobStatus.SUCCEEDED);
+        assertThat(job.getValidationMillis()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Задача завершается ошибкой, даже если объединение прервано Error")
+    void submit_whenMergeThrowsError_thenJobFailedAndErrorRethrown() {
+        when(mergeService.merge(eq(PATH), any(MergeProgress.class))).thenThrow(new OutOfMemoryError("Java heap space"));
+
+        mergeJobService.submit(PATH, MergeMode.DOM);
+        when(validationProcessRepository.findById(job.getId())).thenReturn(Optional.of(job));
+
+        assertThatThrownBy(this::runSubmitted).isInstanceOf(OutOfMemoryError.class);
+        assertThat(job.getStatus()).isEqualTo(MergeJobStatus.FAILED);
+        assertThat(job.getErrorMessage()).isEqualTo("Java heap space");
+        assertThat(job.getFinishedDate()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("При запуске приложения ошибкой завершаются только незавершённые задачи прошлых запусков экземпляра")
+    void failInterruptedJobs_whenApplicationReady_thenOwnStaleJobsFailed() {
+        mergeJobService.failInterruptedJobs();
+
+        verify(validationProcessRepository).failInterrupted(
+            EnumSet.of(MergeJobStatus.QUEUED, MergeJobStatus.RUNNING),
+            "node-1",
+            LocalDateTime.of(2024, 2, 22, 10, 0),
+            "Merge job was interrupted by application restart",
+            LocalDateTime.of(2024, 2, 22, 10, 0)
+        );
+    }
+
+    @Test
+    @DisplayName("При заполненной очереди задача отклоняется")
+    void submit_whenQueueIsFull_thenThrowMergeJobRejectedException() {
+        doThrow(new RejectedExecutionException()).when(mergeJobExecutor).execute(any(Runnable.class));
+
+        assertThatThrownBy(() -> mergeJobService.submit(PATH, MergeMode.DOM))
+            .isInstanceOf(MergeJobRejectedException.class);
+        assertThat(job.getStatus()).isEqualTo(MergeJobStatus.FAILED);
+    }
+
+    private void runSubmitted() {
+        var task = ArgumentCaptor.forClass(Runnable.class);
+        verify(mergeJobExecutor).execute(task.capture());
+        task.getValue().run();
+    }
+}
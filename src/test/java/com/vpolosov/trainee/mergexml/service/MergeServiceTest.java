@@ -0,0 +1,326 @@
+package com.vpolosov.trainee.mergexml.service;
+
+import com.vpolosov.trainee.mergexml.config.ConfigProperties;
+import com.vpolosov.trainee.mergexml.config.TimeConfig;
+import com.vpolosov.trainee.mergexml.config.XmlConfig;
+import com.vpolosov.trainee.mergexml.handler.exception.DifferentPayerException;
+import com.vpolosov.trainee.mergexml.handler.exception.IncorrectXmlFileException;
+import com.vpolosov.trainee.mergexml.model.ValidationResultCacheEntry;
+import com.vpolosov.trainee.mergexml.repository.ValidationResultCacheRepository;
+import com.vpolosov.trainee.mergexml.test.TestUtil;
+import com.vpolosov.trainee.mergexml.utils.DocumentUtil;
+import com.vpolosov.trainee.mergexml.utils.DocumentWriter;
+import com.vpolosov.trainee.mergexml.utils.FileUtil;
+import com.vpolosov.trainee.mergexml.utils.MergeMetrics;
+import com.vpolosov.trainee.mergexml.utils.SchemaCache;
+import com.vpolosov.trainee.mergexml.utils.XmlStreamUtil;
+import com.vpolosov.trainee.mergexml.validators.CheckFileSize;
+import com.vpolosov.trainee.mergexml.validators.Validators;
+import com.vpolosov.trainee.mergexml.validators.XmlValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.unit.DataSize;
+
+import javax.xml.validation.ValidatorHandler;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static com.vpolosov.trainee.mergexml.utils.XmlTags.DOCREF;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DisplayName("Тестирование сервиса объединения платёжных документов")
+@ExtendWith(MockitoExtension.class)
+class MergeServiceTest {
+
+    private static final Path FIXTURES = Path.of("src/test/resources/test_fixtures/Ok");
+
+    private static final List<String> XML_FILES = List.of("DTO1.v1.xml", "DTO2.v2.xml", "DTO2.v3.xml");
+
+    private static final List<String> MORE_XML_FILES = List.of(
+        "DTO2.v4.xml", "DTO2.v5.xml", "DTO2.v6.xml", "DTO2.v7.xml", "DTO2.v8.xml", "DTO2.v9.xml", "DTO2.v10.xml"
+    );
+
+    private static final long SLOW_PARSE_MILLIS = 300;
+
+    private static final long AWAIT_SECONDS = 5;
+
+    @TempDir
+    private Path directory;
+
+    @Mock
+    private ValidationResultCacheRepository validationResultCacheRepository;
+
+    private final List<ValidationResultCacheEntry> cacheEntries = new ArrayList<>();
+
+    private ConfigProperties configProperties;
+
+    private Validators validators;
+
+    private DocumentUtil documentUtil;
+
+    private ExecutorService validationExecutor;
+
+    private MergeService mergeService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        for (var name : XML_FILES) {
+            Files.copy(FIXTURES.resolve(name), directory.resolve(name));
+        }
+        Files.copy(FIXTURES.resolve("CREATE_PAYDOC_LOAD_2.xsd"), directory.resolve("CREATE_PAYDOC_LOAD_2.xsd"));
+
+        configProperties = new ConfigProperties();
+        configProperties.setFileName("Total.xml");
+        configProperties.setMinCountFiles(1);
+        configProperties.setMaxCountFiles(10);
+        configProperties.setCurrencyCode(810);
+        configProperties.setMinPayment(BigDecimal.TEN);
+        configProperties.setMaxPayment(BigDecimal.valueOf(100000));
+        configProperties.setMaxResultFileWeight(DataSize.ofKilobytes(500));
+        configProperties.setValidationParallelism(2);
+
+        lenient().when(validationResultCacheRepository.findAllByFilePathIn(anyCollection()))
+            .thenAnswer(invocation -> List.copyOf(cacheEntries));
+        lenient().when(validationResultCacheRepository.saveAll(any())).thenAnswer(invocation -> {
+            invocation.<Iterable<ValidationResultCacheEntry>>getArgument(0).forEach(cacheEntries::add);
+            return cacheEntries;
+        });
+
+        var xmlConfig = new XmlConfig();
+        var meterRegistry = new SimpleMeterRegistry();
+        var mergeMetrics = new MergeMetrics(meterRegistry);
+        documentUtil = spy(TestUtil.documentUtil());
+        var logger = LoggerFactory.getLogger(MergeServiceTest.class);
+        var clock = Clock.fixed(Instant.parse("2024-08-22T10:00:00Z"), ZoneOffset.UTC);
+        validators = spy(new Validators(
+            new CheckFileSize(configProperties),
+            List.of(),
+            (payer, paymentFields) -> true,
+            paymentFields -> true,
+            new XmlValidator(logger, documentUtil),
+            new SchemaCache(configProperties, meterRegistry),
+            documentUtil,
+            mergeMetrics
+        ));
+        validationExecutor = Executors.newFixedThreadPool(configProperties.getValidationParallelism());
+        mergeService = new MergeService(
+            logger,
+            new FileUtil(),
+            documentUtil,
+            new DocumentWriter(xmlConfig.xmlOutputFactory(), configProperties),
+            new XmlStreamUtil(xmlConfig.xmlInputFactory(), xmlConfig.xmlOutputFactory(), configProperties),
+            validators,
+            configProperties,
+            clock,
+            new TimeConfig().totalTimeFormat(),
+            validationExecutor,
+            new ValidationResultCache(validationResultCacheRepository, configProperties, clock),
+            mergeMetrics
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        validationExecutor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Не изменившиеся с прошлого объединения файлы повторно не проверяются")
+    void merge_whenFilesValidatedBefore_thenValidationSkipped() throws IOException {
+        var firstProgress = new MergeProgress();
+        var first = mergeService.merge(directory.toString(), firstProgress);
+        Files.delete(Path.of(firstProgress.getTotalPaths().get(0)));
+
+        verify(validators, times(XML_FILES.size())).parse(any(File.class), any());
+        assertThat(cacheEntries).extracting(ValidationResultCacheEntry::getFileName)
+            .containsExactlyInAnyOrderElementsOf(XML_FILES);
+        clearInvocations(validators);
+
+        var secondProgress = new MergeProgress();
+        var second = mergeService.merge(directory.toString(), secondProgress);
+
+        verify(validators, never()).parse(any(File.class), any());
+        verify(validators, never()).validate(any(), any());
+        verify(validators).validateHistory(any());
+        assertThat(cacheEntries).hasSize(XML_FILES.size());
+        assertThat(second).isEqualTo(first);
+        assertThat(secondProgress.getDocumentCount()).isEqualTo(XML_FILES.size());
+        assertThat(Path.of(secondProgress.getTotalPaths().get(0))).exists();
+    }
+
+    @Test
+    @DisplayName("При разбиении на части общий документ не строится, а в ходе объединения есть пути ко всем частям")
+    void merge_whenSplitTotal_thenNoDocumentBuiltAndAllPartsReported() {
+        configProperties.setSplitTotal(true);
+        configProperties.setMaxResultFileWeight(DataSize.ofKilobytes(4));
+        var progress = new MergeProgress();
+
+        var docRefs = mergeService.merge(directory.toString(), progress);
+
+        verify(documentUtil, times(XML_FILES.size())).create();
+        verify(documentUtil, times(XML_FILES.size())).parse(any(File.class), any(ValidatorHandler.class));
+        assertThat(progress.getTotalPaths()).hasSize(XML_FILES.size())
+            .allSatisfy(totalPath -> assertThat(Path.of(totalPath)).exists())
+            .extracting(totalPath -> Path.of(totalPath).getFileName().toString())
+            .allMatch(fileName -> fileName.contains(".part-"));
+        assertThat(docRefs).hasSize(XML_FILES.size());
+        assertThat(progress.getDocumentCount()).isEqualTo(XML_FILES.size());
+    }
+
+    @Test
+    @DisplayName("При параллельной проверке платежи записываются в исходном порядке файлов")
+    void merge_whenLaterFilesValidatedFirst_thenOutputInFileOrder() throws IOException {
+        copyMoreFiles();
+        var files = xmlFilesInOrder();
+        var slowFile = files.get(1);
+        doAnswer(invocation -> {
+            if (slowFile.equals(invocation.getArgument(0))) {
+                Thread.sleep(SLOW_PARSE_MILLIS);
+            }
+            return invocation.callRealMethod();
+        }).when(validators).parse(any(File.class), any());
+        var expectedDocRefs = files.stream()
+            .map(file -> documentUtil.getValueByTagName(file, DOCREF))
+            .toList();
+        var progress = new MergeProgress();
+
+        var docRefs = mergeService.merge(directory.toString(), progress);
+
+        assertThat(docRefs.keySet()).containsExactlyElementsOf(expectedDocRefs);
+        var total = documentUtil.parse(new File(progress.getTotalPaths().get(0)));
+        var totalDocRefs = total.getElementsByTagName(DOCREF);
+        assertThat(IntStream.range(0, totalDocRefs.getLength()).mapToObj(i -> totalDocRefs.item(i).getTextContent()))
+            .containsExactlyElementsOf(expectedDocRefs);
+    }
+
+    @Test
+    @DisplayName("Выбрасывается ошибка первого в порядке файлов непрошедшего проверку файла, а не первой по времени")
+    void merge_whenSeveralFilesFail_thenFirstFailureInFileOrderThrown() throws IOException {
+        copyMoreFiles();
+        var files = xmlFilesInOrder();
+        var slowInvalidFile = files.get(1);
+        var fastInvalidFile = files.get(2);
+        doAnswer(invocation -> {
+            if (slowInvalidFile.equals(invocation.getArgument(0))) {
+                Thread.sleep(SLOW_PARSE_MILLIS);
+                throw new IncorrectXmlFileException("Invalid XML file with name: " + slowInvalidFile.getName());
+            }
+            if (fastInvalidFile.equals(invocation.getArgument(0))) {
+                throw new DifferentPayerException("Payer is different in file " + fastInvalidFile.getName());
+            }
+            return invocation.callRealMethod();
+        }).when(validators).parse(any(File.class), any());
+
+        assertThatThrownBy(() -> mergeService.merge(directory.toString(), new MergeProgress()))
+            .isInstanceOf(IncorrectXmlFileException.class)
+            .hasMessage("Invalid XML file with name: " + slowInvalidFile.getName());
+        assertThat(directory.toFile().listFiles((dir, name) -> name.startsWith("Total"))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("После ошибки оставшиеся проверки отменяются, а потоки пула освобождаются")
+    void merge_whenFileFails_thenRemainingValidationsCancelledAndExecutorReleased() throws Exception {
+        copyMoreFiles();
+        var files = xmlFilesInOrder();
+        var invalidFile = files.get(1);
+        var blockedStarted = new CountDownLatch(1);
+        var blockedInterrupted = new CountDownLatch(1);
+        var parsedFiles = ConcurrentHashMap.<File>newKeySet();
+        doAnswer(invocation -> {
+            File file = invocation.getArgument(0);
+            parsedFiles.add(file);
+            if (file.equals(files.get(0))) {
+                return invocation.callRealMethod();
+            }
+            if (file.equals(invalidFile)) {
+                blockedStarted.await(AWAIT_SECONDS, TimeUnit.SECONDS);
+                throw new IncorrectXmlFileException("Invalid XML file with name: " + invalidFile.getName());
+            }
+            blockedStarted.countDown();
+            try {
+                new CountDownLatch(1).await(AWAIT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                blockedInterrupted.countDown();
+                throw e;
+            }
+            return invocation.callRealMethod();
+        }).when(validators).parse(any(File.class), any());
+
+        assertThatThrownBy(() -> mergeService.merge(directory.toString(), new MergeProgress()))
+            .isInstanceOf(IncorrectXmlFileException.class);
+
+        assertThat(blockedInterrupted.await(AWAIT_SECONDS, TimeUnit.SECONDS)).isTrue();
+        assertThat(validationExecutor.submit(() -> true).get(AWAIT_SECONDS, TimeUnit.SECONDS)).isTrue();
+        int maxInFlight = configProperties.getValidationParallelism() * 2;
+        assertThat(parsedFiles).contains(files.get(0), invalidFile, files.get(2))
+            .doesNotContainAnyElementsOf(files.subList(maxInFlight + 1, files.size()));
+        assertThat(cacheEntries).extracting(ValidationResultCacheEntry::getFileName)
+            .containsExactly(files.get(0).getName());
+    }
+
+    @Test
+    @DisplayName("Объединение через DOM и потоковое объединение записывают одинаковый результат")
+    void merge_whenDomAndStreaming_thenSameBytesExceptId() throws IOException {
+        copyMoreFiles();
+        var domProgress = new MergeProgress();
+        mergeService.merge(directory.toString(), domProgress);
+        var domTotal = Path.of(domProgress.getTotalPaths().get(0));
+        var domBytes = Files.readAllBytes(domTotal);
+        Files.delete(domTotal);
+
+        var streamingProgress = new MergeProgress();
+        mergeService.mergeStreaming(directory.toString(), streamingProgress);
+        var streamingBytes = Files.readAllBytes(Path.of(streamingProgress.getTotalPaths().get(0)));
+
+        assertThat(withoutId(streamingBytes)).isEqualTo(withoutId(domBytes));
+    }
+
+    private void copyMoreFiles() throws IOException {
+        for (var name : MORE_XML_FILES) {
+            Files.copy(FIXTURES.resolve(name), directory.resolve(name));
+        }
+    }
+
+    private List<File> xmlFilesInOrder() {
+        return new FileUtil().snapshot(directory.toString(), 1, 10).xmlFiles();
+    }
+
+    private static byte[] withoutId(byte[] total) {
+        var content = new String(total, StandardCharsets.UTF_8);
+        return content.replaceFirst(" ID=\"[^\"]*\"", " ID=\"\"").getBytes(StandardCharsets.UTF_8);
+    }
+}
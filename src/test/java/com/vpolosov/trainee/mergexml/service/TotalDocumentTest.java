@@ -0,0 +1,54 @@
+package com.vpolosov.trainee.mergexml.service;
+
+import com.vpolosov.trainee.mergexml.test.TestUtil;
+import com.vpolosov.trainee.mergexml.utils.PaymentFields;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+
+import static com.vpolosov.trainee.mergexml.utils.XmlTags.BS_HEAD;
+import static com.vpolosov.trainee.mergexml.utils.XmlTags.BS_MESSAGE;
+import static com.vpolosov.trainee.mergexml.utils.XmlTags.DOCUMENT;
+import static com.vpolosov.trainee.mergexml.utils.XmlTags.DOCUMENTS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тестирование {@link TotalDocument}.
+ *
+ * @author Maksim Litvinenko
+ */
+@DisplayName("Тестирование результирующего документа")
+class TotalDocumentTest {
+
+    @Test
+    @DisplayName("Все платежи и заголовки попадают в единственные BSHead и DOCUMENTS")
+    void append_whenValidDocuments_thenAllDocumentsMerged() {
+        var totalDocument = new TotalDocument(TestUtil.documentUtil().create());
+        var documents = TestUtil.documents(Paths.get("src/test/resources/test_fixtures/Ok"));
+
+        documents.forEach(totalDocument::append);
+
+        var target = totalDocument.document();
+        assertThat(target.getElementsByTagName(BS_MESSAGE).getLength()).isEqualTo(1);
+        assertThat(target.getElementsByTagName(BS_HEAD).getLength()).isEqualTo(1);
+        assertThat(target.getElementsByTagName(DOCUMENTS).getLength()).isEqualTo(1);
+        assertThat(target.getElementsByTagName("Client").getLength()).isEqualTo(documents.size());
+        assertThat(target.getElementsByTagName(DOCUMENT).getLength()).isEqualTo(documents.size());
+    }
+
+    @Test
+    @DisplayName("Ref и даты платежей собираются во время объединения в порядке файлов")
+    void append_whenValidDocuments_thenDocRefsCollected() {
+        var totalDocument = new TotalDocument(TestUtil.documentUtil().create());
+        var path = Paths.get("src/test/resources/test_fixtures/Ok");
+        var paymentFields = TestUtil.paymentFields(path);
+
+        TestUtil.documents(path).forEach(totalDocument::append);
+
+        assertThat(totalDocument.docRefs().keySet())
+            .containsExactlyElementsOf(paymentFields.stream().map(PaymentFields::docRef).toList());
+        assertThat(totalDocument.docRefs().values())
+            .containsExactlyElementsOf(paymentFields.stream().map(PaymentFields::documentDate).toList());
+    }
+}
@@ -0,0 +1,118 @@
+package com.vpolosov.trainee.mergexml.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vpolosov.trainee.mergexml.dtos.ValidationFileHistoryDto;
+import com.vpolosov.trainee.mergexml.dtos.ValidationFileHistoryFilter;
+import com.vpolosov.trainee.mergexml.dtos.ValidationProcessDto;
+import com.vpolosov.trainee.mergexml.mappers.ValidationFileHistoryMapper;
+import com.vpolosov.trainee.mergexml.model.ValidationFileHistory;
+import com.vpolosov.trainee.mergexml.repository.ValidationFileHistoryRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Тестирование сервиса истории валидации файлов")
+@ExtendWith(MockitoExtension.class)
+class ValidationFileHistoryServiceTest {
+
+    @Mock
+    private ValidationFileHistoryRepository repository;
+
+    @Mock
+    private ValidationFileHistoryMapper mapper;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private ValidationFileHistoryService service;
+
+    @Test
+    @DisplayName("Если записей больше размера страницы, возвращается курсор по последней записи страницы")
+    @SuppressWarnings("unchecked")
+    void getPage_whenMoreRowsThanLimit_thenReturnNextCursor() {
+        var rows = rows(3);
+        when(repository.findBy(any(Specification.class), any())).thenReturn(rows);
+        when(mapper.toDtoList(anyList())).thenAnswer(invocation -> dtos(invocation.getArgument(0)));
+
+        var page = service.getPage(new ValidationFileHistoryFilter(), null, null, 2);
+
+        assertThat(page.getItems()).hasSize(2);
+        assertThat(page.getNextValidationDate()).isEqualTo(rows.get(1).getValidationDate());
+        assertThat(page.getNextValidationId()).isEqualTo(rows.get(1).getValidationId());
+    }
+
+    @Test
+    @DisplayName("На последней странице курсор не возвращается")
+    @SuppressWarnings("unchecked")
+    void getPage_whenRowsFitLimit_thenNoNextCursor() {
+        var rows = rows(2);
+        when(repository.findBy(any(Specification.class), any())).thenReturn(rows);
+        when(mapper.toDtoList(anyList())).thenAnswer(invocation -> dtos(invocation.getArgument(0)));
+
+        var page = service.getPage(new ValidationFileHistoryFilter(), LocalDateTime.now(), UUID.randomUUID(), 2);
+
+        assertThat(page.getItems()).hasSize(2);
+        assertThat(page.getNextValidationDate()).isNull();
+        assertThat(page.getNextValidationId()).isNull();
+    }
+
+    @Test
+    @DisplayName("Выгрузка пишет по одной записи JSON на строку и отсоединяет выгруженные записи")
+    void exportAllValidatedFiles_whenRows_thenWriteNdjsonAndDetachRows() throws Exception {
+        var objectMapper = new ObjectMapper().findAndRegisterModules();
+        var exportService = new ValidationFileHistoryService(repository, mapper, entityManager, objectMapper);
+        var rows = rows(3);
+        when(repository.streamAllByOrderByValidationDateDesc()).thenReturn(rows.stream());
+        when(mapper.toDto(any(ValidationFileHistory.class))).thenAnswer(invocation -> {
+            ValidationFileHistory row = invocation.getArgument(0);
+            var dto = new ValidationFileHistoryDto();
+            dto.setValidationId(row.getValidationId());
+            dto.setValidationProcess(new ValidationProcessDto());
+            return dto;
+        });
+        var outputStream = new ByteArrayOutputStream();
+
+        exportService.exportAllValidatedFiles(outputStream);
+
+        var lines = outputStream.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines).hasSize(3);
+        for (int i = 0; i < lines.size(); i++) {
+            assertThat(objectMapper.readTree(lines.get(i)).get("validationId").asText())
+                .isEqualTo(rows.get(i).getValidationId().toString());
+        }
+        rows.forEach(row -> verify(entityManager).detach(row));
+    }
+
+    private static List<ValidationFileHistory> rows(int count) {
+        var now = LocalDateTime.now();
+        return IntStream.range(0, count).mapToObj(i -> {
+            var row = new ValidationFileHistory();
+            row.setValidationId(UUID.randomUUID());
+            row.setValidationDate(now.minusMinutes(i));
+            return row;
+        }).toList();
+    }
+
+    private static List<ValidationFileHistoryDto> dtos(List<ValidationFileHistory> rows) {
+        return rows.stream().map(row -> new ValidationFileHistoryDto()).toList();
+    }
+}
@@ -0,0 +1,140 @@
+package com.vpolosov.trainee.mergexml.service;
+
+import com.vpolosov.trainee.mergexml.config.ConfigProperties;
+import com.vpolosov.trainee.mergexml.model.ValidationResultCacheEntry;
+import com.vpolosov.trainee.mergexml.repository.ValidationResultCacheRepository;
+import com.vpolosov.trainee.mergexml.utils.DirectorySnapshot;
+import com.vpolosov.trainee.mergexml.utils.FileUtil;
+import com.vpolosov.trainee.mergexml.utils.PaymentFields;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Тестирование кэша результатов валидации файлов")
+@ExtendWith(MockitoExtension.class)
+class ValidationResultCacheTest {
+
+    @TempDir
+    private Path directory;
+
+    @Mock
+    private ValidationResultCacheRepository repository;
+
+    private ValidationResultCache validationResultCache;
+
+    private DirectorySnapshot snapshot;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        var configProperties = new ConfigProperties();
+        configProperties.setCurrencyCode(810);
+        configProperties.setMinPayment(BigDecimal.TEN);
+        configProperties.setMaxPayment(BigDecimal.valueOf(100000));
+        var clock = Clock.fixed(Instant.parse("2024-08-22T10:00:00Z"), ZoneOffset.UTC);
+        validationResultCache = new ValidationResultCache(repository, configProperties, clock);
+        Files.writeString(directory.resolve("1.xml"), "<Document/>");
+        Files.writeString(directory.resolve("schema.xsd"), "<xs:schema/>");
+        snapshot = new FileUtil().snapshot(directory.toString(), 1, 10);
+    }
+
+    @Test
+    @DisplayName("Неизменившийся файл находится в результатах прошлой валидации")
+    void find_whenFileNotChanged_thenCachedFieldsReturned() {
+        List<ValidationResultCacheEntry> saved = new ArrayList<>();
+        when(repository.saveAll(any())).thenAnswer(invocation -> {
+            invocation.<Iterable<ValidationResultCacheEntry>>getArgument(0).forEach(saved::add);
+            return saved;
+        });
+        var xmlFile = snapshot.xml().get(0);
+        var first = validationResultCache.lookup(snapshot);
+        first.add(first.key(xmlFile), PaymentFields.cached("1.xml", "42", "Иванов"));
+        validationResultCache.save(first);
+        when(repository.findAllByFilePathIn(List.of(xmlFile.file().getAbsolutePath()))).thenReturn(saved);
+
+        var second = validationResultCache.lookup(snapshot);
+
+        assertThat(second.find(second.key(xmlFile), null)).isEqualTo(PaymentFields.cached("1.xml", "42", "Иванов"));
+        assertThat(second.find(second.key(xmlFile), "Иванов")).isNotNull();
+        assertThat(second.find(second.key(xmlFile), "Петров")).isNull();
+    }
+
+    @Test
+    @DisplayName("Изменившийся файл проверяется заново")
+    @SuppressWarnings("unchecked")
+    void find_whenFileChanged_thenNull() throws IOException {
+        var lookup = validationResultCache.lookup(snapshot);
+        lookup.add(lookup.key(snapshot.xml().get(0)), PaymentFields.cached("1.xml", "42", "Иванов"));
+        validationResultCache.save(lookup);
+        ArgumentCaptor<Iterable<ValidationResultCacheEntry>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(repository).saveAll(captor.capture());
+        var validation = captor.getValue().iterator().next();
+        when(repository.findAllByFilePathIn(anyCollection())).thenReturn(List.of(validation));
+        Files.writeString(directory.resolve("1.xml"), "<Document changed=\"true\"/>");
+        var changed = new FileUtil().snapshot(directory.toString(), 1, 10);
+
+        var next = validationResultCache.lookup(changed);
+
+        assertThat(next.find(next.key(changed.xml().get(0)), null)).isNull();
+    }
+
+    @Test
+    @DisplayName("Результат с устаревшей версией правил не используется и заменяется новым, а не добавляется")
+    @SuppressWarnings("unchecked")
+    void add_whenConfigVersionOutdated_thenPreviousResultReplaced() {
+        var xmlFile = snapshot.xml().get(0);
+        var outdated = new ValidationResultCacheEntry();
+        outdated.setId(UUID.randomUUID());
+        outdated.setFilePath(xmlFile.file().getAbsolutePath());
+        outdated.setFileSize(xmlFile.size());
+        outdated.setFileModifiedMillis(xmlFile.modifiedMillis());
+        outdated.setConfigVersion("outdated");
+        when(repository.findAllByFilePathIn(anyCollection())).thenReturn(List.of(outdated));
+        var lookup = validationResultCache.lookup(snapshot);
+        var key = lookup.key(xmlFile);
+        outdated.setContentHash(key.contentHash());
+        outdated.setSchemaHash("outdated");
+
+        assertThat(lookup.find(key, null)).isNull();
+        lookup.add(key, PaymentFields.cached("1.xml", "42", "Иванов"));
+        validationResultCache.save(lookup);
+
+        ArgumentCaptor<Iterable<ValidationResultCacheEntry>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(repository).saveAll(captor.capture());
+        assertThat(captor.getValue()).singleElement()
+            .satisfies(validation -> assertThat(validation.getId()).isEqualTo(outdated.getId()))
+            .satisfies(validation -> assertThat(validation.getConfigVersion()).isNotEqualTo("outdated"));
+    }
+
+    @Test
+    @DisplayName("Без новых валидаций ничего не сохраняется")
+    void save_whenNothingValidated_thenNotSaved() {
+        var lookup = validationResultCache.lookup(snapshot);
+
+        validationResultCache.save(lookup);
+
+        verify(repository, never()).saveAll(any());
+    }
+}
@@ -1,13 +1,17 @@
 package com.vpolosov.trainee.mergexml.test;
 
+import com.vpolosov.trainee.mergexml.config.ConfigProperties;
 import com.vpolosov.trainee.mergexml.config.XmlConfig;
+import com.vpolosov.trainee.mergexml.utils.DocumentBuilderPool;
 import com.vpolosov.trainee.mergexml.utils.DocumentUtil;
 import com.vpolosov.trainee.mergexml.utils.FileUtil;
+import com.vpolosov.trainee.mergexml.utils.PaymentFields;
+import com.vpolosov.trainee.mergexml.utils.SaxParserPool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.Getter;
 import lombok.experimental.Accessors;
 import org.w3c.dom.Document;
 
-import javax.xml.parsers.ParserConfigurationException;
 import java.io.File;
 import java.nio.file.Path;
 import java.util.List;
@@ -24,21 +28,24 @@ public class TestUtil {
      */
     @Getter
     @Accessors(fluent = true)
-    private static final DocumentUtil documentUtil;
+    private static final DocumentUtil documentUtil = new DocumentUtil(
+        new DocumentBuilderPool(
+            new XmlConfig().documentBuilderFactory(),
+            new ConfigProperties(),
+            new SimpleMeterRegistry()
+        ),
+        new SaxParserPool(
+            new XmlConfig().saxParserFactory(),
+            new ConfigProperties(),
+            new SimpleMeterRegistry()
+        )
+    );
 
     /**
      * Вспомогательный класс для работы с файлами.
      */
     private static final FileUtil fileUtil = new FileUtil();
 
-    static {
-        try {
-            documentUtil = new DocumentUtil(new XmlConfig().documentBuilder());
-        } catch (ParserConfigurationException e) {
-            throw new RuntimeException(e);
-        }
-    }
-
     /**
      * Возвращает список XML {@link Document} по указанному пути.
      *
@@ -61,4 +68,26 @@ public class TestUtil {
         var file = new File(path.toAbsolutePath().toString());
         return documentUtil.parse(file);
     }
+
+    /**
+     * Возвращает поля платёжных документов по указанному пути.
+     *
+     * @param path месторасположение xml файлов.
+     * @return список {@link PaymentFields}.
+     */
+    public static List<PaymentFields> paymentFields(Path path) {
+        return documents(path).stream()
+            .map(documentUtil::paymentFields)
+            .toList();
+    }
+
+    /**
+     * Возвращает поля платёжного документа.
+     *
+     * @param path путь до xml файла.
+     * @return поля платёжного документа.
+     */
+    public static PaymentFields paymentField(Path path) {
+        return documentUtil.paymentFields(document(path));
+    }
 }
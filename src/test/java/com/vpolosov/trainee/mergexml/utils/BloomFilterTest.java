@@ -0,0 +1,71 @@
+package com.vpolosov.trainee.mergexml.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("Тестирование фильтра Блума")
+class BloomFilterTest {
+
+    private static final int INSERTIONS = 10_000;
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    @Test
+    @DisplayName("Добавленные строки всегда найдены, а ложноположительных ответов не больше заданного")
+    void mightContain_whenFilterFilled_thenNoFalseNegativesAndBoundedFalsePositives() {
+        var bloomFilter = new BloomFilter(INSERTIONS, FALSE_POSITIVE_RATE);
+        IntStream.range(0, INSERTIONS).mapToObj(i -> "ref-" + i).forEach(bloomFilter::put);
+
+        assertThat(IntStream.range(0, INSERTIONS).mapToObj(i -> "ref-" + i).allMatch(bloomFilter::mightContain))
+            .isTrue();
+        long falsePositives = IntStream.range(INSERTIONS, INSERTIONS * 2)
+            .mapToObj(i -> "ref-" + i)
+            .filter(bloomFilter::mightContain)
+            .count();
+        assertThat((double) falsePositives / INSERTIONS).isLessThan(FALSE_POSITIVE_RATE * 2);
+        assertThat(bloomFilter.expectedFalsePositiveRate()).isLessThan(FALSE_POSITIVE_RATE * 2);
+    }
+
+    @Test
+    @DisplayName("Сохранённый фильтр восстанавливается без потерь")
+    void readFrom_whenFilterWritten_thenSameAnswers() throws IOException {
+        var bloomFilter = new BloomFilter(INSERTIONS, FALSE_POSITIVE_RATE);
+        bloomFilter.put("1fd63ceb89e44fe8875e1892a1cec5f2");
+        var outputStream = new ByteArrayOutputStream();
+
+        bloomFilter.writeTo(outputStream);
+        var restored = BloomFilter.readFrom(
+            new ByteArrayInputStream(outputStream.toByteArray()), bloomFilter.bitSize()
+        );
+
+        assertThat(restored.bitSize()).isEqualTo(bloomFilter.bitSize());
+        assertThat(restored.mightContain("1fd63ceb89e44fe8875e1892a1cec5f2")).isTrue();
+        assertThat(restored.expectedFalsePositiveRate()).isEqualTo(bloomFilter.expectedFalsePositiveRate());
+    }
+
+    @Test
+    @DisplayName("Фильтр другого размера не читается")
+    void readFrom_whenOtherSize_thenThrowIOException() throws IOException {
+        var bloomFilter = new BloomFilter(INSERTIONS, FALSE_POSITIVE_RATE);
+        var outputStream = new ByteArrayOutputStream();
+        bloomFilter.writeTo(outputStream);
+
+        assertThrows(IOException.class, () -> BloomFilter.readFrom(
+            new ByteArrayInputStream(outputStream.toByteArray()), bloomFilter.bitSize() * 2
+        ));
+    }
+
+    @Test
+    @DisplayName("Исключение при некорректной вероятности ложноположительного ответа")
+    void constructor_whenFalsePositiveRateInvalid_thenThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(INSERTIONS, 1));
+    }
+}
@@ -0,0 +1,61 @@
+package com.vpolosov.trainee.mergexml.utils;
+
+import com.vpolosov.trainee.mergexml.config.ConfigProperties;
+import com.vpolosov.trainee.mergexml.config.XmlConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тестирование {@link DocumentBuilderPool}.
+ *
+ * @author Maksim Litvinenko
+ */
+@DisplayName("Тестирование пула DocumentBuilder")
+class DocumentBuilderPoolTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private DocumentBuilderPool documentBuilderPool;
+
+    @BeforeEach
+    void setUp() {
+        var configProperties = new ConfigProperties();
+        configProperties.setDocumentBuilderPoolSize(1);
+        meterRegistry = new SimpleMeterRegistry();
+        documentBuilderPool = new DocumentBuilderPool(
+            new XmlConfig().documentBuilderFactory(), configProperties, meterRegistry
+        );
+    }
+
+    @Test
+    @DisplayName("Возвращённый билдер используется повторно")
+    void borrow_whenBuilderReleased_thenSameBuilderReused() {
+        var first = documentBuilderPool.borrow();
+        documentBuilderPool.release(first);
+
+        var second = documentBuilderPool.borrow();
+
+        assertThat(second).isSameAs(first);
+        assertThat(meterRegistry.get("mergexml.document.builder.pool.active").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("mergexml.document.builder.pool.wait").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Поток ждёт освобождения билдера, если пул исчерпан")
+    void borrow_whenPoolExhausted_thenWaitForRelease() throws Exception {
+        var first = documentBuilderPool.borrow();
+        var waiting = CompletableFuture.supplyAsync(documentBuilderPool::borrow);
+
+        assertThat(waiting).isNotDone();
+        documentBuilderPool.release(first);
+
+        assertThat(waiting.get(1, TimeUnit.SECONDS)).isSameAs(first);
+    }
+}
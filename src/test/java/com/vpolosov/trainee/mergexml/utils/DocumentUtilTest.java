@@ -0,0 +1,56 @@
+package com.vpolosov.trainee.mergexml.utils;
+
+import com.vpolosov.trainee.mergexml.handler.exception.XmlTagNotFoundException;
+import com.vpolosov.trainee.mergexml.test.TestUtil;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+
+import static com.vpolosov.trainee.mergexml.utils.XmlTags.AMOUNT;
+import static com.vpolosov.trainee.mergexml.utils.XmlTags.CODEREV;
+import static com.vpolosov.trainee.mergexml.utils.XmlTags.CURRCODE;
+import static com.vpolosov.trainee.mergexml.utils.XmlTags.DOCREF;
+import static com.vpolosov.trainee.mergexml.utils.XmlTags.DOCUMENTDATE;
+import static com.vpolosov.trainee.mergexml.utils.XmlTags.IP;
+import static com.vpolosov.trainee.mergexml.utils.XmlTags.PAYER;
+import static com.vpolosov.trainee.mergexml.utils.XmlTags.PAYGRNDPARAM;
+import static com.vpolosov.trainee.mergexml.utils.XmlTags.PAYTYPEPARAM;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayName("Тестирование вспомогательного класса для работы с XML документом")
+class DocumentUtilTest {
+
+    private final DocumentUtil documentUtil = TestUtil.documentUtil();
+
+    @Test
+    @DisplayName("Поля платёжного документа совпадают с поиском по тегу")
+    void paymentFields_whenDocumentValid_thenFieldsEqualValuesByTagName() {
+        for (var document : TestUtil.documents(Paths.get("src/test/resources/test_fixtures/Ok"))) {
+            var paymentFields = documentUtil.paymentFields(document);
+
+            assertThat(paymentFields).isEqualTo(new PaymentFields(
+                documentUtil.getFileName(document),
+                documentUtil.getValueByTagName(document, DOCREF),
+                documentUtil.getValueByTagName(document, DOCUMENTDATE),
+                documentUtil.getValueByTagName(document, AMOUNT),
+                documentUtil.getValueByTagName(document, PAYER),
+                documentUtil.getValueByTagName(document, CURRCODE),
+                documentUtil.getValueByTagName(document, IP),
+                documentUtil.getValueByTagName(document, CODEREV),
+                documentUtil.getValueByTagName(document, PAYTYPEPARAM),
+                documentUtil.getValueByTagName(document, PAYGRNDPARAM)
+            ));
+        }
+    }
+
+    @Test
+    @DisplayName("Исключение при отсутствии тега в документе")
+    void paymentFields_whenTagMissing_thenThrowException() {
+        var document = documentUtil.create();
+        document.appendChild(document.createElement(XmlTags.BS_MESSAGE));
+
+        assertThrows(XmlTagNotFoundException.class, () -> documentUtil.paymentFields(document));
+    }
+}
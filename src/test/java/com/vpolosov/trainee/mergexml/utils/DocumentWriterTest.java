@@ -0,0 +1,86 @@
+package com.vpolosov.trainee.mergexml.utils;
+
+import com.vpolosov.trainee.mergexml.config.ConfigProperties;
+import com.vpolosov.trainee.mergexml.test.TestUtil;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.w3c.dom.Node;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLOutputFactory;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тестирование {@link DocumentWriter}.
+ *
+ * @author Maksim Litvinenko
+ */
+@DisplayName("Тестирование записи XML документа через XMLStreamWriter")
+class DocumentWriterTest {
+
+    private static final Path XML_PATH = Path.of("src/test/resources/test_fixtures/Ok/DTO1.v1.xml");
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    @DisplayName("Записанный документ разбирается в исходный документ")
+    void write_whenDocumentWritten_thenParsedBackEqual(boolean indentTotal) throws Exception {
+        var configProperties = new ConfigProperties();
+        configProperties.setIndentTotal(indentTotal);
+        var documentWriter = new DocumentWriter(XMLOutputFactory.newDefaultFactory(), configProperties);
+        var document = TestUtil.document(XML_PATH);
+        var outputStream = new ByteArrayOutputStream();
+
+        documentWriter.write(document, outputStream);
+
+        var documentBuilderFactory = DocumentBuilderFactory.newInstance();
+        documentBuilderFactory.setNamespaceAware(true);
+        var written = documentBuilderFactory.newDocumentBuilder()
+            .parse(new ByteArrayInputStream(outputStream.toByteArray()));
+        removeWhitespaceBetweenElements(document);
+        removeWhitespaceBetweenElements(written);
+        assertThat(written.getDocumentElement().isEqualNode(document.getDocumentElement())).isTrue();
+        assertThat(outputStream.toString().contains("\n    <")).isEqualTo(indentTotal);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    @DisplayName("Значения элементов из пробельных символов записываются как есть")
+    void write_whenBlankElementValue_thenValueKept(boolean indentTotal) throws Exception {
+        var configProperties = new ConfigProperties();
+        configProperties.setIndentTotal(indentTotal);
+        var documentWriter = new DocumentWriter(XMLOutputFactory.newDefaultFactory(), configProperties);
+        var documentBuilderFactory = DocumentBuilderFactory.newInstance();
+        documentBuilderFactory.setNamespaceAware(true);
+        var document = documentBuilderFactory.newDocumentBuilder().parse(new ByteArrayInputStream(
+            "<DOCUMENT>\n    <GROUND> </GROUND>\n    <MAC/>\n</DOCUMENT>".getBytes(StandardCharsets.UTF_8)
+        ));
+        var outputStream = new ByteArrayOutputStream();
+
+        documentWriter.write(document, outputStream);
+
+        assertThat(outputStream.toString(StandardCharsets.UTF_8)).contains("<GROUND> </GROUND>").contains("<MAC/>");
+    }
+
+    private static void removeWhitespaceBetweenElements(Node node) {
+        boolean nested = false;
+        for (var child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+            nested |= child.getNodeType() == Node.ELEMENT_NODE;
+        }
+        var child = node.getFirstChild();
+        while (child != null) {
+            var next = child.getNextSibling();
+            if (nested && child.getNodeType() == Node.TEXT_NODE && child.getNodeValue().isBlank()) {
+                node.removeChild(child);
+            } else {
+                removeWhitespaceBetweenElements(child);
+            }
+            child = next;
+        }
+    }
+}
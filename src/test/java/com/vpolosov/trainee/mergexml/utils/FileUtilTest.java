@@ -1,10 +1,12 @@
 package com.vpolosov.trainee.mergexml.utils;
 
+import com.vpolosov.trainee.mergexml.config.TimeConfig;
 import com.vpolosov.trainee.mergexml.handler.exception.FileNotFoundException;
 import com.vpolosov.trainee.mergexml.handler.exception.NotExactlyOneXsdFileException;
 import com.vpolosov.trainee.mergexml.handler.exception.NotExactlyTenFilesException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mockito;
 
 import java.io.File;
@@ -12,7 +14,12 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -115,4 +122,67 @@ class FileUtilTest {
 
         verify(fileUtil, times(1)).delete(testFile);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Возвращаются только подкаталоги, отсортированные по имени")
+    void listDirectories_whenDirectoriesAndFiles_thenReturnSortedDirectories(@TempDir Path parent) throws IOException {
+        Files.createDirectory(parent.resolve("b"));
+        Files.createDirectory(parent.resolve("a"));
+        Files.createFile(parent.resolve("c.xml"));
+
+        var directories = new FileUtil().listDirectories(parent.toString());
+
+        assertEquals(List.of(parent.resolve("a").toString(), parent.resolve("b").toString()), directories);
+    }
+
+    @Test
+    @DisplayName("XML и XSD файлы с размером и временем изменения читаются за один просмотр каталога")
+    void snapshot_whenValidDirectory_thenXmlAndXsdWithAttributes() {
+        String path = Path.of("src/test/resources/test_fixtures/Ok").toAbsolutePath().toString();
+
+        var snapshot = new FileUtil().snapshot(path, 1, 10);
+
+        assertEquals(10, snapshot.xml().size());
+        assertEquals("CREATE_PAYDOC_LOAD_2.xsd", snapshot.xsdFile().getName());
+        for (var scanned : snapshot.xml()) {
+            assertEquals(scanned.file().length(), scanned.size());
+            assertEquals(scanned.file().lastModified(), scanned.modifiedMillis());
+        }
+    }
+
+    @Test
+    @DisplayName("Ошибка при просмотре каталога без xsd файла")
+    void snapshot_whenNoXsdFiles_thenThrowException() {
+        String path = Path.of("src/test/resources/test_fixtures/sourceXml/NoXsd").toAbsolutePath().toString();
+
+        assertThrows(NotExactlyOneXsdFileException.class, () -> new FileUtil().snapshot(path, 1, 10));
+    }
+
+    @Test
+    @DisplayName("Ошибка при просмотре каталога с более чем 10 xml файлами")
+    void snapshot_whenXmlFilesMoreMaxCountFile_thenThrowException() {
+        String path = Path.of("src/test/resources/test_fixtures/sourceXml/More10").toAbsolutePath().toString();
+
+        assertThrows(NotExactlyTenFilesException.class, () -> new FileUtil().snapshot(path, 1, 10));
+    }
+
+    @Test
+    @DisplayName("Номер части добавляется перед расширением файла")
+    void partFileName_whenNameWithTime_thenPartBeforeExtension() {
+        var partFileName = new FileUtil().partFileName("Total{18-10-2026 10-00-00}.xml", 2);
+
+        assertEquals("Total{18-10-2026 10-00-00}.part-2.xml", partFileName);
+    }
+
+    @Test
+    @DisplayName("Имя без расширения: метка времени и номер части добавляются в конец")
+    void fileNameWithTime_whenNameWithoutExtension_thenTimeAtEnd() {
+        var clock = Clock.fixed(Instant.parse("2026-10-18T10:00:00Z"), ZoneOffset.UTC);
+        var fileUtil = new FileUtil();
+
+        var fileName = fileUtil.fileNameWithTime("Total", clock, new TimeConfig().totalTimeFormat());
+
+        assertEquals("Total{18-10-2026 10-00-00}", fileName);
+        assertEquals("Total{18-10-2026 10-00-00}.part-2", fileUtil.partFileName(fileName, 2));
+    }
+}
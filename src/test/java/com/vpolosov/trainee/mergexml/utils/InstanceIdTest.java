@@ -0,0 +1,43 @@
+package com.vpolosov.trainee.mergexml.utils;
+
+import com.vpolosov.trainee.mergexml.config.ConfigProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тестирование {@link InstanceId}.
+ *
+ * @author Maksim Litvinenko
+ */
+@DisplayName("Тестирование идентификатора экземпляра приложения")
+class InstanceIdTest {
+
+    private final Clock clock = Clock.fixed(Instant.parse("2024-02-22T10:00:00.123456789Z"), ZoneOffset.UTC);
+
+    @Test
+    @DisplayName("Используется заданное имя экземпляра, а время запуска округляется до миллисекунд")
+    void instanceId_whenNameConfigured_thenConfiguredNameAndMillisStartTime() {
+        var configProperties = new ConfigProperties();
+        configProperties.setInstanceId("node-1");
+
+        var instanceId = new InstanceId(configProperties, clock);
+
+        assertThat(instanceId.getName()).isEqualTo("node-1");
+        assertThat(instanceId.getStartedDate()).isEqualTo(LocalDateTime.of(2024, 2, 22, 10, 0, 0, 123_000_000));
+    }
+
+    @Test
+    @DisplayName("Без заданного имени экземпляр называется именем хоста")
+    void instanceId_whenNameNotConfigured_thenHostName() {
+        var instanceId = new InstanceId(new ConfigProperties(), clock);
+
+        assertThat(instanceId.getName()).isNotBlank();
+    }
+}
@@ -0,0 +1,52 @@
+package com.vpolosov.trainee.mergexml.utils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Тестирование {@link MergeMetrics}.
+ *
+ * @author Maksim Litvinenko
+ */
+@DisplayName("Тестирование метрик этапов объединения")
+class MergeMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final MergeMetrics mergeMetrics = new MergeMetrics(meterRegistry);
+
+    @Test
+    @DisplayName("Успешные и неудачные вызовы этапа записываются в разные таймеры")
+    void time_whenStageSucceedsAndFails_thenTaggedByOutcome() {
+        mergeMetrics.time(PipelineStage.PARSE, () -> "document");
+        mergeMetrics.time(PipelineStage.PARSE, () -> "document");
+        assertThatThrownBy(() -> mergeMetrics.time(PipelineStage.PARSE, () -> {
+            throw new IllegalStateException("broken");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(meterRegistry.get(MergeMetrics.STAGE_METRIC)
+            .tags("stage", "parse", "outcome", "success", "exception", "none")
+            .timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get(MergeMetrics.STAGE_METRIC)
+            .tags("stage", "parse", "outcome", "failure", "exception", "IllegalStateException")
+            .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Результат валидатора записывается в тег outcome")
+    void test_whenValidatorRejects_thenInvalidOutcome() {
+        assertThat(mergeMetrics.test("AmountValidator", () -> true)).isTrue();
+        assertThat(mergeMetrics.test("AmountValidator", () -> false)).isFalse();
+
+        assertThat(meterRegistry.get(MergeMetrics.VALIDATOR_METRIC)
+            .tags("validator", "AmountValidator", "outcome", "success")
+            .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(MergeMetrics.VALIDATOR_METRIC)
+            .tags("validator", "AmountValidator", "outcome", "invalid")
+            .timer().count()).isEqualTo(1);
+    }
+}
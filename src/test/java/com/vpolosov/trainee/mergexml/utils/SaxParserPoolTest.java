@@ -0,0 +1,62 @@
+package com.vpolosov.trainee.mergexml.utils;
+
+import com.vpolosov.trainee.mergexml.config.ConfigProperties;
+import com.vpolosov.trainee.mergexml.config.XmlConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тестирование {@link SaxParserPool}.
+ *
+ * @author Maksim Litvinenko
+ */
+@DisplayName("Тестирование пула SAXParser")
+class SaxParserPoolTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private SaxParserPool saxParserPool;
+
+    @BeforeEach
+    void setUp() {
+        var configProperties = new ConfigProperties();
+        configProperties.setSaxParserPoolSize(1);
+        meterRegistry = new SimpleMeterRegistry();
+        saxParserPool = new SaxParserPool(new XmlConfig().saxParserFactory(), configProperties, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Возвращённый парсер используется повторно без обработчиков прошлого разбора")
+    void borrow_whenParserReleased_thenSameParserReusedAndReset() throws Exception {
+        var first = saxParserPool.borrow();
+        first.getXMLReader().setContentHandler(new DefaultHandler());
+        saxParserPool.release(first);
+
+        var second = saxParserPool.borrow();
+
+        assertThat(second).isSameAs(first);
+        assertThat(second.getXMLReader().getContentHandler()).isNull();
+        assertThat(meterRegistry.get("mergexml.sax.parser.pool.active").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("mergexml.sax.parser.pool.wait").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Поток ждёт освобождения парсера, если пул исчерпан")
+    void borrow_whenPoolExhausted_thenWaitForRelease() throws Exception {
+        var first = saxParserPool.borrow();
+        var waiting = CompletableFuture.supplyAsync(saxParserPool::borrow);
+
+        assertThat(waiting).isNotDone();
+        saxParserPool.release(first);
+
+        assertThat(waiting.get(1, TimeUnit.SECONDS)).isSameAs(first);
+    }
+}
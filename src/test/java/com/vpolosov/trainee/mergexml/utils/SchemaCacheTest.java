@@ -0,0 +1,67 @@
+package com.vpolosov.trainee.mergexml.utils;
+
+import com.vpolosov.trainee.mergexml.config.ConfigProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тестирование {@link SchemaCache}.
+ *
+ * @author Maksim Litvinenko
+ */
+@DisplayName("Тестирование кэша XSD схем")
+class SchemaCacheTest {
+
+    private static final String REQUESTS_METRIC = "mergexml.schema.cache.requests";
+
+    private static final File OK_XSD = new File("src/test/resources/test_fixtures/Ok/CREATE_PAYDOC_LOAD_2.xsd");
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private SchemaCache schemaCache;
+
+    @BeforeEach
+    void setUp() {
+        var configProperties = new ConfigProperties();
+        configProperties.setSchemaCacheSize(1);
+        meterRegistry = new SimpleMeterRegistry();
+        schemaCache = new SchemaCache(configProperties, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Схема с одинаковым содержимым компилируется один раз")
+    void get_whenSameContentInDifferentFiles_thenSchemaCompiledOnce(@TempDir Path tempDir) throws IOException {
+        var copiedXsd = Files.copy(OK_XSD.toPath(), tempDir.resolve(OK_XSD.getName()));
+
+        var first = schemaCache.get(OK_XSD);
+        var second = schemaCache.get(copiedXsd.toFile());
+
+        assertThat(second).isSameAs(first);
+        assertThat(meterRegistry.get(REQUESTS_METRIC).tag("result", "miss").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(REQUESTS_METRIC).tag("result", "hit").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("При превышении размера кэша старая схема вытесняется")
+    void get_whenCacheFull_thenEldestSchemaEvicted(@TempDir Path tempDir) throws IOException {
+        var first = schemaCache.get(OK_XSD);
+        var changedXsd = tempDir.resolve("changed.xsd");
+        Files.writeString(changedXsd, Files.readString(OK_XSD.toPath()) + System.lineSeparator());
+
+        schemaCache.get(changedXsd.toFile());
+
+        assertThat(schemaCache.size()).isEqualTo(1);
+        assertThat(schemaCache.get(OK_XSD)).isNotSameAs(first);
+        assertThat(meterRegistry.get(REQUESTS_METRIC).tag("result", "miss").counter().count()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,81 @@
+package com.vpolosov.trainee.mergexml.utils;
+
+import com.vpolosov.trainee.mergexml.config.ConfigProperties;
+import com.vpolosov.trainee.mergexml.config.XmlConfig;
+import com.vpolosov.trainee.mergexml.handler.exception.XmlStreamRuntimeException;
+import com.vpolosov.trainee.mergexml.test.TestUtil;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Тестирование {@link SizeLimitedOutputStream}.
+ *
+ * @author Maksim Litvinenko
+ */
+@DisplayName("Тестирование потока вывода с ограничением размера")
+class SizeLimitedOutputStreamTest {
+
+    private static final Path OK_PATH = Path.of("src/test/resources/test_fixtures/Ok");
+
+    @Test
+    @DisplayName("Запись в пределах лимита считается и не прерывается")
+    void write_whenWithinLimit_thenCounted() throws IOException {
+        var target = new ByteArrayOutputStream();
+        var outputStream = new SizeLimitedOutputStream(target, 4);
+
+        outputStream.write(new byte[] {1, 2, 3});
+        outputStream.write(4);
+
+        assertThat(outputStream.getCount()).isEqualTo(4);
+        assertThat(outputStream.isLimitExceeded()).isFalse();
+        assertThat(target.size()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Запись сверх лимита прерывается и не попадает в поток")
+    void write_whenLimitExceeded_thenThrowException() throws IOException {
+        var target = new ByteArrayOutputStream();
+        var outputStream = new SizeLimitedOutputStream(target, 4);
+        outputStream.write(new byte[] {1, 2, 3});
+
+        assertThrows(IOException.class, () -> outputStream.write(new byte[] {4, 5}));
+
+        assertThat(outputStream.isLimitExceeded()).isTrue();
+        assertThat(target.size()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Потоковое объединение прерывается при превышении лимита")
+    void merge_whenLimitExceeded_thenMergeAborted() {
+        var xmlConfig = new XmlConfig();
+        var xmlStreamUtil = new XmlStreamUtil(
+            xmlConfig.xmlInputFactory(), xmlConfig.xmlOutputFactory(), new ConfigProperties()
+        );
+        var xmlFiles = new FileUtil().listXml(OK_PATH.toAbsolutePath().toString(), 1, 10);
+        var outputStream = new SizeLimitedOutputStream(new ByteArrayOutputStream(), 1024);
+
+        assertThrows(XmlStreamRuntimeException.class, () -> xmlStreamUtil.merge(xmlFiles, outputStream, Map.of()));
+
+        assertThat(outputStream.isLimitExceeded()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Запись DOM документа прерывается при превышении лимита")
+    void write_whenLimitExceeded_thenWriteAborted() {
+        var documentWriter = new DocumentWriter(new XmlConfig().xmlOutputFactory(), new ConfigProperties());
+        var document = TestUtil.document(OK_PATH.resolve("DTO1.v1.xml"));
+        var outputStream = new SizeLimitedOutputStream(new ByteArrayOutputStream(), 16);
+
+        assertThrows(XmlStreamRuntimeException.class, () -> documentWriter.write(document, outputStream));
+
+        assertThat(outputStream.isLimitExceeded()).isTrue();
+    }
+}
@@ -0,0 +1,132 @@
+package com.vpolosov.trainee.mergexml.utils;
+
+import com.vpolosov.trainee.mergexml.config.ConfigProperties;
+import com.vpolosov.trainee.mergexml.config.XmlConfig;
+import com.vpolosov.trainee.mergexml.test.TestUtil;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.w3c.dom.Element;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static com.vpolosov.trainee.mergexml.utils.XmlTags.BS_HEAD;
+import static com.vpolosov.trainee.mergexml.utils.XmlTags.BS_MESSAGE;
+import static com.vpolosov.trainee.mergexml.utils.XmlTags.DATE_TIME;
+import static com.vpolosov.trainee.mergexml.utils.XmlTags.DOCUMENT;
+import static com.vpolosov.trainee.mergexml.utils.XmlTags.ID;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тестирование {@link XmlStreamUtil}.
+ *
+ * @author Maksim Litvinenko
+ */
+@DisplayName("Тестирование потокового объединения XML файлов")
+class XmlStreamUtilTest {
+
+    private final XmlConfig xmlConfig = new XmlConfig();
+
+    private final XmlStreamUtil xmlStreamUtil = new XmlStreamUtil(
+        xmlConfig.xmlInputFactory(),
+        xmlConfig.xmlOutputFactory(),
+        new ConfigProperties()
+    );
+
+    @Test
+    @DisplayName("Все платежи и заголовки попадают в результирующий файл")
+    void merge_whenValidFiles_thenAllDocumentsMerged(@TempDir Path tempDir) throws IOException {
+        var path = Path.of("src/test/resources/test_fixtures/Ok").toAbsolutePath().toString();
+        var xmlFiles = new FileUtil().listXml(path, 1, 10);
+        var total = tempDir.resolve("Total.xml");
+
+        Map<String, String> docRefs;
+        try (var outputStream = Files.newOutputStream(total)) {
+            docRefs = xmlStreamUtil.merge(xmlFiles, outputStream, Map.of(ID, "id", DATE_TIME, "now"));
+        }
+
+        var document = TestUtil.document(total);
+        var root = document.getDocumentElement();
+        assertThat(root.getLocalName()).isEqualTo(BS_MESSAGE);
+        assertThat(root.getNamespaceURI()).isEqualTo("BS_R_PAYDOCRU");
+        assertThat(root.getAttribute(ID)).isEqualTo("id");
+        assertThat(root.getAttribute(DATE_TIME)).isEqualTo("now");
+        assertThat(document.getElementsByTagName(DOCUMENT).getLength()).isEqualTo(10);
+        var head = (Element) document.getElementsByTagName(BS_HEAD).item(0);
+        assertThat(head.getElementsByTagName("Client").getLength()).isEqualTo(10);
+        assertThat(docRefs).hasSize(10)
+            .containsEntry("1fd63ceb89e44fe8875e1892a1cec5f2", "22.02.2024");
+    }
+
+    @Test
+    @DisplayName("Части объединения не превышают лимит, записываются по порядку и содержат все платежи")
+    void split_whenLimitSmallerThanTotal_thenPartsWithinLimit(@TempDir Path tempDir) throws IOException {
+        var path = Path.of("src/test/resources/test_fixtures/Ok").toAbsolutePath().toString();
+        var xmlFiles = new FileUtil().listXml(path, 1, 10);
+        var ids = new AtomicInteger();
+        long maxBytes = 12 * 1024;
+        List<TotalPart> parts = new ArrayList<>();
+
+        var docRefs = xmlStreamUtil.split(
+            xmlFiles, maxBytes, () -> Map.of(ID, "id-" + ids.incrementAndGet()),
+            (part, content) -> {
+                parts.add(part);
+                write(tempDir.resolve("Total.part-" + part.number() + ".xml"), content);
+            }
+        );
+
+        assertThat(parts).hasSizeGreaterThan(1);
+        assertThat(parts).extracting(TotalPart::last).containsOnlyOnce(true).last().isEqualTo(true);
+        int documents = 0;
+        for (int i = 0; i < parts.size(); i++) {
+            assertThat(parts.get(i).number()).isEqualTo(i + 1);
+            var partFile = tempDir.resolve("Total.part-" + (i + 1) + ".xml");
+            assertThat(Files.size(partFile)).isLessThanOrEqualTo(maxBytes);
+            var document = TestUtil.document(partFile);
+            assertThat(document.getDocumentElement().getAttribute(ID)).isEqualTo("id-" + (i + 1));
+            documents += document.getElementsByTagName(DOCUMENT).getLength();
+        }
+        assertThat(documents).isEqualTo(10);
+        assertThat(docRefs).hasSize(10);
+    }
+
+    @Test
+    @DisplayName("Единственная часть совпадает с результатом объединения побайтно")
+    void split_whenLimitNotReached_thenSamePartAsMerge(@TempDir Path tempDir) throws IOException {
+        var path = Path.of("src/test/resources/test_fixtures/Ok").toAbsolutePath().toString();
+        var xmlFiles = new FileUtil().listXml(path, 1, 10);
+        var attributes = Map.of(ID, "id", DATE_TIME, "now");
+        var total = tempDir.resolve("Total.xml");
+        var part = tempDir.resolve("Total.part-1.xml");
+        try (var outputStream = Files.newOutputStream(total)) {
+            xmlStreamUtil.merge(xmlFiles, outputStream, attributes);
+        }
+        List<TotalPart> parts = new ArrayList<>();
+
+        var docRefs = xmlStreamUtil.split(xmlFiles, Long.MAX_VALUE, () -> attributes, (totalPart, content) -> {
+            parts.add(totalPart);
+            write(part, content);
+        });
+
+        assertThat(parts).containsExactly(new TotalPart(1, true));
+        assertThat(Files.readAllBytes(part)).isEqualTo(Files.readAllBytes(total));
+        assertThat(docRefs).hasSize(10);
+    }
+
+    private static void write(Path file, Consumer<OutputStream> content) {
+        try (var outputStream = Files.newOutputStream(file)) {
+            content.accept(outputStream);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
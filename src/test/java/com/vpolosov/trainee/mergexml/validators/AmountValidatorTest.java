@@ -5,12 +5,12 @@ import com.vpolosov.trainee.mergexml.handler.exception.IncorrectMaxAmountExcepti
 import com.vpolosov.trainee.mergexml.handler.exception.IncorrectMinAmountException;
 import com.vpolosov.trainee.mergexml.handler.exception.IncorrectValueException;
 import com.vpolosov.trainee.mergexml.test.TestUtil;
+import com.vpolosov.trainee.mergexml.utils.PaymentFields;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
-import org.w3c.dom.Document;
 
 import java.math.BigDecimal;
 import java.nio.file.Paths;
@@ -37,23 +37,23 @@ class AmountValidatorTest {
     @Test
     @DisplayName("Успешная валидация при корректной сумме платежа")
     void verify_whenMinAmountIsValid_thenSuccess() {
-        var minAmountValidator = Mockito.spy(new AmountValidator(configProperties, TestUtil.documentUtil()));
+        var minAmountValidator = Mockito.spy(new AmountValidator(configProperties));
         var pathToXmlFiles = Paths.get("src/test/resources/test_fixtures/Ok");
-        var documents = TestUtil.documents(pathToXmlFiles);
+        var documents = TestUtil.paymentFields(pathToXmlFiles);
 
         for (var xmlFile : documents) {
             minAmountValidator.test(xmlFile);
         }
 
-        verify(minAmountValidator, times(10)).test(any(Document.class));
+        verify(minAmountValidator, times(10)).test(any(PaymentFields.class));
     }
 
     @Test
     @DisplayName("Исключение при некорректной минимальной сумме платежа")
     void verify_whenMinAmountIsNotValid_thenThrowException() {
-        var minAmountValidator = spy(new AmountValidator(configProperties, TestUtil.documentUtil()));
+        var minAmountValidator = spy(new AmountValidator(configProperties));
         var pathToXmlFiles = Paths.get("src/test/resources/test_fixtures/sourceXml/MinAmount");
-        var documents = TestUtil.documents(pathToXmlFiles);
+        var documents = TestUtil.paymentFields(pathToXmlFiles);
 
         assertThrows(IncorrectMinAmountException.class, () -> documents.forEach(minAmountValidator::test));
     }
@@ -61,9 +61,9 @@ class AmountValidatorTest {
     @Test
     @DisplayName("Исключение при невалидном значении платежа")
     void verify_whenAmountIsNotValid_thenThrowException() {
-        var minAmountValidator = spy(new AmountValidator(configProperties, TestUtil.documentUtil()));
+        var minAmountValidator = spy(new AmountValidator(configProperties));
         var pathToXmlFiles = Paths.get("src/test/resources/test_fixtures/sourceXml/NotCorrectAmount");
-        var documents = TestUtil.documents(pathToXmlFiles);
+        var documents = TestUtil.paymentFields(pathToXmlFiles);
 
         assertThrows(IncorrectValueException.class, () -> documents.forEach(minAmountValidator::test));
     }
@@ -71,9 +71,9 @@ class AmountValidatorTest {
     @Test
     @DisplayName("Исключение при некорректной максимальной сумме платежа")
     void verify_whenMaxAmountIsNotValid_thenThrowException() {
-        var minAmountValidator = spy(new AmountValidator(configProperties, TestUtil.documentUtil()));
+        var minAmountValidator = spy(new AmountValidator(configProperties));
         var pathToXmlFiles = Paths.get("src/test/resources/test_fixtures/sourceXml/MaxAmount");
-        var documents = TestUtil.documents(pathToXmlFiles);
+        var documents = TestUtil.paymentFields(pathToXmlFiles);
 
         assertThrows(IncorrectMaxAmountException.class, () -> documents.forEach(minAmountValidator::test));
     }
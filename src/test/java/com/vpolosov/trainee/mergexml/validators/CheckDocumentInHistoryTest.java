@@ -4,7 +4,7 @@ import com.vpolosov.trainee.mergexml.handler.exception.DuplicationProcessingExce
 import com.vpolosov.trainee.mergexml.model.History;
 import com.vpolosov.trainee.mergexml.service.HistoryService;
 import com.vpolosov.trainee.mergexml.test.TestUtil;
-import com.vpolosov.trainee.mergexml.utils.DocumentUtil;
+import com.vpolosov.trainee.mergexml.utils.PaymentFields;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -14,8 +14,6 @@ import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.slf4j.Logger;
-import org.springframework.data.jpa.domain.Specification;
-import org.w3c.dom.Document;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -27,7 +25,7 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
-import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.when;
 
 @DisplayName("Тестирование проверки документа в истории совершённых платежей.")
@@ -40,28 +38,24 @@ class CheckDocumentInHistoryTest {
     @Spy
     private Logger loggerForDouble;
 
-    @Spy
-    private static DocumentUtil documentUtil;
-
     @InjectMocks
     private CheckDocumentInHistory checkDocumentInHistory;
 
-    private static Document document;
+    private static PaymentFields paymentFields;
 
     @BeforeAll
     static void init() {
-        documentUtil = TestUtil.documentUtil();
         Path pathToXml = Paths.get("src/test/resources/test_fixtures/sourceXml/Ok/DTO1.v1.xml");
-        document = TestUtil.document(pathToXml);
+        paymentFields = TestUtil.paymentField(pathToXml);
     }
 
     @Test
     @DisplayName("Тестирование метода test если файл не был обработан ранее")
     void test_whenHistoryIsEmpty_thenReturnTrue() {
-        when(historyService.getHistoryListBySpec(any(Specification.class)))
+        when(historyService.findByDocRefs(anyCollection()))
                 .thenReturn(Collections.emptyList());
 
-        assertTrue(checkDocumentInHistory.test(document));
+        assertTrue(checkDocumentInHistory.test(List.of(paymentFields)));
     }
 
     @Test
@@ -71,9 +65,9 @@ class CheckDocumentInHistoryTest {
                 LocalDate.parse("22.02.2024", DateTimeFormatter.ofPattern("dd.MM.yyyy")),
                 LocalDateTime.now().minusMinutes(1));
 
-        when(historyService.getHistoryListBySpec(any(Specification.class)))
+        when(historyService.findByDocRefs(anyCollection()))
                 .thenReturn(List.of(history));
 
-        assertThrows(DuplicationProcessingException.class, () -> checkDocumentInHistory.test(document));
+        assertThrows(DuplicationProcessingException.class, () -> checkDocumentInHistory.test(List.of(paymentFields)));
     }
 }
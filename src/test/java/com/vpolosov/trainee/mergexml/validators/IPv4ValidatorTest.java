@@ -2,10 +2,10 @@ package com.vpolosov.trainee.mergexml.validators;
 
 import com.vpolosov.trainee.mergexml.handler.exception.InvalidIPv4Exception;
 import com.vpolosov.trainee.mergexml.test.TestUtil;
+import com.vpolosov.trainee.mergexml.utils.PaymentFields;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
-import org.w3c.dom.Document;
 
 import java.nio.file.Paths;
 
@@ -20,26 +20,26 @@ class IPv4ValidatorTest {
     @Test
     @DisplayName("Успешная валидация при корректном IP адресе")
     void verify_whenIpValid_thenSuccess() {
-        var ipv4Validator = Mockito.spy(new IPv4Validator(TestUtil.documentUtil()));
+        var ipv4Validator = Mockito.spy(new IPv4Validator());
         var pathToXml = Paths.get("src/test/resources/test_fixtures/Ok");
-        var listXml = TestUtil.documents(pathToXml);
+        var listXml = TestUtil.paymentFields(pathToXml);
 
         listXml.forEach(ipv4Validator::test);
 
-        verify(ipv4Validator, times(10)).test(any(Document.class));
+        verify(ipv4Validator, times(10)).test(any(PaymentFields.class));
     }
 
     @Test
     @DisplayName("Исключение при невалидном IP адресе")
     void verify_whenIpInvalid_thenThrowException() {
-        var ipv4Validator = Mockito.spy(new IPv4Validator(TestUtil.documentUtil()));
+        var ipv4Validator = Mockito.spy(new IPv4Validator());
         var pathToXml = Paths.get("src/test/resources/test_fixtures/sourceXml/InvalidIPv4");
-        var listXml = TestUtil.documents(pathToXml);
+        var listXml = TestUtil.paymentFields(pathToXml);
 
         for (var xmlFile : listXml) {
             assertThrows(InvalidIPv4Exception.class, () -> ipv4Validator.test(xmlFile));
         }
 
-        verify(ipv4Validator, times(10)).test(any(Document.class));
+        verify(ipv4Validator, times(10)).test(any(PaymentFields.class));
     }
 }
\ No newline at end of file
@@ -6,6 +6,7 @@ import com.vpolosov.trainee.mergexml.handler.exception.DependencyPayGrndParamNot
 import com.vpolosov.trainee.mergexml.handler.exception.NoSingleDependencyPayInfoException;
 import com.vpolosov.trainee.mergexml.handler.exception.DependencyPayTypeParamNotFoundException;
 import com.vpolosov.trainee.mergexml.test.TestUtil;
+import com.vpolosov.trainee.mergexml.utils.PaymentFields;
 import com.vpolosov.trainee.mergexml.utils.Vertex;
 import org.jgrapht.Graph;
 import org.jgrapht.graph.DefaultEdge;
@@ -13,7 +14,6 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
-import org.w3c.dom.Document;
 
 import java.nio.file.Paths;
 
@@ -35,60 +35,60 @@ class PayInfoValidatorTest {
     @Test
     @DisplayName("Успешная валидация при корректных входных данных")
     void verify_whenPayInfoValid_thenSuccess() {
-        var payInfoValidator = Mockito.spy(new PayInfoValidator(TestUtil.documentUtil(), graph));
+        var payInfoValidator = Mockito.spy(new PayInfoValidator(graph));
         var pathToXml = Paths.get("src/test/resources/test_fixtures/Ok");
-        var listXml = TestUtil.documents(pathToXml);
+        var listXml = TestUtil.paymentFields(pathToXml);
 
         listXml.forEach(payInfoValidator::test);
 
-        verify(payInfoValidator, times(10)).test(any(Document.class));
+        verify(payInfoValidator, times(10)).test(any(PaymentFields.class));
     }
 
     @Test
     @DisplayName("Исключение при отсутствии кода программ доходов бюджетов")
     void verify_whenCoderevNotFound_thenThrowException() {
-        var payInfoValidator = Mockito.spy(new PayInfoValidator(TestUtil.documentUtil(), graph));
+        var payInfoValidator = Mockito.spy(new PayInfoValidator(graph));
         var pathToXml = Paths.get("src/test/resources/test_fixtures/sourceXml/DependencyPayInfoIncorrect/DTO1.v1.xml");
-        var document = TestUtil.document(pathToXml);
+        var document = TestUtil.paymentField(pathToXml);
 
         assertThrows(DependencyCoderevNotFoundException.class, () -> payInfoValidator.test(document));
 
-        verify(payInfoValidator, times(1)).test(any(Document.class));
+        verify(payInfoValidator, times(1)).test(any(PaymentFields.class));
     }
 
     @Test
     @DisplayName("Исключение при отсутствии типа платежа")
     void verify_whenPayTypeParamNotFound_thenThrowException() {
-        var payInfoValidator = Mockito.spy(new PayInfoValidator(TestUtil.documentUtil(), graph));
+        var payInfoValidator = Mockito.spy(new PayInfoValidator(graph));
         var pathToXml = Paths.get("src/test/resources/test_fixtures/sourceXml/DependencyPayInfoIncorrect/DTO2.v2.xml");
-        var document = TestUtil.document(pathToXml);
+        var document = TestUtil.paymentField(pathToXml);
 
         assertThrows(DependencyPayTypeParamNotFoundException.class, () -> payInfoValidator.test(document));
 
-        verify(payInfoValidator, times(1)).test(any(Document.class));
+        verify(payInfoValidator, times(1)).test(any(PaymentFields.class));
     }
 
     @Test
     @DisplayName("Исключение при отсутствии основания платежа")
     void verify_whenPayGrndParamNotFound_thenThrowException() {
-        var payInfoValidator = Mockito.spy(new PayInfoValidator(TestUtil.documentUtil(), graph));
+        var payInfoValidator = Mockito.spy(new PayInfoValidator(graph));
         var pathToXml = Paths.get("src/test/resources/test_fixtures/sourceXml/DependencyPayInfoIncorrect/DTO2.v3.xml");
-        var document = TestUtil.document(pathToXml);
+        var document = TestUtil.paymentField(pathToXml);
 
         assertThrows(DependencyPayGrndParamNotFoundException.class, () -> payInfoValidator.test(document));
 
-        verify(payInfoValidator, times(1)).test(any(Document.class));
+        verify(payInfoValidator, times(1)).test(any(PaymentFields.class));
     }
 
     @Test
     @DisplayName("Исключение при отсутствии связи")
     void verify_whenNotDependencyPayInfo_thenThrowException() {
-        var payInfoValidator = Mockito.spy(new PayInfoValidator(TestUtil.documentUtil(), graph));
+        var payInfoValidator = Mockito.spy(new PayInfoValidator(graph));
         var pathToXml = Paths.get("src/test/resources/test_fixtures/sourceXml/DependencyPayInfoIncorrect/DTO2.v4.xml");
-        var document = TestUtil.document(pathToXml);
+        var document = TestUtil.paymentField(pathToXml);
 
         assertThrows(NoSingleDependencyPayInfoException.class, () -> payInfoValidator.test(document));
 
-        verify(payInfoValidator, times(1)).test(any(Document.class));
+        verify(payInfoValidator, times(1)).test(any(PaymentFields.class));
     }
 }
\ No newline at end of file
@@ -3,12 +3,12 @@ package com.vpolosov.trainee.mergexml.validators;
 import com.vpolosov.trainee.mergexml.config.TimeConfig;
 import com.vpolosov.trainee.mergexml.handler.exception.IncorrectDateException;
 import com.vpolosov.trainee.mergexml.test.TestUtil;
+import com.vpolosov.trainee.mergexml.utils.PaymentFields;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
-import org.w3c.dom.Document;
 
 import java.nio.file.Paths;
 import java.time.Clock;
@@ -38,15 +38,15 @@ class PaymentDateValidatorTest {
             .atStartOfDay()
             .toInstant(ZoneOffset.UTC);
         var clock = Clock.fixed(fixedSameDate, ZoneOffset.UTC);
-        var paymentDateValidator = Mockito.spy(new PaymentDateValidator(clock, timeConfig.localDateFormat(), TestUtil.documentUtil()));
+        var paymentDateValidator = Mockito.spy(new PaymentDateValidator(clock, timeConfig.localDateFormat()));
         var pathToXmlFiles = Paths.get("src/test/resources/test_fixtures/Ok");
-        var xmlFiles = TestUtil.documents(pathToXmlFiles);
+        var xmlFiles = TestUtil.paymentFields(pathToXmlFiles);
 
         for (var xmlFile : xmlFiles) {
             paymentDateValidator.test(xmlFile);
         }
 
-        verify(paymentDateValidator, times(10)).test(any(Document.class));
+        verify(paymentDateValidator, times(10)).test(any(PaymentFields.class));
     }
 
     @Test
@@ -56,14 +56,14 @@ class PaymentDateValidatorTest {
             .atStartOfDay()
             .toInstant(ZoneOffset.UTC);
         var clock = Clock.fixed(fixedAnotherDate, ZoneOffset.UTC);
-        var paymentDateValidator = Mockito.spy(new PaymentDateValidator(clock, timeConfig.localDateFormat(), TestUtil.documentUtil()));
+        var paymentDateValidator = Mockito.spy(new PaymentDateValidator(clock, timeConfig.localDateFormat()));
         var pathToXmlFiles = Paths.get("src/test/resources/test_fixtures/Ok");
-        var xmlFiles = TestUtil.documents(pathToXmlFiles);
+        var xmlFiles = TestUtil.paymentFields(pathToXmlFiles);
 
         for (var xmlFile : xmlFiles) {
             assertThrows(IncorrectDateException.class, () -> paymentDateValidator.test(xmlFile));
         }
 
-        verify(paymentDateValidator, times(10)).test(any(Document.class));
+        verify(paymentDateValidator, times(10)).test(any(PaymentFields.class));
     }
 }
\ No newline at end of file
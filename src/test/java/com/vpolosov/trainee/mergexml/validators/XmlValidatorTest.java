@@ -0,0 +1,74 @@
+package com.vpolosov.trainee.mergexml.validators;
+
+import com.vpolosov.trainee.mergexml.config.ConfigProperties;
+import com.vpolosov.trainee.mergexml.handler.exception.IncorrectXmlFileException;
+import com.vpolosov.trainee.mergexml.handler.exception.XmlParseException;
+import com.vpolosov.trainee.mergexml.test.TestUtil;
+import com.vpolosov.trainee.mergexml.utils.FileUtil;
+import com.vpolosov.trainee.mergexml.utils.SchemaCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+@DisplayName("Тестирование валидатора XML файла по XSD схеме")
+class XmlValidatorTest {
+
+    private static final String OK_PATH = "src/test/resources/test_fixtures/Ok";
+
+    private static final String MISTAKED_PATH = "src/test/resources/test_fixtures/sourceXml/MistakedXml";
+
+    private final FileUtil fileUtil = new FileUtil();
+
+    private XmlValidator xmlValidator;
+
+    private SchemaCache schemaCache;
+
+    @BeforeEach
+    void setUp() {
+        xmlValidator = new XmlValidator(mock(Logger.class), TestUtil.documentUtil());
+        schemaCache = new SchemaCache(new ConfigProperties(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("Документ, разобранный с проверкой, совпадает с обычным разбором")
+    void parse_whenFileIsValid_thenDocumentEqualsPlainParse() {
+        var schema = schemaCache.get(fileUtil.xsd(OK_PATH));
+
+        for (var file : fileUtil.listXml(OK_PATH, 1, 10)) {
+            var document = xmlValidator.parse(file, schema);
+
+            assertThat(document.isEqualNode(TestUtil.documentUtil().parse(file))).isTrue();
+            assertThat(TestUtil.documentUtil().getFileName(document)).isEqualTo(file.getName());
+        }
+    }
+
+    @Test
+    @DisplayName("Исключение при несоответствии файла XSD схеме")
+    void parse_whenFileIsNotValid_thenThrowException() {
+        var schema = schemaCache.get(fileUtil.xsd(MISTAKED_PATH));
+        var files = fileUtil.listXml(MISTAKED_PATH, 1, 10);
+
+        assertThrows(IncorrectXmlFileException.class, () -> files.forEach(file -> xmlValidator.parse(file, schema)));
+    }
+
+    @Test
+    @DisplayName("Исключение разбора при некорректном XML")
+    void parse_whenFileIsNotWellFormed_thenThrowParseException(@TempDir Path tempDir) throws IOException {
+        var schema = schemaCache.get(fileUtil.xsd(OK_PATH));
+        File file = Files.writeString(tempDir.resolve("broken.xml"), "not xml").toFile();
+
+        assertThrows(XmlParseException.class, () -> xmlValidator.parse(file, schema));
+    }
+}